@@ -0,0 +1,35 @@
+package br.com.backend.cervejaria.benchmark;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CervejaMapperBenchmark {
+
+    private final CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+    private final Cerveja cerveja = new Cerveja(1L, "Brahma", "brahma", "Ambev", 50, 10, 0, CervejaTipo.BOCK, 5, 0L);
+    private final CervejaDTO cervejaDTO = new CervejaDTO(1L, "Brahma", "Ambev", 50, 10, 0, CervejaTipo.BOCK, 5, 0L);
+
+    @Benchmark
+    public CervejaDTO toDTO() {
+        return cervejaMapper.toDTO(cerveja);
+    }
+
+    @Benchmark
+    public Cerveja toModel() {
+        return cervejaMapper.toModel(cervejaDTO);
+    }
+
+}
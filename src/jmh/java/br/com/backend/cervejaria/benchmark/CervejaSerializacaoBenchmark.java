@@ -0,0 +1,88 @@
+package br.com.backend.cervejaria.benchmark;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de listas de CervejaDTO, no formato devolvido por
+ * GET /api/v1/cervejas, em JSON e em CBOR. O tamanho do payload de cada
+ * combinação sai no resultado como o contador bytesPayload.
+ * <p>
+ * Roda em uma única thread: o JMH soma os contadores auxiliares de todas as
+ * threads, e com -t N o bytesPayload sairia N vezes o tamanho do payload.
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CervejaSerializacaoBenchmark {
+
+    private static final TypeReference<List<CervejaDTO>> LISTA_CERVEJAS = new TypeReference<List<CervejaDTO>>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    private int tamanho;
+
+    @Param({"json", "cbor"})
+    private String formato;
+
+    private ObjectMapper objectMapper;
+    private List<CervejaDTO> cervejas;
+    private byte[] payload;
+
+    @Setup
+    public void preparar() throws JsonProcessingException {
+        objectMapper = "cbor".equals(formato) ? new ObjectMapper(new CBORFactory()) : new ObjectMapper();
+        CervejaTipo[] tipos = CervejaTipo.values();
+        cervejas = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            cervejas.add(new CervejaDTO((long) i + 1, "Cerveja " + i, "Marca " + (i % 20), 500, i % 500, 0, tipos[i % tipos.length], null, 0L));
+        }
+        payload = objectMapper.writeValueAsBytes(cervejas);
+    }
+
+    @Benchmark
+    public byte[] serializar(Tamanho tamanhoPayload) throws JsonProcessingException {
+        byte[] serializado = objectMapper.writeValueAsBytes(cervejas);
+        tamanhoPayload.bytesPayload = serializado.length;
+        return serializado;
+    }
+
+    @Benchmark
+    public List<CervejaDTO> desserializar(Tamanho tamanhoPayload) throws IOException {
+        tamanhoPayload.bytesPayload = payload.length;
+        return objectMapper.readValue(payload, LISTA_CERVEJAS);
+    }
+
+    /**
+     * Atribuído, e não somado, a cada chamada, para que o contador mostre o
+     * tamanho de um payload e não o volume da iteração. Só vale com uma
+     * thread; ver {@link CervejaSerializacaoBenchmark}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanho {
+
+        public long bytesPayload;
+    }
+
+}
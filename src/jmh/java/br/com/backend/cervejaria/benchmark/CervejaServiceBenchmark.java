@@ -0,0 +1,75 @@
+package br.com.backend.cervejaria.benchmark;
+
+import br.com.backend.cervejaria.CervejariaApplication;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.service.CervejaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CervejaService com o contexto Spring completo sobre o H2 em memória.
+ * Incremento e decremento se alternam na mesma cerveja para que o estoque
+ * nunca encoste nos limites durante a medição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CervejaServiceBenchmark {
+
+    @Param({"100", "1000"})
+    private int tamanhoCatalogo;
+
+    private ConfigurableApplicationContext contexto;
+    private CervejaService cervejaService;
+    private Long idCerveja;
+
+    @Setup
+    public void iniciar() throws CervejaJaCadastradaException {
+        contexto = new SpringApplicationBuilder(CervejariaApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        cervejaService = contexto.getBean(CervejaService.class);
+        for (int i = 0; i < tamanhoCatalogo; i++) {
+            CervejaDTO cerveja = cervejaService.criarCerveja(new CervejaDTO(null, "Cerveja " + i, "Marca " + (i % 20), 1000, 500, 0, CervejaTipo.IPA, null, null));
+            if (idCerveja == null) {
+                idCerveja = cerveja.getId();
+            }
+        }
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public CervejaDTO incrementarEDecrementar() throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+        cervejaService.incrementar(idCerveja, 1);
+        return cervejaService.decrementar(idCerveja, 1);
+    }
+
+    @Benchmark
+    public List<CervejaDTO> listarTudo() {
+        return cervejaService.listarTudo();
+    }
+
+}
@@ -0,0 +1,150 @@
+package br.com.backend.cervejaria.agendamento;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Roda de temporização (hashed timing wheel) para prazos em milissegundos.
+ * <p>
+ * O tempo é dividido em tiques e cada tique cai em uma das posições da
+ * roda, de forma que agendar e cancelar custam O(1) e cada avanço só olha
+ * as posições dos tiques que passaram, independentemente de quantos prazos
+ * estão pendentes. Prazos além de uma volta da roda guardam quantas voltas
+ * ainda faltam. Um prazo nunca vence antes da hora, e vence no máximo um
+ * tique depois dela, contado a partir do avanço seguinte.
+ * <p>
+ * agendar e cancelar podem ser chamados de qualquer thread; avancar é
+ * chamado por uma thread de cada vez (tipicamente uma tarefa periódica).
+ * Os cancelados saem da roda quando a sua posição é visitada.
+ */
+public class RodaTemporizacao<T> {
+
+    private static final int ATIVO = 0;
+    private static final int CANCELADO = 1;
+    private static final int VENCIDO = 2;
+
+    private final long duracaoTique;
+    private final int mascara;
+    private final Queue<Temporizador<T>>[] posicoes;
+    private final Queue<Temporizador<T>> novos = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendentes = new AtomicLong();
+    private final long inicio;
+    private long proximoTique;
+
+    /**
+     * posicoes é arredondado para a potência de 2 seguinte; inicio é o
+     * instante, em milissegundos, do tique zero.
+     */
+    @SuppressWarnings("unchecked")
+    public RodaTemporizacao(long duracaoTique, int posicoes, long inicio) {
+        if (duracaoTique < 1 || posicoes < 1 || posicoes > 1 << 30) {
+            throw new IllegalArgumentException("Duração do tique deve ser positiva e as posições entre 1 e 2^30.");
+        }
+        int tamanho = Integer.highestOneBit(posicoes) == posicoes ? posicoes : Integer.highestOneBit(posicoes) << 1;
+        this.duracaoTique = duracaoTique;
+        this.mascara = tamanho - 1;
+        this.posicoes = new Queue[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            this.posicoes[i] = new ArrayDeque<>();
+        }
+        this.inicio = inicio;
+    }
+
+    public Temporizador<T> agendar(T item, long prazo) {
+        Temporizador<T> temporizador = new Temporizador<>(item, prazo, pendentes);
+        pendentes.incrementAndGet();
+        novos.add(temporizador);
+        return temporizador;
+    }
+
+    /**
+     * Processa todos os tiques completos até agora e devolve, na ordem dos
+     * tiques, os itens cujo prazo venceu.
+     */
+    public synchronized List<T> avancar(long agora) {
+        List<T> vencidos = new ArrayList<>();
+        long ultimoTique = Math.floorDiv(agora - inicio, duracaoTique);
+        if (ultimoTique < proximoTique) {
+            return vencidos;
+        }
+        distribuirNovos();
+        for (; proximoTique <= ultimoTique; proximoTique++) {
+            Iterator<Temporizador<T>> posicao = posicoes[(int) (proximoTique & mascara)].iterator();
+            while (posicao.hasNext()) {
+                Temporizador<T> temporizador = posicao.next();
+                if (temporizador.estado.get() == CANCELADO) {
+                    posicao.remove();
+                } else if (temporizador.voltas > 0) {
+                    temporizador.voltas--;
+                } else {
+                    posicao.remove();
+                    if (temporizador.estado.compareAndSet(ATIVO, VENCIDO)) {
+                        pendentes.decrementAndGet();
+                        vencidos.add(temporizador.item);
+                    }
+                }
+            }
+        }
+        return vencidos;
+    }
+
+    /**
+     * Prazos agendados e ainda não vencidos nem cancelados.
+     */
+    public long getPendentes() {
+        return pendentes.get();
+    }
+
+    /**
+     * Coloca os agendados desde o último avanço na posição do tique em que
+     * vencem; prazos já passados vão para o próximo tique a processar.
+     */
+    private void distribuirNovos() {
+        Temporizador<T> temporizador;
+        while ((temporizador = novos.poll()) != null) {
+            if (temporizador.estado.get() == CANCELADO) {
+                continue;
+            }
+            long tique = Math.max(proximoTique, -Math.floorDiv(inicio - temporizador.prazo, duracaoTique));
+            temporizador.voltas = (tique - proximoTique) / posicoes.length;
+            posicoes[(int) (tique & mascara)].add(temporizador);
+        }
+    }
+
+    public static class Temporizador<T> {
+
+        private final T item;
+        private final long prazo;
+        private final AtomicLong pendentes;
+        private final AtomicInteger estado = new AtomicInteger(ATIVO);
+        private long voltas;
+
+        private Temporizador(T item, long prazo, AtomicLong pendentes) {
+            this.item = item;
+            this.prazo = prazo;
+            this.pendentes = pendentes;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * false quando o prazo já tinha vencido ou sido cancelado.
+         */
+        public boolean cancelar() {
+            if (estado.compareAndSet(ATIVO, CANCELADO)) {
+                pendentes.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
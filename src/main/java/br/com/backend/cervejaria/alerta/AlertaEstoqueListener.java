@@ -0,0 +1,14 @@
+package br.com.backend.cervejaria.alerta;
+
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+
+/**
+ * Ponto de extensão para receber os alertas de estoque baixo. Cada bean
+ * que implementa esta interface é notificado quando uma cerveja chega ao
+ * mínimo e quando volta a ficar acima dele.
+ */
+public interface AlertaEstoqueListener {
+
+    void notificar(AlertaEstoqueDTO alerta);
+
+}
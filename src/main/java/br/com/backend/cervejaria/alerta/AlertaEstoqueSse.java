@@ -0,0 +1,134 @@
+package br.com.backend.cervejaria.alerta;
+
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+import br.com.backend.cervejaria.evento.PoolEnvio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entrega os alertas de estoque aos clientes inscritos em
+ * GET /api/v1/cervejas/alertas/stream como server-sent events.
+ * <p>
+ * Cada cliente tem uma fila limitada, esvaziada pelo mesmo {@link PoolEnvio}
+ * limitado do stream de alterações; a notificação só enfileira e nunca espera
+ * pela rede. Um cliente cuja fila enche, ou cujo envio o pool recusa, é
+ * desconectado e recebe os alertas em aberto ao se inscrever de novo.
+ */
+@Component
+public class AlertaEstoqueSse implements AlertaEstoqueListener {
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService envio;
+    private final long timeout;
+    private final int capacidadeFila;
+
+    public AlertaEstoqueSse(@Value("${cervejaria.alerta.sse.timeout:30m}") Duration timeout,
+                            @Value("${cervejaria.alerta.sse.fila-assinante:100}") int capacidadeFila,
+                            @Value("${cervejaria.alerta.sse.threads-envio:4}") int threadsEnvio,
+                            @Value("${cervejaria.alerta.sse.fila-envio:1000}") int capacidadeFilaEnvio) {
+        this.timeout = timeout.toMillis();
+        this.capacidadeFila = capacidadeFila;
+        this.envio = PoolEnvio.criar("cervejaria-alertas-envio", threadsEnvio, capacidadeFilaEnvio);
+    }
+
+    /**
+     * Inscreve um novo cliente, que recebe primeiro os alertas em aberto.
+     */
+    public SseEmitter inscrever(List<AlertaEstoqueDTO> alertasEmAberto) {
+        SseEmitter emissor = new SseEmitter(timeout);
+        Assinante assinante = new Assinante(emissor, capacidadeFila + alertasEmAberto.size());
+        emissor.onCompletion(assinante::encerrar);
+        emissor.onTimeout(assinante::encerrar);
+        emissor.onError(erro -> assinante.encerrar());
+        assinantes.add(assinante);
+        alertasEmAberto.forEach(assinante::oferecer);
+        return emissor;
+    }
+
+    @Override
+    public void notificar(AlertaEstoqueDTO alerta) {
+        assinantes.forEach(assinante -> assinante.oferecer(alerta));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        assinantes.forEach(Assinante::encerrar);
+        envio.shutdownNow();
+    }
+
+    private class Assinante {
+
+        private final SseEmitter emissor;
+        private final BlockingQueue<AlertaEstoqueDTO> fila;
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private final AtomicBoolean encerrado = new AtomicBoolean();
+
+        private Assinante(SseEmitter emissor, int capacidade) {
+            this.emissor = emissor;
+            this.fila = new LinkedBlockingQueue<>(capacidade);
+        }
+
+        private void oferecer(AlertaEstoqueDTO alerta) {
+            if (fila.offer(alerta)) {
+                agendar();
+            } else {
+                encerrar();
+            }
+        }
+
+        private void agendar() {
+            if (encerrado.get() || !agendado.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                envio.execute(this::enviarPendentes);
+            } catch (RejectedExecutionException e) {
+                agendado.set(false);
+                encerrar();
+            }
+        }
+
+        private void enviarPendentes() {
+            try {
+                AlertaEstoqueDTO alerta;
+                while (!encerrado.get() && (alerta = fila.poll()) != null) {
+                    emissor.send(SseEmitter.event()
+                            .name(alerta.getSituacao().name())
+                            .data(alerta));
+                }
+            } catch (IOException | RuntimeException e) {
+                encerrar();
+            } finally {
+                agendado.set(false);
+            }
+            if (!fila.isEmpty()) {
+                agendar();
+            }
+        }
+
+        private void encerrar() {
+            if (encerrado.compareAndSet(false, true)) {
+                assinantes.remove(this);
+                try {
+                    emissor.complete();
+                } catch (IllegalStateException e) {
+                    // o emissor já foi encerrado
+                }
+            }
+        }
+    }
+
+}
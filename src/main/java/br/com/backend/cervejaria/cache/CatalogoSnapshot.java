@@ -0,0 +1,197 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.service.CervejaService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catálogo já serializado para GET /api/v1/cervejas.
+ * <p>
+ * Cada cerveja é guardada como JSON pronto, ordenada por id, e só é
+ * serializada de novo quando um CervejaEvento a altera. O array completo,
+ * e sua versão em gzip, são montados na primeira leitura após uma mudança e
+ * reaproveitados até a próxima. A primeira leitura carrega o catálogo do
+ * banco; eventos recebidos durante a carga prevalecem pela versão. As
+ * cervejas removidas ficam marcadas por cervejaria.catalogo.removidas-expiracao,
+ * o bastante para que nem a carga nem um evento atrasado as tragam de volta.
+ * <p>
+ * A ETag da lista sai do mesmo {@link Conteudo} que os bytes, derivada da
+ * geração a partir da qual ele foi montado, e não depende da ordem em que
+ * os listeners de CervejaEvento rodam.
+ */
+@Component
+public class CatalogoSnapshot {
+
+    private static final long TAMANHO_MAXIMO_REMOVIDAS = 100_000;
+
+    private final CervejaService cervejaService;
+    private final ObjectMapper objectMapper;
+
+    private final long epoca = System.currentTimeMillis();
+    private final ConcurrentNavigableMap<Long, Entrada> entradas = new ConcurrentSkipListMap<>();
+    private final Cache<Long, Boolean> removidas;
+    private final AtomicLong geracao = new AtomicLong();
+    private volatile boolean carregado;
+    private volatile Conteudo conteudo;
+
+    @Autowired
+    public CatalogoSnapshot(CervejaService cervejaService,
+                            ObjectMapper objectMapper,
+                            @Value("${cervejaria.catalogo.removidas-expiracao:5m}") Duration expiracaoRemovidas) {
+        this.cervejaService = cervejaService;
+        this.objectMapper = objectMapper;
+        this.removidas = Caffeine.newBuilder()
+                .maximumSize(TAMANHO_MAXIMO_REMOVIDAS)
+                .expireAfterWrite(expiracaoRemovidas)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void atualizar(CervejaEvento evento) {
+        CervejaDTO cervejaDTO = evento.getCerveja();
+        if (evento.getTipo() == CervejaEventoTipo.REMOVIDA) {
+            removidas.put(cervejaDTO.getId(), Boolean.TRUE);
+            entradas.remove(cervejaDTO.getId());
+        } else {
+            guardar(cervejaDTO);
+        }
+        geracao.incrementAndGet();
+    }
+
+    /**
+     * A geração é lida antes de montar o array e só avança depois que as
+     * entradas mudam, então os bytes nunca são mais antigos que a ETag.
+     */
+    public Conteudo atual() {
+        carregar();
+        Conteudo atual = conteudo;
+        if (atual != null && atual.geracao == geracao.get()) {
+            return atual;
+        }
+        synchronized (this) {
+            atual = conteudo;
+            long geracaoAtual = geracao.get();
+            if (atual == null || atual.geracao != geracaoAtual) {
+                atual = new Conteudo(geracaoAtual, "\"" + epoca + "-" + geracaoAtual + "\"", montar());
+                conteudo = atual;
+            }
+            return atual;
+        }
+    }
+
+    private void carregar() {
+        if (carregado) {
+            return;
+        }
+        synchronized (this) {
+            if (!carregado) {
+                cervejaService.percorrerTudo(this::guardar);
+                carregado = true;
+            }
+        }
+    }
+
+    private void guardar(CervejaDTO cervejaDTO) {
+        if (removidas.getIfPresent(cervejaDTO.getId()) != null) {
+            return;
+        }
+        Entrada nova = new Entrada(versao(cervejaDTO), serializar(cervejaDTO));
+        entradas.merge(cervejaDTO.getId(), nova, (atual, candidata) -> candidata.versao >= atual.versao ? candidata : atual);
+    }
+
+    private byte[] montar() {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        saida.write('[');
+        boolean primeira = true;
+        for (Entrada entrada : entradas.values()) {
+            if (!primeira) {
+                saida.write(',');
+            }
+            saida.writeBytes(entrada.json);
+            primeira = false;
+        }
+        saida.write(']');
+        return saida.toByteArray();
+    }
+
+    private byte[] serializar(CervejaDTO cervejaDTO) {
+        try {
+            return objectMapper.writeValueAsBytes(cervejaDTO);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long versao(CervejaDTO cervejaDTO) {
+        return cervejaDTO.getVersao() == null ? -1L : cervejaDTO.getVersao();
+    }
+
+    private static class Entrada {
+
+        private final long versao;
+        private final byte[] json;
+
+        private Entrada(long versao, byte[] json) {
+            this.versao = versao;
+            this.json = json;
+        }
+    }
+
+    public static class Conteudo {
+
+        private final long geracao;
+        private final String etag;
+        private final byte[] json;
+        private byte[] gzip;
+
+        public Conteudo(String etag, byte[] json) {
+            this(-1L, etag, json);
+        }
+
+        private Conteudo(long geracao, String etag, byte[] json) {
+            this.geracao = geracao;
+            this.etag = etag;
+            this.json = json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        public synchronized byte[] gzip() {
+            if (gzip == null) {
+                ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4 + 64);
+                try (GZIPOutputStream compactador = new GZIPOutputStream(saida)) {
+                    compactador.write(json);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                gzip = saida.toByteArray();
+            }
+            return gzip;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache das cervejas consultadas por nome, limitado por tamanho e por tempo
+ * de vida. As escritas chegam como CervejaEvento, depois do commit, e
+ * atualizam ou removem a entrada afetada; um índice de id para nome torna a
+ * remoção por id direta. As cervejas removidas ficam marcadas por um tempo,
+ * para que um evento ou uma leitura atrasados não as coloquem de volta. As
+ * estatísticas ficam disponíveis no Actuator em cache.*.
+ */
+@Component
+public class CervejaCache {
+
+    private static final String NOME_CACHE = "cervejas.nome";
+
+    private final Cache<String, CervejaDTO> cache;
+    private final ConcurrentMap<Long, String> nomesPorId = new ConcurrentHashMap<>();
+    private final Cache<Long, Boolean> removidas;
+
+    public CervejaCache(MeterRegistry meterRegistry,
+                        @Value("${cervejaria.cache.nome.tamanho-maximo:10000}") long tamanhoMaximo,
+                        @Value("${cervejaria.cache.nome.expiracao:5m}") Duration expiracao) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .evictionListener((String nome, CervejaDTO cervejaDTO, RemovalCause causa) -> {
+                    if (cervejaDTO != null) {
+                        nomesPorId.remove(cervejaDTO.getId(), nome);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.removidas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOME_CACHE);
+    }
+
+    public Optional<CervejaDTO> obter(String nome) {
+        return Optional.ofNullable(cache.getIfPresent(nome));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void atualizar(CervejaEvento evento) {
+        CervejaDTO cervejaDTO = evento.getCerveja();
+        if (evento.getTipo() == CervejaEventoTipo.REMOVIDA) {
+            removidas.put(cervejaDTO.getId(), Boolean.TRUE);
+            removerPorId(cervejaDTO.getId());
+        } else {
+            guardar(cervejaDTO);
+        }
+    }
+
+    /**
+     * O valor recém-gravado substitui o que estiver em cache, a menos que uma
+     * escrita concorrente já tenha guardado uma versão mais nova.
+     */
+    private void guardar(CervejaDTO cervejaDTO) {
+        if (removida(cervejaDTO)) {
+            return;
+        }
+        cache.asMap().compute(cervejaDTO.getNome(), (nome, atual) -> {
+            CervejaDTO escolhida = atual == null || versao(cervejaDTO) >= versao(atual) ? cervejaDTO : atual;
+            nomesPorId.put(escolhida.getId(), nome);
+            return escolhida;
+        });
+    }
+
+    /**
+     * Usado pelas leituras: não sobrescreve um valor que uma escrita concorrente
+     * tenha gravado depois que a consulta ao banco começou.
+     */
+    public void guardarSeAusente(CervejaDTO cervejaDTO) {
+        if (removida(cervejaDTO)) {
+            return;
+        }
+        cache.asMap().computeIfAbsent(cervejaDTO.getNome(), nome -> {
+            nomesPorId.put(cervejaDTO.getId(), nome);
+            return cervejaDTO;
+        });
+    }
+
+    private void removerPorId(Long id) {
+        String nome = nomesPorId.remove(id);
+        if (nome != null) {
+            cache.asMap().computeIfPresent(nome, (chave, atual) -> id.equals(atual.getId()) ? null : atual);
+        }
+    }
+
+    private boolean removida(CervejaDTO cervejaDTO) {
+        return cervejaDTO.getId() != null && removidas.getIfPresent(cervejaDTO.getId()) != null;
+    }
+
+    private static long versao(CervejaDTO cervejaDTO) {
+        return cervejaDTO.getVersao() == null ? -1L : cervejaDTO.getVersao();
+    }
+
+}
@@ -0,0 +1,56 @@
+package br.com.backend.cervejaria.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Junta chamadas concorrentes com a mesma chave em uma só execução: a
+ * primeira executa e as que chegam enquanto ela ainda está em andamento
+ * esperam e recebem o mesmo resultado, ou a mesma exceção. Nada é guardado
+ * depois que a execução termina; a próxima chamada executa de novo.
+ * <p>
+ * Quem entra em uma execução já iniciada pode receber um valor lido antes
+ * de uma escrita que terminou enquanto esperava, como aconteceria se a sua
+ * própria consulta tivesse começado no mesmo instante.
+ */
+public class ChamadaUnica<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+
+    public V executar(K chave, Supplier<V> chamada) {
+        CompletableFuture<V> nova = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            return aguardar(existente);
+        }
+        try {
+            V valor = chamada.get();
+            nova.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, nova);
+        }
+    }
+
+    private static <V> V aguardar(CompletableFuture<V> execucao) {
+        try {
+            return execucao.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package br.com.backend.cervejaria.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de textos, seguro para uso concorrente. Dimensionado pela
+ * quantidade esperada de elementos e pela taxa de falsos positivos aceita:
+ * podeConter nunca devolve false para um texto adicionado, e devolve true
+ * para um texto ausente com probabilidade próxima da taxa enquanto a
+ * capacidade não for ultrapassada. Não permite remoção.
+ */
+public class FiltroBloom {
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+    private final long tamanhoEmBits;
+    private final int funcoes;
+    private final long capacidade;
+
+    public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        if (capacidade < 1 || taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva e a taxa de falso positivo entre 0 e 1.");
+        }
+        long bitsNecessarios = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (bitsNecessarios + 63) / 64));
+        this.bits = new AtomicLongArray(palavras);
+        this.tamanhoEmBits = palavras * 64L;
+        this.funcoes = Math.max(1, (int) Math.round((double) tamanhoEmBits / capacidade * Math.log(2)));
+        this.capacidade = capacidade;
+    }
+
+    public void adicionar(String texto) {
+        long hash = hash(texto);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funcoes; i++) {
+            long posicao = Math.floorMod(h1 + (long) i * h2, tamanhoEmBits);
+            int palavra = (int) (posicao >>> 6);
+            long mascara = 1L << posicao;
+            long atual = bits.get(palavra);
+            while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara)) {
+                atual = bits.get(palavra);
+            }
+        }
+    }
+
+    public boolean podeConter(String texto) {
+        long hash = hash(texto);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funcoes; i++) {
+            long posicao = Math.floorMod(h1 + (long) i * h2, tamanhoEmBits);
+            if ((bits.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre o UTF-8, com a mistura final do SplitMix64 para
+     * espalhar também os 32 bits altos, usados como segundo hash.
+     */
+    private static long hash(String texto) {
+        long hash = FNV_BASE;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIMO;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+}
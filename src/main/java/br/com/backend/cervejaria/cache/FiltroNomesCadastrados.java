@@ -0,0 +1,130 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de Bloom com os nomes cadastrados, para o CervejaService pular a
+ * consulta de nome duplicado quando o nome com certeza não existe.
+ * <p>
+ * É carregado na inicialização e recebe cada nome criado pelos eventos do
+ * serviço. Um filtro de Bloom não remove: o nome de uma cerveja removida
+ * continua dando positivo, o que só custa uma consulta a mais. Depois de
+ * cervejaria.filtro-nomes.reconstruir-apos-remocoes remoções, ou quando os
+ * nomes passam da capacidade e a taxa de falsos positivos sobe, o filtro é
+ * reconstruído a partir do banco em segundo plano. Desligado, ou enquanto
+ * não foi carregado, responde sempre que o nome pode existir.
+ */
+@Slf4j
+@Component
+public class FiltroNomesCadastrados {
+
+    private final CervejaRepository cervejaRepository;
+    private final boolean ativo;
+    private final double taxaFalsoPositivo;
+    private final long capacidadeMinima;
+    private final long reconstruirAposRemocoes;
+
+    private final AtomicLong nomes = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private final Object travaReconstrucao = new Object();
+    private volatile FiltroBloom atual;
+    private volatile FiltroBloom emConstrucao;
+
+    @Autowired
+    public FiltroNomesCadastrados(CervejaRepository cervejaRepository,
+                                  @Value("${cervejaria.filtro-nomes.ativo:true}") boolean ativo,
+                                  @Value("${cervejaria.filtro-nomes.taxa-falso-positivo:0.01}") double taxaFalsoPositivo,
+                                  @Value("${cervejaria.filtro-nomes.capacidade-minima:100000}") long capacidadeMinima,
+                                  @Value("${cervejaria.filtro-nomes.reconstruir-apos-remocoes:1000}") long reconstruirAposRemocoes) {
+        this.cervejaRepository = cervejaRepository;
+        this.ativo = ativo;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.capacidadeMinima = capacidadeMinima;
+        this.reconstruirAposRemocoes = reconstruirAposRemocoes;
+    }
+
+    @PostConstruct
+    public void carregar() {
+        if (ativo) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * false quando o nome com certeza não está cadastrado; true quando pode
+     * estar e é preciso consultar o banco.
+     */
+    public boolean podeConter(String nome) {
+        FiltroBloom filtro = atual;
+        return filtro == null || filtro.podeConter(nome);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void atualizar(CervejaEvento evento) {
+        if (atual == null) {
+            return;
+        }
+        if (evento.getTipo() == CervejaEventoTipo.CRIADA) {
+            adicionar(evento.getCerveja().getNome());
+            nomes.incrementAndGet();
+        } else if (evento.getTipo() == CervejaEventoTipo.REMOVIDA) {
+            remocoes.incrementAndGet();
+            nomes.decrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cervejaria.filtro-nomes.intervalo:5000}")
+    public void reconstruirSeNecessario() {
+        FiltroBloom filtro = atual;
+        if (filtro != null && (remocoes.get() >= reconstruirAposRemocoes || nomes.get() > filtro.getCapacidade())) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Monta um filtro novo a partir do banco e o troca pelo atual. Os nomes
+     * criados durante a leitura vão para os dois filtros, de forma que
+     * nenhum se perde na troca.
+     */
+    void reconstruir() {
+        synchronized (travaReconstrucao) {
+            long removidasAntes = remocoes.get();
+            long capacidade = Math.max(capacidadeMinima, 2 * nomes.get());
+            FiltroBloom novo = new FiltroBloom(capacidade, taxaFalsoPositivo);
+            AtomicLong carregados = new AtomicLong();
+            emConstrucao = novo;
+            try {
+                cervejaRepository.percorrerTodas(cerveja -> {
+                    novo.adicionar(cerveja.getNome());
+                    carregados.incrementAndGet();
+                });
+                nomes.set(carregados.get());
+                remocoes.addAndGet(-removidasAntes);
+                atual = novo;
+            } finally {
+                emConstrucao = null;
+            }
+            log.info("Filtro de nomes reconstruído com {} cervejas (capacidade {})", carregados.get(), capacidade);
+        }
+    }
+
+    private void adicionar(String nome) {
+        atual.adicionar(nome);
+        FiltroBloom proximo = emConstrucao;
+        if (proximo != null) {
+            proximo.adicionar(nome);
+        }
+    }
+
+}
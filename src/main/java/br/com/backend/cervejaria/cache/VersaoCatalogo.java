@@ -0,0 +1,38 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão do catálogo inteiro, avançada a cada CervejaEvento, e a ETag
+ * derivada dela. A ETag carrega a época desta execução, para que uma versão
+ * em memória reiniciada nunca coincida com uma ETag emitida antes.
+ * <p>
+ * A lista em JSON usa a ETag do próprio {@link CatalogoSnapshot}; a versão
+ * daqui atende às respostas montadas direto do banco, como a lista em CBOR e
+ * a busca por nome, e permite responder 304 sem consultar o banco.
+ */
+@Component
+public class VersaoCatalogo {
+
+    private final long epoca = System.currentTimeMillis();
+    private final AtomicLong versao = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void avancar(CervejaEvento evento) {
+        versao.incrementAndGet();
+    }
+
+    /**
+     * Deve ser obtida antes de ler o catálogo: se uma escrita acontecer
+     * durante a leitura, a ETag fica mais antiga que o conteúdo e a próxima
+     * requisição condicional recebe a lista nova, nunca um 304 indevido.
+     */
+    public String etagCatalogo() {
+        return "\"" + epoca + "-" + versao.get() + "\"";
+    }
+
+}
@@ -0,0 +1,80 @@
+package br.com.backend.cervejaria.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+
+/**
+ * Cache de segundo nível opcional (cervejaria.cache.segundo-nivel.ativo=true)
+ * para a entidade Cerveja e para a consulta por nome, guardado no heap pelo
+ * Ehcache via JCache.
+ * <p>
+ * As regiões são criadas aqui, com tamanho e expiração vindos das
+ * propriedades cervejaria.cache.segundo-nivel.*. Os movimentos de estoque
+ * feitos por JDBC travam no cache as cervejas alteradas até o fim da
+ * transação (ver CervejaRepositoryImpl); os feitos pelo Hibernate são
+ * tratados por ele.
+ * Com o cache ativo, as estatísticas do Hibernate ficam ligadas e aparecem no
+ * Actuator como métricas hibernate.*.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "cervejaria.cache.segundo-nivel.ativo", havingValue = "true")
+public class CacheSegundoNivelConfig {
+
+    static final String REGIAO_CERVEJA = "cerveja";
+    static final String REGIAO_CONSULTAS = "default-query-results-region";
+    static final String REGIAO_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel(@Value("${cervejaria.cache.segundo-nivel.entidades.tamanho-maximo:10000}") long entidadesMaximo,
+                                                 @Value("${cervejaria.cache.segundo-nivel.entidades.expiracao:10m}") Duration expiracaoEntidades,
+                                                 @Value("${cervejaria.cache.segundo-nivel.consultas.tamanho-maximo:1000}") long consultasMaximo,
+                                                 @Value("${cervejaria.cache.segundo-nivel.consultas.expiracao:5m}") Duration expiracaoConsultas) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName()).getCacheManager();
+        criarRegiao(cacheManager, REGIAO_CERVEJA, entidadesMaximo, ExpiryPolicyBuilder.timeToLiveExpiration(expiracaoEntidades));
+        criarRegiao(cacheManager, REGIAO_CONSULTAS, consultasMaximo, ExpiryPolicyBuilder.timeToLiveExpiration(expiracaoConsultas));
+        // Os timestamps marcam quando cada tabela mudou; se expirassem antes das
+        // consultas, resultados antigos poderiam voltar a ser considerados válidos.
+        criarRegiao(cacheManager, REGIAO_TIMESTAMPS, 1000, ExpiryPolicyBuilder.noExpiration());
+        log.info("Cache de segundo nível ativo: até {} cervejas por {} e {} consultas por {}",
+                entidadesMaximo, expiracaoEntidades, consultasMaximo, expiracaoConsultas);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelHibernate(CacheManager cacheManagerSegundoNivel) {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propriedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+            propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propriedades.put(AvailableSettings.GENERATE_STATISTICS, true);
+            propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+        };
+    }
+
+    private static void criarRegiao(CacheManager cacheManager, String regiao, long tamanhoMaximo, ExpiryPolicy<Object, Object> expiracao) {
+        if (cacheManager.getCache(regiao) != null) {
+            return;
+        }
+        cacheManager.createCache(regiao, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(tamanhoMaximo))
+                        .withExpiry(expiracao)));
+    }
+
+}
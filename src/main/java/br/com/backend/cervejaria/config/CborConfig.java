@@ -0,0 +1,23 @@
+package br.com.backend.cervejaria.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Habilita application/cbor em toda a API por negociação de conteúdo
+ * (Accept e Content-Type). O conversor usa o mesmo builder do Jackson
+ * que o Spring Boot usa para JSON, de forma que os DTOs serializam com
+ * os mesmos nomes e regras nos dois formatos.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+
+}
@@ -0,0 +1,58 @@
+package br.com.backend.cervejaria.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de execução opcional (cervejaria.execucao.threads-virtuais=true):
+ * cada requisição do Tomcat, e cada resposta assíncrona como o NDJSON,
+ * roda em uma thread virtual, de forma que as chamadas bloqueantes ao JDBC
+ * não prendem threads do pool.
+ * <p>
+ * O projeto continua compilado para Java 11; o executor é obtido por
+ * reflexão e exige que a aplicação rode em uma JVM 21 ou mais recente.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "cervejaria.execucao.threads-virtuais", havingValue = "true")
+public class ThreadsVirtuaisConfig implements WebMvcConfigurer {
+
+    private final ExecutorService executor = criarExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> threadsVirtuaisTomcat() {
+        log.info("Requisições HTTP atendidas em threads virtuais");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(executor));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cervejaria.execucao.threads-virtuais exige Java 21 ou mais recente; JVM atual: "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+}
@@ -1,17 +1,57 @@
 package br.com.backend.cervejaria.controller;
 
+import br.com.backend.cervejaria.alerta.AlertaEstoqueSse;
+import br.com.backend.cervejaria.cache.CatalogoSnapshot;
+import br.com.backend.cervejaria.cache.VersaoCatalogo;
+import br.com.backend.cervejaria.dto.AgregadosEstoqueDTO;
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+import br.com.backend.cervejaria.dto.BuscaCervejaDTO;
 import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.dto.ImportacaoResultadoDTO;
+import br.com.backend.cervejaria.dto.MovimentoEstoqueDTO;
+import br.com.backend.cervejaria.dto.MovimentoLoteDTO;
+import br.com.backend.cervejaria.dto.MovimentoResultadoDTO;
+import br.com.backend.cervejaria.dto.PaginaCervejaDTO;
 import br.com.backend.cervejaria.dto.QuantidadeDTO;
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.dto.ReservaRequisicaoDTO;
+import br.com.backend.cervejaria.enums.CervejaOrdenacao;
+import br.com.backend.cervejaria.evento.CervejaEventoStream;
 import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
 import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
 import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaEmUsoException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaReutilizadaException;
+import br.com.backend.cervejaria.exception.CursorInvalidoException;
+import br.com.backend.cervejaria.exception.ReservaEncerradaException;
+import br.com.backend.cervejaria.exception.ReservaIndisponivelException;
+import br.com.backend.cervejaria.exception.ReservaNaoEncontradaException;
+import br.com.backend.cervejaria.service.AlertaEstoqueService;
+import br.com.backend.cervejaria.service.CervejaImportacaoService;
 import br.com.backend.cervejaria.service.CervejaService;
+import br.com.backend.cervejaria.service.EstoqueAgregadoService;
+import br.com.backend.cervejaria.service.EstoqueIdempotente;
+import br.com.backend.cervejaria.service.HistoricoEstoqueService;
+import br.com.backend.cervejaria.service.ReservaEstoqueService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -19,7 +59,20 @@ import java.util.List;
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class CervejaController implements CervejaControllerDocs {
 
+    private static final String CABECALHO_IDEMPOTENCIA = "Idempotency-Key";
+
     private final CervejaService cervejaService;
+    private final HistoricoEstoqueService historicoEstoqueService;
+    private final CervejaImportacaoService cervejaImportacaoService;
+    private final AlertaEstoqueService alertaEstoqueService;
+    private final EstoqueAgregadoService estoqueAgregadoService;
+    private final EstoqueIdempotente estoqueIdempotente;
+    private final ReservaEstoqueService reservaEstoqueService;
+    private final AlertaEstoqueSse alertaEstoqueSse;
+    private final CervejaEventoStream cervejaEventoStream;
+    private final VersaoCatalogo versaoCatalogo;
+    private final CatalogoSnapshot catalogoSnapshot;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -27,16 +80,96 @@ public class CervejaController implements CervejaControllerDocs {
         return cervejaService.criarCerveja(cervejaDTO);
     }
 
+    @PostMapping(value = "/importacao", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportacaoResultadoDTO importar(@RequestBody List<CervejaDTO> cervejasDTO) {
+        return cervejaImportacaoService.importar(cervejasDTO);
+    }
+
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    public ImportacaoResultadoDTO importarCsv(@RequestBody String csv) {
+        return cervejaImportacaoService.importarCsv(csv);
+    }
+
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharAlteracoes(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        return cervejaEventoStream.inscrever(ultimoEventoId);
+    }
+
+    @GetMapping("/alertas")
+    public List<AlertaEstoqueDTO> listarAlertas() {
+        return alertaEstoqueService.listarAbaixoDoMinimo();
+    }
+
+    @GetMapping(value = "/alertas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharAlertas() {
+        return alertaEstoqueSse.inscrever(alertaEstoqueService.listarAbaixoDoMinimo());
+    }
+
+    @GetMapping("/agregados")
+    public AgregadosEstoqueDTO consultarAgregados() {
+        return estoqueAgregadoService.consultar();
+    }
+
+    @GetMapping("/busca")
+    public BuscaCervejaDTO buscar(@Valid FiltroCervejaDTO filtro,
+                                  @RequestParam(defaultValue = "NOME") CervejaOrdenacao ordenacao,
+                                  @RequestParam(defaultValue = "ASC") Sort.Direction direcao,
+                                  @RequestParam(defaultValue = "0") int pagina,
+                                  @RequestParam(defaultValue = "20") int tamanho) {
+        return cervejaService.buscar(filtro, ordenacao, direcao, pagina, tamanho);
+    }
+
     @GetMapping("/{nome}")
-    public CervejaDTO encontrarPorNome(@PathVariable String nome) throws CervejaNaoEncontradaException {
+    public CervejaDTO encontrarPorNome(@PathVariable String nome, WebRequest webRequest) throws CervejaNaoEncontradaException {
+        if (webRequest.checkNotModified(versaoCatalogo.etagCatalogo())) {
+            return null;
+        }
         return cervejaService.encontrarPorNome(nome);
     }
 
     @GetMapping
-    public List<CervejaDTO> listarCervejas() {
+    public ResponseEntity<byte[]> listarCervejas(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                 WebRequest webRequest) {
+        CatalogoSnapshot.Conteudo conteudo = catalogoSnapshot.atual();
+        if (webRequest.checkNotModified(conteudo.getEtag())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (aceitaGzip(acceptEncoding)) {
+            return resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(conteudo.gzip());
+        }
+        return resposta.body(conteudo.json());
+    }
+
+    @GetMapping(produces = "application/cbor")
+    public List<CervejaDTO> listarCervejasCbor(WebRequest webRequest) {
+        if (webRequest.checkNotModified(versaoCatalogo.etagCatalogo())) {
+            return null;
+        }
         return cervejaService.listarTudo();
     }
 
+    @GetMapping(params = "tamanho")
+    public PaginaCervejaDTO listarPagina(@RequestParam(required = false) String cursor, @RequestParam int tamanho) throws CursorInvalidoException {
+        return cervejaService.listarPagina(cursor, tamanho);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirCervejas() {
+        StreamingResponseBody corpo = saida -> {
+            try {
+                cervejaService.percorrerTudo(cervejaDTO -> escreverLinha(saida, cervejaDTO));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deletarPorId(@PathVariable Long id) throws CervejaNaoEncontradaException {
@@ -44,13 +177,81 @@ public class CervejaController implements CervejaControllerDocs {
     }
 
     @PatchMapping("/{id}/incremento")
-    public CervejaDTO incremento(@PathVariable Long id, @RequestBody @Valid QuantidadeDTO quantidadeDTO) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+    public CervejaDTO incremento(@PathVariable Long id,
+                                 @RequestBody @Valid QuantidadeDTO quantidadeDTO,
+                                 @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        if (chaveIdempotencia != null) {
+            return estoqueIdempotente.incrementar(chaveIdempotencia, id, quantidadeDTO.getQuantidade());
+        }
         return cervejaService.incrementar(id, quantidadeDTO.getQuantidade());
     }
 
     @PatchMapping("/{id}/decremento")
-    public CervejaDTO decremento(@PathVariable Long id, @RequestBody @Valid QuantidadeDTO quantidadeDTO) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+    public CervejaDTO decremento(@PathVariable Long id,
+                                 @RequestBody @Valid QuantidadeDTO quantidadeDTO,
+                                 @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        if (chaveIdempotencia != null) {
+            return estoqueIdempotente.decrementar(chaveIdempotencia, id, quantidadeDTO.getQuantidade());
+        }
         return cervejaService.decrementar(id, quantidadeDTO.getQuantidade());
     }
 
+    @PostMapping("/{id}/reservas")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservaDTO reservar(@PathVariable Long id,
+                               @RequestBody @Valid ReservaRequisicaoDTO reservaRequisicaoDTO) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ReservaIndisponivelException {
+        return reservaEstoqueService.reservar(id, reservaRequisicaoDTO);
+    }
+
+    @GetMapping("/reservas/{reservaId}")
+    public ReservaDTO consultarReserva(@PathVariable Long reservaId) throws ReservaNaoEncontradaException {
+        return reservaEstoqueService.consultar(reservaId);
+    }
+
+    @PostMapping("/reservas/{reservaId}/confirmacao")
+    public ReservaDTO confirmarReserva(@PathVariable Long reservaId) throws ReservaNaoEncontradaException, ReservaEncerradaException, ReservaIndisponivelException {
+        return reservaEstoqueService.confirmar(reservaId);
+    }
+
+    @DeleteMapping("/reservas/{reservaId}")
+    public ReservaDTO cancelarReserva(@PathVariable Long reservaId) throws ReservaNaoEncontradaException, ReservaEncerradaException, ReservaIndisponivelException {
+        return reservaEstoqueService.cancelar(reservaId);
+    }
+
+    @GetMapping("/{id}/movimentos")
+    public List<MovimentoEstoqueDTO> consultarMovimentos(@PathVariable Long id,
+                                                         @RequestParam(required = false) Instant de,
+                                                         @RequestParam(required = false) Instant ate) {
+        return historicoEstoqueService.consultar(id,
+                de != null ? de : Instant.EPOCH,
+                ate != null ? ate : Instant.now());
+    }
+
+    @PostMapping("/movimentos")
+    public List<MovimentoResultadoDTO> movimentarEmLote(@RequestBody @Valid MovimentoLoteDTO movimentoLoteDTO) {
+        return cervejaService.movimentarEmLote(movimentoLoteDTO.getMovimentos());
+    }
+
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private void escreverLinha(OutputStream saida, CervejaDTO cervejaDTO) {
+        try {
+            saida.write(objectMapper.writeValueAsBytes(cervejaDTO));
+            saida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -1,14 +1,36 @@
 package br.com.backend.cervejaria.controller;
 
+import br.com.backend.cervejaria.dto.AgregadosEstoqueDTO;
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+import br.com.backend.cervejaria.dto.BuscaCervejaDTO;
 import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.dto.ImportacaoResultadoDTO;
+import br.com.backend.cervejaria.dto.MovimentoEstoqueDTO;
+import br.com.backend.cervejaria.dto.MovimentoLoteDTO;
+import br.com.backend.cervejaria.dto.MovimentoResultadoDTO;
+import br.com.backend.cervejaria.dto.PaginaCervejaDTO;
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.dto.ReservaRequisicaoDTO;
+import br.com.backend.cervejaria.enums.CervejaOrdenacao;
 import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
 import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CursorInvalidoException;
+import br.com.backend.cervejaria.exception.ReservaEncerradaException;
+import br.com.backend.cervejaria.exception.ReservaIndisponivelException;
+import br.com.backend.cervejaria.exception.ReservaNaoEncontradaException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.List;
 
 @Api("Gerenciar estoque de cerveja")
@@ -21,18 +43,72 @@ public interface CervejaControllerDocs {
     })
     CervejaDTO criarCerveja(CervejaDTO cervejaDTO) throws CervejaJaCadastradaException;
 
-    @ApiOperation(value = "Retorna cerveja encontrada por um determinado nome")
+    @ApiOperation(value = "Importa uma lista de cervejas em JSON ou CSV (nome,marca,maximo,quantidade,tipo)")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Quantidade importada, nomes já cadastrados, linhas rejeitadas e vazão da importação")
+    })
+    ImportacaoResultadoDTO importar(List<CervejaDTO> cervejasDTO);
+
+    @ApiOperation(value = "Acompanha criações, remoções e movimentos de estoque como server-sent events")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Alterações a partir do Last-Event-ID informado, ou RESINCRONIZAR quando não for possível retomar")
+    })
+    SseEmitter acompanharAlteracoes(String ultimoEventoId);
+
+    @ApiOperation(value = "Retorna as cervejas com estoque no mínimo ou abaixo dele")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Lista de alertas de estoque em aberto")
+    })
+    List<AlertaEstoqueDTO> listarAlertas();
+
+    @ApiOperation(value = "Acompanha os alertas de estoque baixo como server-sent events")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Alertas em aberto seguidos de cada nova entrada ou saída do mínimo")
+    })
+    SseEmitter acompanharAlertas();
+
+    @ApiOperation(value = "Retorna estoque, capacidade e ocupação totais por tipo e por marca")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Totais por tipo e por marca, mantidos em memória")
+    })
+    AgregadosEstoqueDTO consultarAgregados();
+
+    @ApiOperation(value = "Busca cervejas por prefixo do nome, tipo, marca e faixa de estoque")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Página de cervejas encontradas, total e contagem por tipo"),
+            @ApiResponse(code = 400, message = "Filtro, ordenação ou direção inválidos.")
+    })
+    BuscaCervejaDTO buscar(FiltroCervejaDTO filtro, CervejaOrdenacao ordenacao, Sort.Direction direcao, int pagina, int tamanho);
+
+    @ApiOperation(value = "Retorna cerveja encontrada por um determinado nome; busca, agregados, alertas e eventos são caminhos fixos, não nomes")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Cerveja de sucesso encontrada no sistema"),
+            @ApiResponse(code = 304, message = "Catálogo não alterado desde a ETag informada em If-None-Match"),
             @ApiResponse(code = 404, message = "Cerveja com o nome fornecido não encontrada.")
     })
-    CervejaDTO encontrarPorNome(@PathVariable String name) throws CervejaNaoEncontradaException;
+    CervejaDTO encontrarPorNome(@PathVariable String name, WebRequest webRequest) throws CervejaNaoEncontradaException;
 
     @ApiOperation(value = "Retorna uma lista de todas as cervejas cadastradas no sistema")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Lista de todas as cervejas cadastradas no sistema, compactada em gzip quando aceito",
+                    response = CervejaDTO.class, responseContainer = "List"),
+            @ApiResponse(code = 304, message = "Catálogo não alterado desde a ETag informada em If-None-Match")
+    })
+    ResponseEntity<byte[]> listarCervejas(String acceptEncoding, WebRequest webRequest);
+
+    @ApiOperation(value = "Retorna a lista de todas as cervejas em CBOR")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Lista de todas as cervejas cadastradas no sistema"),
+            @ApiResponse(code = 304, message = "Catálogo não alterado desde a ETag informada em If-None-Match")
     })
-    List<CervejaDTO> listarCervejas();
+    List<CervejaDTO> listarCervejasCbor(WebRequest webRequest);
+
+    @ApiOperation(value = "Retorna uma página de cervejas a partir de um cursor")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Página de cervejas e cursor da próxima página, quando houver"),
+            @ApiResponse(code = 400, message = "Cursor de paginação inválido.")
+    })
+    PaginaCervejaDTO listarPagina(String cursor, int tamanho) throws CursorInvalidoException;
 
     @ApiOperation(value = "Exclua uma cerveja encontrada por um determinado ID válido")
     @ApiResponses(value = {
@@ -41,4 +117,49 @@ public interface CervejaControllerDocs {
     })
     void deletarPorId(@PathVariable Long id) throws CervejaNaoEncontradaException;
 
+    @ApiOperation(value = "Retorna o histórico de movimentos de estoque de uma cerveja em um intervalo de tempo")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Movimentos do intervalo, do mais antigo para o mais recente, limitados a 1000"),
+    })
+    List<MovimentoEstoqueDTO> consultarMovimentos(@PathVariable Long id, Instant de, Instant ate);
+
+    @ApiOperation(value = "Aplica uma lista de movimentos de estoque em uma única transação")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Resultado de cada movimento, na ordem enviada"),
+            @ApiResponse(code = 400, message = "Lista vazia, acima de 1000 itens ou com quantidade fora do intervalo permitido.")
+    })
+    List<MovimentoResultadoDTO> movimentarEmLote(MovimentoLoteDTO movimentoLoteDTO);
+
+    @ApiOperation(value = "Reserva unidades de uma cerveja até a confirmação ou o fim do prazo")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Reserva aberta; as unidades saem da quantidade disponível"),
+            @ApiResponse(code = 400, message = "Quantidade fora do intervalo permitido ou acima da disponível."),
+            @ApiResponse(code = 404, message = "Cerveja com o id fornecido não encontrada."),
+            @ApiResponse(code = 409, message = "Reservas indisponíveis no modo de estoque atual.")
+    })
+    ReservaDTO reservar(@PathVariable Long id, ReservaRequisicaoDTO reservaRequisicaoDTO) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ReservaIndisponivelException;
+
+    @ApiOperation(value = "Retorna uma reserva de estoque")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Reserva encontrada, com status e prazo"),
+            @ApiResponse(code = 404, message = "Reserva com o id fornecido não encontrada.")
+    })
+    ReservaDTO consultarReserva(@PathVariable Long reservaId) throws ReservaNaoEncontradaException;
+
+    @ApiOperation(value = "Confirma uma reserva aberta, retirando as unidades reservadas do estoque")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Reserva confirmada"),
+            @ApiResponse(code = 404, message = "Reserva com o id fornecido não encontrada."),
+            @ApiResponse(code = 409, message = "Reserva já cancelada ou expirada, ou reservas indisponíveis no modo de estoque atual.")
+    })
+    ReservaDTO confirmarReserva(@PathVariable Long reservaId) throws ReservaNaoEncontradaException, ReservaEncerradaException, ReservaIndisponivelException;
+
+    @ApiOperation(value = "Cancela uma reserva aberta, devolvendo as unidades à quantidade disponível")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Reserva cancelada"),
+            @ApiResponse(code = 404, message = "Reserva com o id fornecido não encontrada."),
+            @ApiResponse(code = 409, message = "Reserva já confirmada ou expirada, ou reservas indisponíveis no modo de estoque atual.")
+    })
+    ReservaDTO cancelarReserva(@PathVariable Long reservaId) throws ReservaNaoEncontradaException, ReservaEncerradaException, ReservaIndisponivelException;
+
 }
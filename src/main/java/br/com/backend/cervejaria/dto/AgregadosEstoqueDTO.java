@@ -0,0 +1,20 @@
+package br.com.backend.cervejaria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgregadosEstoqueDTO {
+
+    private List<EstoqueAgregadoDTO> tipos;
+
+    private List<EstoqueAgregadoDTO> marcas;
+
+}
@@ -0,0 +1,29 @@
+package br.com.backend.cervejaria.dto;
+
+import br.com.backend.cervejaria.enums.AlertaEstoqueSituacao;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertaEstoqueDTO {
+
+    private Long id;
+
+    private String nome;
+
+    private Integer quantidade;
+
+    private Integer limite;
+
+    private AlertaEstoqueSituacao situacao;
+
+    private Instant registradoEm;
+
+}
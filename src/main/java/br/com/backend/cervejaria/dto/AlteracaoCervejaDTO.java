@@ -0,0 +1,27 @@
+package br.com.backend.cervejaria.dto;
+
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlteracaoCervejaDTO {
+
+    private Long sequencia;
+
+    private CervejaEventoTipo tipo;
+
+    private Long id;
+
+    private String nome;
+
+    private Integer quantidade;
+
+}
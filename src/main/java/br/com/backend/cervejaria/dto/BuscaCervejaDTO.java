@@ -0,0 +1,30 @@
+package br.com.backend.cervejaria.dto;
+
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuscaCervejaDTO {
+
+    private List<CervejaDTO> itens;
+
+    private int pagina;
+
+    private long total;
+
+    /**
+     * Quantidade de cervejas por tipo que atendem aos demais filtros,
+     * ignorando o filtro de tipo, para o cliente montar as opções de refino.
+     */
+    private Map<CervejaTipo, Long> tipos;
+
+}
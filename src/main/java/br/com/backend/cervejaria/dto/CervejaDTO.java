@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
 @Data
@@ -18,10 +20,18 @@ import javax.validation.constraints.Size;
 @AllArgsConstructor
 public class CervejaDTO {
 
+    /**
+     * Caminhos fixos de GET /api/v1/cervejas/..., que têm precedência sobre
+     * GET /api/v1/cervejas/{nome}; uma cerveja com um desses nomes não
+     * poderia ser encontrada pelo nome.
+     */
+    private static final String NOMES_RESERVADOS = "^(?!(busca|agregados|alertas|eventos)$).*";
+
     private Long id;
 
     @NotNull
     @Size(min = 1, max = 200)
+    @Pattern(regexp = NOMES_RESERVADOS, message = "nome reservado para outro endpoint")
     private String nome;
 
     @NotNull
@@ -36,8 +46,15 @@ public class CervejaDTO {
     @Max(100)
     private Integer quantidade;
 
+    private Integer reservada;
+
     @Enumerated(EnumType.STRING)
     @NotNull
     private CervejaTipo tipo;
 
+    @Min(0)
+    private Integer minimo;
+
+    private Long versao;
+
 }
@@ -0,0 +1,24 @@
+package br.com.backend.cervejaria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueAgregadoDTO {
+
+    private String grupo;
+
+    private long cervejas;
+
+    private long quantidade;
+
+    private long maximo;
+
+    private double percentualOcupacao;
+
+}
@@ -0,0 +1,30 @@
+package br.com.backend.cervejaria.dto;
+
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroCervejaDTO {
+
+    private String nome;
+
+    private List<CervejaTipo> tipo;
+
+    private String marca;
+
+    @Min(0)
+    private Integer quantidadeMinima;
+
+    @Min(0)
+    private Integer quantidadeMaxima;
+
+}
@@ -0,0 +1,26 @@
+package br.com.backend.cervejaria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoResultadoDTO {
+
+    private Integer importadas;
+
+    private List<String> jaCadastradas;
+
+    private List<String> rejeitadas;
+
+    private Long duracaoMs;
+
+    private Double cervejasPorSegundo;
+
+}
@@ -0,0 +1,24 @@
+package br.com.backend.cervejaria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoEstoqueDTO {
+
+    private Long id;
+
+    private Long cervejaId;
+
+    private Integer quantidade;
+
+    private Instant registradoEm;
+
+}
@@ -0,0 +1,23 @@
+package br.com.backend.cervejaria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoLoteDTO {
+
+    @NotNull
+    @Size(min = 1, max = 1000)
+    private List<@Valid @NotNull MovimentoDTO> movimentos;
+
+}
@@ -0,0 +1,21 @@
+package br.com.backend.cervejaria.dto;
+
+import br.com.backend.cervejaria.enums.MovimentoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoResultadoDTO {
+
+    private Long id;
+
+    private Integer quantidade;
+
+    private MovimentoStatus status;
+
+}
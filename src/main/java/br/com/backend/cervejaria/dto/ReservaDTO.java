@@ -0,0 +1,29 @@
+package br.com.backend.cervejaria.dto;
+
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaDTO {
+
+    private Long id;
+
+    private Long cervejaId;
+
+    private Integer quantidade;
+
+    private ReservaStatus status;
+
+    private Instant criadaEm;
+
+    private Instant expiraEm;
+
+}
@@ -0,0 +1,30 @@
+package br.com.backend.cervejaria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaRequisicaoDTO {
+
+    @NotNull
+    @Min(1)
+    @Max(100)
+    private Integer quantidade;
+
+    /**
+     * Prazo da reserva em segundos; ausente, vale cervejaria.reserva.expiracao.
+     */
+    @Min(1)
+    @Max(86400)
+    private Long expiracaoSegundos;
+
+}
@@ -4,22 +4,40 @@ import br.com.backend.cervejaria.enums.CervejaTipo;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.util.Locale;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cerveja")
+@Table(indexes = {
+        @Index(name = "idx_cerveja_nome_busca", columnList = "nome_busca"),
+        @Index(name = "idx_cerveja_marca", columnList = "marca"),
+        @Index(name = "idx_cerveja_tipo", columnList = "tipo")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Cerveja {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cerveja_seq")
+    @SequenceGenerator(name = "cerveja_seq", sequenceName = "cerveja_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String nome;
 
+    /**
+     * Nome em minúsculas, mantido a partir de nome, para a busca por prefixo
+     * sem distinção de caixa usar o índice em vez de LOWER(nome).
+     */
+    @Column(name = "nome_busca", nullable = false)
+    private String nomeBusca;
+
     @Column(nullable = false)
     private String marca;
 
@@ -29,8 +47,30 @@ public class Cerveja {
     @Column(nullable = false)
     private int quantidade;
 
+    /**
+     * Unidades presas em reservas abertas, já descontadas de quantidade.
+     * O estoque físico é quantidade + reservada.
+     */
+    @Column(nullable = false)
+    private int reservada;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private CervejaTipo tipo;
 
+    private Integer minimo;
+
+    @Version
+    private Long versao;
+
+    @PrePersist
+    @PreUpdate
+    void atualizarNomeBusca() {
+        nomeBusca = paraBusca(nome);
+    }
+
+    public static String paraBusca(String texto) {
+        return texto == null ? null : texto.toLowerCase(Locale.ROOT);
+    }
+
 }
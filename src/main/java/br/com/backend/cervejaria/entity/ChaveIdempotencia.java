@@ -0,0 +1,40 @@
+package br.com.backend.cervejaria.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Version;
+import java.time.Instant;
+
+/**
+ * Idempotency-Key já usada em um movimento de estoque. A chave primária
+ * impede que duas requisições com a mesma chave movimentem o estoque; a
+ * resposta fica nula enquanto o movimento não termina.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotencia {
+
+    @Id
+    private String chave;
+
+    @Column(nullable = false)
+    private String impressao;
+
+    @Column(nullable = false)
+    private Instant criadaEm;
+
+    @Lob
+    private String resposta;
+
+    @Version
+    private Long versao;
+
+}
@@ -0,0 +1,28 @@
+package br.com.backend.cervejaria.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Último segmento do diário write-behind já aplicado ao banco, gravado na
+ * mesma transação dos saldos, para que a recuperação não reaplique
+ * segmentos que já chegaram ao banco.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class DescargaEstoque {
+
+    @Id
+    private String diario;
+
+    @Column(nullable = false)
+    private long sequencia;
+
+}
@@ -0,0 +1,31 @@
+package br.com.backend.cervejaria.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_movimento_estoque_cerveja_registro", columnList = "cervejaId, registradoEm"))
+public class MovimentoEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimento_estoque_seq")
+    @SequenceGenerator(name = "movimento_estoque_seq", sequenceName = "movimento_estoque_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long cervejaId;
+
+    @Column(nullable = false, updatable = false)
+    private int quantidade;
+
+    @Column(nullable = false, updatable = false)
+    private Instant registradoEm;
+
+}
@@ -0,0 +1,42 @@
+package br.com.backend.cervejaria.entity;
+
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_reserva_estoque_status", columnList = "status"),
+        @Index(name = "idx_reserva_estoque_cerveja", columnList = "cervejaId")
+})
+public class ReservaEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_estoque_seq")
+    @SequenceGenerator(name = "reserva_estoque_seq", sequenceName = "reserva_estoque_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long cervejaId;
+
+    @Column(nullable = false, updatable = false)
+    private int quantidade;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservaStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private Instant criadaEm;
+
+    @Column(nullable = false, updatable = false)
+    private Instant expiraEm;
+
+}
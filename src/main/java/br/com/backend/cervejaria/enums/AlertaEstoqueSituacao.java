@@ -0,0 +1,15 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum AlertaEstoqueSituacao {
+
+    ABAIXO_DO_MINIMO("Estoque no mínimo ou abaixo dele"),
+    NORMALIZADO("Estoque acima do mínimo");
+
+    private final String descricao;
+
+}
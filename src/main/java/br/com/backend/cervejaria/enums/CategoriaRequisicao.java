@@ -0,0 +1,15 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum CategoriaRequisicao {
+
+    LEITURA("Leitura"),
+    ESCRITA("Escrita");
+
+    private final String descricao;
+
+}
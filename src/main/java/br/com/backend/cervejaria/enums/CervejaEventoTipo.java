@@ -0,0 +1,16 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum CervejaEventoTipo {
+
+    CRIADA("Cerveja criada"),
+    REMOVIDA("Cerveja removida"),
+    ESTOQUE_ALTERADO("Estoque alterado");
+
+    private final String descricao;
+
+}
@@ -0,0 +1,21 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ordenações aceitas pela busca, cada uma sobre uma coluna indexada ou de
+ * baixa cardinalidade. NOME ordena sem distinção de caixa.
+ */
+@Getter
+@AllArgsConstructor
+public enum CervejaOrdenacao {
+
+    NOME("nomeBusca"),
+    MARCA("marca"),
+    TIPO("tipo"),
+    QUANTIDADE("quantidade");
+
+    private final String propriedade;
+
+}
@@ -0,0 +1,16 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ModoEstoque {
+
+    SINCRONO("Síncrono"),
+    WRITE_BEHIND("Write-behind"),
+    GRUPO("Commit em grupo");
+
+    private final String descricao;
+
+}
@@ -0,0 +1,16 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum MovimentoStatus {
+
+    APLICADO("Aplicado"),
+    NAO_ENCONTRADA("Cerveja não encontrada"),
+    ESTOQUE_EXCEDIDO("Estoque excedido");
+
+    private final String descricao;
+
+}
@@ -0,0 +1,17 @@
+package br.com.backend.cervejaria.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ReservaStatus {
+
+    ABERTA("Aberta"),
+    CONFIRMADA("Confirmada"),
+    CANCELADA("Cancelada"),
+    EXPIRADA("Expirada");
+
+    private final String descricao;
+
+}
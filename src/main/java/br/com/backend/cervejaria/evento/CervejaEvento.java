@@ -0,0 +1,22 @@
+package br.com.backend.cervejaria.evento;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publicado pelo serviço a cada mudança no catálogo, com o estado da
+ * cerveja logo após a mudança.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CervejaEvento {
+
+    private final CervejaEventoTipo tipo;
+
+    private final CervejaDTO cerveja;
+
+}
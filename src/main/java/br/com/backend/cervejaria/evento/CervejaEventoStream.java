@@ -0,0 +1,312 @@
+package br.com.backend.cervejaria.evento;
+
+import br.com.backend.cervejaria.dto.AlteracaoCervejaDTO;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream de alterações do catálogo (GET /api/v1/cervejas/eventos).
+ * <p>
+ * Cada CervejaEvento recebe um número de sequência e fica guardado em um
+ * histórico circular. O id de cada evento SSE é "época-sequência", onde a
+ * época identifica esta execução da aplicação. Um cliente que reconecta
+ * com Last-Event-ID recebe o que perdeu, desde que ainda esteja no
+ * histórico. Se não estiver, ou se o id for de outra execução, recebe um
+ * evento RESINCRONIZAR e deve recarregar a lista completa.
+ * <p>
+ * Cada assinante tem uma fila limitada, esvaziada por um {@link PoolEnvio}
+ * de até cervejaria.eventos.threads-envio threads, de forma que um cliente
+ * lento não segura os envios dos outros. A publicação nunca espera por um
+ * cliente: se a fila de um assinante enche, se o pool não aceita mais
+ * envios, ou se um envio fica parado por mais que
+ * cervejaria.eventos.envio-maximo, ele é desconectado e retoma pelo
+ * Last-Event-ID ao reconectar.
+ */
+@Slf4j
+@Component
+public class CervejaEventoStream {
+
+    static final String RESINCRONIZAR = "RESINCRONIZAR";
+
+    private final long epoca = System.currentTimeMillis();
+    private final AlteracaoCervejaDTO[] historico;
+    private final int capacidadeFila;
+    private final long timeout;
+    private final long envioMaximo;
+    private final ExecutorService envio;
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final Counter desconexoesPorLentidao;
+    private final Counter desconexoesPorTravamento;
+    private final Counter desconexoesPorSaturacao;
+    private long sequencia;
+
+    public CervejaEventoStream(MeterRegistry meterRegistry,
+                               @Value("${cervejaria.eventos.historico:10000}") int tamanhoHistorico,
+                               @Value("${cervejaria.eventos.fila-assinante:1000}") int capacidadeFila,
+                               @Value("${cervejaria.eventos.threads-envio:16}") int threadsEnvio,
+                               @Value("${cervejaria.eventos.fila-envio:1000}") int capacidadeFilaEnvio,
+                               @Value("${cervejaria.eventos.timeout:30m}") Duration timeout,
+                               @Value("${cervejaria.eventos.envio-maximo:10s}") Duration envioMaximo) {
+        this.historico = new AlteracaoCervejaDTO[tamanhoHistorico];
+        this.capacidadeFila = capacidadeFila;
+        this.timeout = timeout.toMillis();
+        this.envioMaximo = envioMaximo.toNanos();
+        this.envio = PoolEnvio.criar("cervejaria-eventos-envio", threadsEnvio, capacidadeFilaEnvio);
+        Gauge.builder("cervejaria.eventos.assinantes", assinantes, Set::size)
+                .description("Clientes conectados ao stream de alterações")
+                .register(meterRegistry);
+        this.desconexoesPorLentidao = Counter.builder("cervejaria.eventos.desconexoes")
+                .description("Clientes desconectados por não acompanharem o stream")
+                .tag("motivo", "lento")
+                .register(meterRegistry);
+        this.desconexoesPorTravamento = Counter.builder("cervejaria.eventos.desconexoes")
+                .description("Clientes desconectados por não acompanharem o stream")
+                .tag("motivo", "travado")
+                .register(meterRegistry);
+        this.desconexoesPorSaturacao = Counter.builder("cervejaria.eventos.desconexoes")
+                .description("Clientes desconectados por não acompanharem o stream")
+                .tag("motivo", "saturado")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter inscrever(String ultimoEventoId) {
+        SseEmitter emissor = new SseEmitter(timeout);
+        Assinante assinante = inscrever(ultimoEventoId, new DestinoSse(emissor));
+        emissor.onCompletion(assinante::encerrar);
+        emissor.onTimeout(assinante::encerrar);
+        emissor.onError(erro -> assinante.encerrar());
+        return emissor;
+    }
+
+    Assinante inscrever(String ultimoEventoId, Destino destino) {
+        Assinante assinante = new Assinante(destino);
+        synchronized (this) {
+            if (ultimoEventoId != null) {
+                Long ultimaSequencia = interpretarId(ultimoEventoId);
+                long primeiraDisponivel = Math.max(1, sequencia - historico.length + 1);
+                if (ultimaSequencia == null
+                        || ultimaSequencia > sequencia
+                        || ultimaSequencia + 1 < primeiraDisponivel
+                        || sequencia - ultimaSequencia > capacidadeFila) {
+                    assinante.resincronizarEm = sequencia;
+                } else {
+                    for (long s = ultimaSequencia + 1; s <= sequencia; s++) {
+                        assinante.fila.add(historico[posicao(s)]);
+                    }
+                }
+            }
+            assinantes.add(assinante);
+        }
+        if (!assinante.agendar()) {
+            desconectarPorSaturacao(assinante);
+        }
+        return assinante;
+    }
+
+    /**
+     * Os assinantes cuja fila encheu, ou cujo envio o pool recusou, são
+     * desconectados depois de liberada a trava, para que o fechamento da
+     * conexão não atrase a publicação.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publicar(CervejaEvento evento) {
+        CervejaDTO cerveja = evento.getCerveja();
+        List<Assinante> lentos = new ArrayList<>();
+        List<Assinante> recusados = new ArrayList<>();
+        synchronized (this) {
+            AlteracaoCervejaDTO alteracao = AlteracaoCervejaDTO.builder()
+                    .sequencia(++sequencia)
+                    .tipo(evento.getTipo())
+                    .id(cerveja.getId())
+                    .nome(cerveja.getNome())
+                    .quantidade(evento.getTipo() == CervejaEventoTipo.REMOVIDA ? null : cerveja.getQuantidade())
+                    .build();
+            historico[posicao(alteracao.getSequencia())] = alteracao;
+            for (Assinante assinante : assinantes) {
+                if (!assinante.fila.offer(alteracao)) {
+                    lentos.add(assinante);
+                } else if (!assinante.agendar()) {
+                    recusados.add(assinante);
+                }
+            }
+        }
+        for (Assinante lento : lentos) {
+            if (lento.encerrar()) {
+                desconexoesPorLentidao.increment();
+            }
+        }
+        recusados.forEach(this::desconectarPorSaturacao);
+    }
+
+    @Scheduled(fixedDelayString = "${cervejaria.eventos.verificacao:1000}")
+    public void desconectarTravados() {
+        long agora = System.nanoTime();
+        for (Assinante assinante : assinantes) {
+            long desde = assinante.envioDesde;
+            if (desde != 0 && agora - desde > envioMaximo && assinante.encerrar()) {
+                desconexoesPorTravamento.increment();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        assinantes.forEach(Assinante::encerrar);
+        envio.shutdownNow();
+    }
+
+    private void desconectarPorSaturacao(Assinante assinante) {
+        if (assinante.encerrar()) {
+            desconexoesPorSaturacao.increment();
+        }
+    }
+
+    private int posicao(long sequenciaEvento) {
+        return (int) (sequenciaEvento % historico.length);
+    }
+
+    private String criarId(long sequenciaEvento) {
+        return epoca + "-" + sequenciaEvento;
+    }
+
+    private Long interpretarId(String id) {
+        String[] partes = id.trim().split("-");
+        try {
+            if (partes.length == 2 && Long.parseLong(partes[0]) == epoca) {
+                return Long.valueOf(partes[1]);
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Last-Event-ID inválido: {}", id);
+        }
+        return null;
+    }
+
+    interface Destino {
+
+        void enviar(String id, AlteracaoCervejaDTO alteracao) throws IOException;
+
+        void resincronizar(String id) throws IOException;
+
+        void encerrar();
+    }
+
+    class Assinante {
+
+        private final Destino destino;
+        private final BlockingQueue<AlteracaoCervejaDTO> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private final AtomicBoolean encerrado = new AtomicBoolean();
+        private volatile Long resincronizarEm;
+        private volatile long envioDesde;
+
+        private Assinante(Destino destino) {
+            this.destino = destino;
+        }
+
+        /**
+         * Devolve false quando o pool de envio está saturado.
+         */
+        private boolean agendar() {
+            if (encerrado.get() || !agendado.compareAndSet(false, true)) {
+                return true;
+            }
+            try {
+                envio.execute(this::enviarPendentes);
+                return true;
+            } catch (RejectedExecutionException e) {
+                agendado.set(false);
+                return false;
+            }
+        }
+
+        private void enviarPendentes() {
+            try {
+                Long sequenciaResincronizacao = resincronizarEm;
+                if (sequenciaResincronizacao != null) {
+                    resincronizarEm = null;
+                    envioDesde = System.nanoTime();
+                    destino.resincronizar(criarId(sequenciaResincronizacao));
+                }
+                AlteracaoCervejaDTO alteracao;
+                while (!encerrado.get() && (alteracao = fila.poll()) != null) {
+                    envioDesde = System.nanoTime();
+                    destino.enviar(criarId(alteracao.getSequencia()), alteracao);
+                }
+            } catch (IOException | RuntimeException e) {
+                encerrar();
+            } finally {
+                envioDesde = 0;
+                agendado.set(false);
+            }
+            if (!fila.isEmpty() && !agendar()) {
+                desconectarPorSaturacao(this);
+            }
+        }
+
+        boolean encerrar() {
+            if (!encerrado.compareAndSet(false, true)) {
+                return false;
+            }
+            assinantes.remove(this);
+            destino.encerrar();
+            return true;
+        }
+    }
+
+    private static class DestinoSse implements Destino {
+
+        private final SseEmitter emissor;
+
+        private DestinoSse(SseEmitter emissor) {
+            this.emissor = emissor;
+        }
+
+        @Override
+        public void enviar(String id, AlteracaoCervejaDTO alteracao) throws IOException {
+            emissor.send(SseEmitter.event()
+                    .id(id)
+                    .name(alteracao.getTipo().name())
+                    .data(alteracao));
+        }
+
+        @Override
+        public void resincronizar(String id) throws IOException {
+            emissor.send(SseEmitter.event()
+                    .id(id)
+                    .name(RESINCRONIZAR)
+                    .data(RESINCRONIZAR));
+        }
+
+        @Override
+        public void encerrar() {
+            try {
+                emissor.complete();
+            } catch (IllegalStateException e) {
+                // o emissor já foi encerrado
+            }
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package br.com.backend.cervejaria.evento;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool das threads que escrevem nos clientes de server-sent events.
+ * <p>
+ * Threads e fila de tarefas são limitadas, e as threads ociosas terminam
+ * depois de um minuto. Com tudo ocupado, execute lança
+ * RejectedExecutionException, e quem agendou o envio desconecta o cliente,
+ * que retoma ao se inscrever de novo.
+ */
+public final class PoolEnvio {
+
+    private static final long OCIOSIDADE_SEGUNDOS = 60L;
+
+    private PoolEnvio() {
+    }
+
+    public static ThreadPoolExecutor criar(String nome, int threads, int capacidadeFila) {
+        AtomicInteger numero = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, OCIOSIDADE_SEGUNDOS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), tarefa -> {
+                    Thread thread = new Thread(tarefa, nome + "-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+}
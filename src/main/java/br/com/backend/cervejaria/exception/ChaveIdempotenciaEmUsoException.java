@@ -0,0 +1,12 @@
+package br.com.backend.cervejaria.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ChaveIdempotenciaEmUsoException extends Exception {
+
+    public ChaveIdempotenciaEmUsoException(String chave) {
+        super(String.format("Requisição com a chave de idempotência %s ainda está em execução.", chave));
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.backend.cervejaria.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class ChaveIdempotenciaReutilizadaException extends Exception {
+
+    public ChaveIdempotenciaReutilizadaException(String chave) {
+        super(String.format("Chave de idempotência %s já foi usada em uma requisição diferente.", chave));
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.backend.cervejaria.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CursorInvalidoException extends Exception {
+
+    public CursorInvalidoException(String cursor) {
+        super(String.format("Cursor de paginação %s inválido.", cursor));
+    }
+}
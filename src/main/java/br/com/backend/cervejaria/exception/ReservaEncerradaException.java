@@ -0,0 +1,15 @@
+package br.com.backend.cervejaria.exception;
+
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Locale;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReservaEncerradaException extends Exception {
+
+    public ReservaEncerradaException(Long id, ReservaStatus status) {
+        super(String.format("Reserva com o id %s já está %s.", id, status.getDescricao().toLowerCase(Locale.ROOT)));
+    }
+}
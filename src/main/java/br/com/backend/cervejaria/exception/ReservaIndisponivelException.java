@@ -0,0 +1,13 @@
+package br.com.backend.cervejaria.exception;
+
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReservaIndisponivelException extends Exception {
+
+    public ReservaIndisponivelException(ModoEstoque modo) {
+        super(String.format("Reservas de estoque não estão disponíveis no modo de estoque %s.", modo.getDescricao()));
+    }
+}
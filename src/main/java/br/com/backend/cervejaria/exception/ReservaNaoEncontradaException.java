@@ -0,0 +1,12 @@
+package br.com.backend.cervejaria.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservaNaoEncontradaException extends Exception {
+
+    public ReservaNaoEncontradaException(Long id) {
+        super(String.format("Reserva com o id %s não encontrada no sistema.", id));
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.backend.cervejaria.limite;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Balde de fichas sem trava, no formato GCRA: em vez de contar fichas e
+ * guardar o instante da última reposição, guarda um único instante teórico
+ * de chegada, avançado por compare-and-set. Cabem até capacidade requisições
+ * seguidas; depois, uma a cada 1/reposicaoPorSegundo.
+ */
+public class BaldeFichas {
+
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+
+    private final long intervalo;
+    private final long tolerancia;
+    private final LongSupplier relogio;
+    private final AtomicLong chegadaTeorica;
+
+    public BaldeFichas(int capacidade, double reposicaoPorSegundo, LongSupplier relogio) {
+        this.intervalo = Math.max(1L, Math.round(NANOS_POR_SEGUNDO / reposicaoPorSegundo));
+        this.tolerancia = intervalo * Math.max(1, capacidade);
+        this.relogio = relogio;
+        this.chegadaTeorica = new AtomicLong(relogio.getAsLong());
+    }
+
+    /**
+     * Consome uma ficha. Retorna zero quando havia ficha, ou quantos
+     * nanossegundos faltam para a próxima, sem consumir nada.
+     */
+    public long tentarConsumir() {
+        while (true) {
+            long agora = relogio.getAsLong();
+            long atual = chegadaTeorica.get();
+            long proxima = (atual - agora > 0 ? atual : agora) + intervalo;
+            long espera = proxima - agora - tolerancia;
+            if (espera > 0) {
+                return espera;
+            }
+            if (chegadaTeorica.compareAndSet(atual, proxima)) {
+                return 0L;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package br.com.backend.cervejaria.limite;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requisições simultâneas ajustado por AIMD: cada requisição
+ * concluída dentro da latência alvo soma 1/limite ao limite (cerca de +1
+ * por "rodada" de requisições); uma acima do alvo o multiplica por
+ * fatorReducao, no máximo uma vez por janela de latência alvo. O estado é
+ * mantido em atômicos, sem trava.
+ */
+public class LimiteConcorrenciaAdaptativo {
+
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaAlvo;
+    private final double fatorReducao;
+    private final LongSupplier relogio;
+
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicLong limite;
+    private final AtomicLong ultimaReducao;
+
+    public LimiteConcorrenciaAdaptativo(int inicial, int minimo, int maximo, long latenciaAlvo, double fatorReducao, LongSupplier relogio) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaAlvo = latenciaAlvo;
+        this.fatorReducao = fatorReducao;
+        this.relogio = relogio;
+        this.limite = new AtomicLong(Double.doubleToLongBits(Math.max(minimo, Math.min(maximo, inicial))));
+        this.ultimaReducao = new AtomicLong(relogio.getAsLong() - latenciaAlvo);
+    }
+
+    /**
+     * Admite a requisição se houver vaga dentro da fração informada do
+     * limite; frações menores que 1 fazem essa categoria ser recusada antes.
+     */
+    public boolean tentarAdquirir(double fracao) {
+        double vagas = getLimite() * fracao;
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= vagas) {
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void liberar(long duracao) {
+        emAndamento.decrementAndGet();
+        if (duracao > latenciaAlvo) {
+            reduzir();
+        } else {
+            aumentar();
+        }
+    }
+
+    /**
+     * Libera a vaga sem usar a duração como amostra de latência, para
+     * requisições que são longas por natureza.
+     */
+    public void liberarSemAmostra() {
+        emAndamento.decrementAndGet();
+    }
+
+    public double getLimite() {
+        return Double.longBitsToDouble(limite.get());
+    }
+
+    public int getEmAndamento() {
+        return emAndamento.get();
+    }
+
+    private void aumentar() {
+        while (true) {
+            long bits = limite.get();
+            double atual = Double.longBitsToDouble(bits);
+            if (atual >= maximo) {
+                return;
+            }
+            double novo = Math.min(maximo, atual + 1.0 / atual);
+            if (limite.compareAndSet(bits, Double.doubleToLongBits(novo))) {
+                return;
+            }
+        }
+    }
+
+    private void reduzir() {
+        long agora = relogio.getAsLong();
+        long anterior = ultimaReducao.get();
+        if (agora - anterior < latenciaAlvo || !ultimaReducao.compareAndSet(anterior, agora)) {
+            return;
+        }
+        while (true) {
+            long bits = limite.get();
+            double novo = Math.max(minimo, Double.longBitsToDouble(bits) * fatorReducao);
+            if (limite.compareAndSet(bits, Double.doubleToLongBits(novo))) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+package br.com.backend.cervejaria.limite;
+
+import br.com.backend.cervejaria.enums.CategoriaRequisicao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Protege a API antes que a requisição chegue ao serviço ou ao banco.
+ * <p>
+ * Cada cliente (cabeçalho X-API-Key, quando a chave é uma das configuradas,
+ * ou o IP) tem um balde de fichas para leituras e outro para escritas; sem
+ * ficha, a resposta é 429 com Retry-After. Chaves desconhecidas contam como o
+ * IP de origem, para que inventar chaves não crie baldes novos nem expulse do
+ * cache os de clientes legítimos. Em seguida, um limite adaptativo de
+ * requisições simultâneas recusa com 503 quando a latência passa do alvo. As
+ * leituras só ocupam parte do limite, de forma que uma enxurrada de GETs é
+ * recusada antes de atrasar os movimentos de estoque. Importações e fluxos
+ * (NDJSON e SSE) ocupam vaga, mas sua duração não entra na latência medida.
+ */
+@Component
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+    static final String CABECALHO_CHAVE_API = "X-API-Key";
+    private static final String PREFIXO_API = "/api/";
+    private static final String SUFIXO_IMPORTACAO = "/importacao";
+    private static final List<MediaType> TIPOS_FLUXO = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    private final boolean ativo;
+    private final Set<String> chavesApi;
+    private final Map<CategoriaRequisicao, Orcamento> orcamentos = new EnumMap<>(CategoriaRequisicao.class);
+    private final LimiteConcorrenciaAdaptativo limiteConcorrencia;
+    private final double fracaoLeitura;
+    private final Map<CategoriaRequisicao, Counter> rejeicoesTaxa = new EnumMap<>(CategoriaRequisicao.class);
+    private final Map<CategoriaRequisicao, Counter> rejeicoesCarga = new EnumMap<>(CategoriaRequisicao.class);
+
+    @Autowired
+    public LimiteRequisicoesFilter(MeterRegistry meterRegistry,
+                                   @Value("${cervejaria.limite.ativo:true}") boolean ativo,
+                                   @Value("${cervejaria.limite.chaves-api:}") Set<String> chavesApi,
+                                   @Value("${cervejaria.limite.clientes-maximo:100000}") long clientesMaximo,
+                                   @Value("${cervejaria.limite.leitura.capacidade:200}") int capacidadeLeitura,
+                                   @Value("${cervejaria.limite.leitura.por-segundo:100}") double reposicaoLeitura,
+                                   @Value("${cervejaria.limite.escrita.capacidade:50}") int capacidadeEscrita,
+                                   @Value("${cervejaria.limite.escrita.por-segundo:25}") double reposicaoEscrita,
+                                   @Value("${cervejaria.limite.concorrencia.inicial:100}") int concorrenciaInicial,
+                                   @Value("${cervejaria.limite.concorrencia.minima:10}") int concorrenciaMinima,
+                                   @Value("${cervejaria.limite.concorrencia.maxima:400}") int concorrenciaMaxima,
+                                   @Value("${cervejaria.limite.concorrencia.latencia-alvo:250ms}") Duration latenciaAlvo,
+                                   @Value("${cervejaria.limite.concorrencia.fracao-leitura:0.8}") double fracaoLeitura) {
+        this.ativo = ativo;
+        this.chavesApi = chavesApi.stream()
+                .filter(chave -> !chave.isBlank())
+                .collect(Collectors.toUnmodifiableSet());
+        this.fracaoLeitura = fracaoLeitura;
+        orcamentos.put(CategoriaRequisicao.LEITURA, new Orcamento(capacidadeLeitura, reposicaoLeitura, clientesMaximo));
+        orcamentos.put(CategoriaRequisicao.ESCRITA, new Orcamento(capacidadeEscrita, reposicaoEscrita, clientesMaximo));
+        this.limiteConcorrencia = new LimiteConcorrenciaAdaptativo(concorrenciaInicial, concorrenciaMinima, concorrenciaMaxima,
+                latenciaAlvo.toNanos(), 0.9, System::nanoTime);
+        Gauge.builder("cervejaria.limite.concorrencia", limiteConcorrencia, LimiteConcorrenciaAdaptativo::getLimite)
+                .description("Limite adaptativo de requisições simultâneas")
+                .register(meterRegistry);
+        Gauge.builder("cervejaria.limite.em-andamento", limiteConcorrencia, LimiteConcorrenciaAdaptativo::getEmAndamento)
+                .description("Requisições da API em andamento")
+                .register(meterRegistry);
+        for (CategoriaRequisicao categoria : CategoriaRequisicao.values()) {
+            rejeicoesTaxa.put(categoria, contadorRejeicoes(meterRegistry, "taxa", categoria));
+            rejeicoesCarga.put(categoria, contadorRejeicoes(meterRegistry, "carga", categoria));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !ativo || !request.getRequestURI().startsWith(request.getContextPath() + PREFIXO_API);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        CategoriaRequisicao categoria = categoria(request);
+
+        long espera = orcamentos.get(categoria).consumir(cliente(request));
+        if (espera > 0) {
+            rejeitar(response, HttpStatus.TOO_MANY_REQUESTS, espera, rejeicoesTaxa.get(categoria));
+            return;
+        }
+        if (!limiteConcorrencia.tentarAdquirir(categoria == CategoriaRequisicao.LEITURA ? fracaoLeitura : 1.0)) {
+            rejeitar(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), rejeicoesCarga.get(categoria));
+            return;
+        }
+        boolean longaDuracao = longaDuracao(request);
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (longaDuracao) {
+                limiteConcorrencia.liberarSemAmostra();
+            } else {
+                limiteConcorrencia.liberar(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    private static Counter contadorRejeicoes(MeterRegistry meterRegistry, String motivo, CategoriaRequisicao categoria) {
+        return Counter.builder("cervejaria.limite.rejeicoes")
+                .description("Requisições recusadas pelo limite de taxa ou de carga")
+                .tag("motivo", motivo)
+                .tag("categoria", categoria.name())
+                .register(meterRegistry);
+    }
+
+    private static void rejeitar(HttpServletResponse response, HttpStatus status, long espera, Counter rejeicoes) throws IOException {
+        rejeicoes.increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L))));
+        response.sendError(status.value(), status == HttpStatus.TOO_MANY_REQUESTS
+                ? "Limite de requisições do cliente excedido."
+                : "Serviço sobrecarregado, tente novamente.");
+    }
+
+    private static CategoriaRequisicao categoria(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return HttpMethod.GET.matches(metodo) || HttpMethod.HEAD.matches(metodo) || HttpMethod.OPTIONS.matches(metodo)
+                ? CategoriaRequisicao.LEITURA
+                : CategoriaRequisicao.ESCRITA;
+    }
+
+    private String cliente(HttpServletRequest request) {
+        String chaveApi = request.getHeader(CABECALHO_CHAVE_API);
+        return chaveApi != null && chavesApi.contains(chaveApi) ? "chave:" + chaveApi : "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean longaDuracao(HttpServletRequest request) {
+        if (request.getRequestURI().endsWith(SUFIXO_IMPORTACAO)) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(tipo -> TIPOS_FLUXO.stream().anyMatch(tipo::equalsTypeAndSubtype));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Baldes de uma categoria, um por cliente. Clientes inativos saem do
+     * cache e voltam com o balde cheio.
+     */
+    private static class Orcamento {
+
+        private final int capacidade;
+        private final double reposicaoPorSegundo;
+        private final Cache<String, BaldeFichas> baldes;
+
+        private Orcamento(int capacidade, double reposicaoPorSegundo, long clientesMaximo) {
+            this.capacidade = capacidade;
+            this.reposicaoPorSegundo = reposicaoPorSegundo;
+            this.baldes = Caffeine.newBuilder()
+                    .maximumSize(clientesMaximo)
+                    .expireAfterAccess(Duration.ofMinutes(10))
+                    .build();
+        }
+
+        private long consumir(String cliente) {
+            return baldes.get(cliente, chave -> new BaldeFichas(capacidade, reposicaoPorSegundo, System::nanoTime)).tentarConsumir();
+        }
+    }
+
+}
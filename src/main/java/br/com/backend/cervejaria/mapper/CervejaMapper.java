@@ -3,6 +3,7 @@ package br.com.backend.cervejaria.mapper;
 import br.com.backend.cervejaria.dto.CervejaDTO;
 import br.com.backend.cervejaria.entity.Cerveja;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,6 +11,9 @@ public interface CervejaMapper {
 
     CervejaMapper INSTANCE = Mappers.getMapper(CervejaMapper.class);
 
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "nomeBusca", ignore = true)
+    @Mapping(target = "reservada", ignore = true)
     Cerveja toModel(CervejaDTO cervejaDTO);
 
     CervejaDTO toDTO(Cerveja cerveja);
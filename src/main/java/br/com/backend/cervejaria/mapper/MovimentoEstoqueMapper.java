@@ -0,0 +1,15 @@
+package br.com.backend.cervejaria.mapper;
+
+import br.com.backend.cervejaria.dto.MovimentoEstoqueDTO;
+import br.com.backend.cervejaria.entity.MovimentoEstoque;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface MovimentoEstoqueMapper {
+
+    MovimentoEstoqueMapper INSTANCE = Mappers.getMapper(MovimentoEstoqueMapper.class);
+
+    MovimentoEstoqueDTO toDTO(MovimentoEstoque movimentoEstoque);
+
+}
@@ -0,0 +1,15 @@
+package br.com.backend.cervejaria.mapper;
+
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.entity.ReservaEstoque;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface ReservaEstoqueMapper {
+
+    ReservaEstoqueMapper INSTANCE = Mappers.getMapper(ReservaEstoqueMapper.class);
+
+    ReservaDTO toDTO(ReservaEstoque reservaEstoque);
+
+}
@@ -0,0 +1,57 @@
+package br.com.backend.cervejaria.metricas;
+
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cronometra cada operação pública do CervejaService no timer
+ * cervejaria.servico, marcado com a operação e o resultado. A contagem do
+ * timer serve como contador de chamadas por resultado.
+ */
+@Aspect
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class CervejaServiceMetricas {
+
+    private static final String SUCESSO = "sucesso";
+    private static final String ERRO = "erro";
+    private static final Map<Class<? extends Throwable>, String> RESULTADOS = Map.of(
+            CervejaNaoEncontradaException.class, "nao-encontrada",
+            CervejaJaCadastradaException.class, "ja-cadastrada",
+            CervejaEstoqueExcedidoException.class, "estoque-excedido");
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * br.com.backend.cervejaria.service.CervejaService.*(..))")
+    public Object cronometrar(ProceedingJoinPoint joinPoint) throws Throwable {
+        long inicio = System.nanoTime();
+        String resultado = SUCESSO;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            resultado = RESULTADOS.getOrDefault(e.getClass(), ERRO);
+            throw e;
+        } finally {
+            Timer.builder("cervejaria.servico")
+                    .description("Duração das operações do CervejaService")
+                    .tag("operacao", joinPoint.getSignature().getName())
+                    .tag("resultado", resultado)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
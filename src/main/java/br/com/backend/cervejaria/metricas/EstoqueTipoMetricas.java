@@ -0,0 +1,28 @@
+package br.com.backend.cervejaria.metricas;
+
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.service.EstoqueAgregadoService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauge cervejaria.estoque.quantidade com o estoque total de cada tipo.
+ * Os totais vêm dos agregados mantidos em memória pelo
+ * EstoqueAgregadoService, de forma que a coleta das métricas não vá ao banco.
+ */
+@Component
+public class EstoqueTipoMetricas {
+
+    @Autowired
+    public EstoqueTipoMetricas(EstoqueAgregadoService estoqueAgregadoService, MeterRegistry meterRegistry) {
+        for (CervejaTipo tipo : CervejaTipo.values()) {
+            Gauge.builder("cervejaria.estoque.quantidade", estoqueAgregadoService, agregados -> agregados.quantidadePorTipo(tipo))
+                    .description("Estoque total por tipo de cerveja")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry);
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Filtros da busca de cervejas. Cada filtro ausente vira um predicado nulo,
+ * que o Spring Data descarta ao combinar as especificações.
+ */
+public final class CervejaEspecificacoes {
+
+    private static final char ESCAPE = '\\';
+
+    private CervejaEspecificacoes() {
+    }
+
+    /**
+     * Todos os filtros exceto tipo; base das contagens por tipo.
+     */
+    public static Specification<Cerveja> semTipo(FiltroCervejaDTO filtro) {
+        return Specification.where(nomeComecaCom(filtro.getNome()))
+                .and(marcaIgual(filtro.getMarca()))
+                .and(quantidadeEntre(filtro.getQuantidadeMinima(), filtro.getQuantidadeMaxima()));
+    }
+
+    public static Specification<Cerveja> filtrar(FiltroCervejaDTO filtro) {
+        return semTipo(filtro).and(tipoEm(filtro.getTipo()));
+    }
+
+    /**
+     * LIKE 'prefixo%' sobre nome_busca, que o banco resolve como intervalo
+     * no índice; os curingas digitados pelo cliente são escapados.
+     */
+    public static Specification<Cerveja> nomeComecaCom(String prefixo) {
+        if (prefixo == null || prefixo.isBlank()) {
+            return null;
+        }
+        String padrao = escaparCuringas(Cerveja.paraBusca(prefixo.trim())) + "%";
+        return (cerveja, consulta, cb) -> cb.like(cerveja.get("nomeBusca"), padrao, ESCAPE);
+    }
+
+    public static Specification<Cerveja> marcaIgual(String marca) {
+        if (marca == null || marca.isBlank()) {
+            return null;
+        }
+        return (cerveja, consulta, cb) -> cb.equal(cerveja.get("marca"), marca.trim());
+    }
+
+    public static Specification<Cerveja> tipoEm(Collection<CervejaTipo> tipos) {
+        if (tipos == null || tipos.isEmpty()) {
+            return null;
+        }
+        return (cerveja, consulta, cb) -> cerveja.get("tipo").in(tipos);
+    }
+
+    public static Specification<Cerveja> quantidadeEntre(Integer minima, Integer maxima) {
+        if (minima == null && maxima == null) {
+            return null;
+        }
+        return (cerveja, consulta, cb) -> {
+            if (minima == null) {
+                return cb.le(cerveja.get("quantidade"), maxima);
+            }
+            if (maxima == null) {
+                return cb.ge(cerveja.get("quantidade"), minima);
+            }
+            return cb.between(cerveja.get("quantidade"), minima, maxima);
+        };
+    }
+
+    private static String escaparCuringas(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escapado.append(ESCAPE);
+            }
+            escapado.append(c);
+        }
+        return escapado.toString();
+    }
+
+}
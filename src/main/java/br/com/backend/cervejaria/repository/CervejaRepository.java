@@ -1,12 +1,33 @@
 package br.com.backend.cervejaria.repository;
 
 import br.com.backend.cervejaria.entity.Cerveja;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CervejaRepository  extends JpaRepository<Cerveja, Long> {
+public interface CervejaRepository  extends JpaRepository<Cerveja, Long>, JpaSpecificationExecutor<Cerveja>, CervejaRepositoryCustom {
 
-    Optional<Cerveja> encontrarPorNome(String nome);
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT c FROM Cerveja c WHERE c.nome = :nome")
+    Optional<Cerveja> encontrarPorNome(@Param("nome") String nome);
+
+    List<Cerveja> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT c.nome FROM Cerveja c WHERE c.nome IN :nomes")
+    List<String> encontrarNomesCadastrados(@Param("nomes") Collection<String> nomes);
+
+    @Query("SELECT c.id FROM Cerveja c WHERE c.id IN :ids")
+    List<Long> encontrarIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c FROM Cerveja c WHERE c.quantidade <= COALESCE(c.minimo, c.maximo * :percentual / 100)")
+    List<Cerveja> encontrarNoMinimo(@Param("percentual") int percentual);
 
 }
@@ -0,0 +1,84 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.dto.MovimentoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface CervejaRepositoryCustom {
+
+    /**
+     * Aplica a movimentação de estoque em um único UPDATE condicional.
+     * Retorna 0 quando a cerveja não existe ou quando o resultado ficaria
+     * fora do intervalo [0, maximo], contando as unidades reservadas no
+     * máximo. A versão é incrementada no mesmo UPDATE.
+     */
+    @Transactional
+    int movimentarEstoque(Long id, int quantidade);
+
+    /**
+     * Executa as movimentações em um único batch JDBC, na ordem recebida.
+     * Cada posição do retorno traz as linhas afetadas pelo movimento correspondente.
+     */
+    @Transactional
+    int[] movimentarEstoqueEmLote(List<MovimentoDTO> movimentos);
+
+    /**
+     * Soma os saldos líquidos já validados, sem nova checagem de limites.
+     * Usado pelo modo write-behind, que valida cada movimento em memória.
+     */
+    void aplicarDeltasEstoque(Map<Long, Integer> deltas);
+
+    /**
+     * Passa unidades da quantidade disponível para a reservada em um único
+     * UPDATE condicional. Retorna 0 quando a cerveja não existe ou não tem
+     * a quantidade disponível.
+     */
+    @Transactional
+    int reservarEstoque(Long id, int quantidade);
+
+    /**
+     * Devolve à quantidade disponível as unidades de reservas expiradas ou
+     * canceladas, somadas por cerveja, em um único batch. Deve ser chamado
+     * na transação que encerra as reservas.
+     */
+    void liberarReservas(Map<Long, Integer> quantidades);
+
+    /**
+     * Retira do estoque as unidades de uma reserva confirmada. Deve ser
+     * chamado na transação que confirma a reserva.
+     */
+    void baixarReserva(Long id, int quantidade);
+
+    /**
+     * Lê a cerveja travando a linha (SELECT ... FOR UPDATE) até o fim da
+     * transação corrente. Usado pelo commit em grupo, que valida os
+     * movimentos em memória contra a quantidade lida.
+     */
+    Optional<Cerveja> travarPorId(Long id);
+
+    /**
+     * Grava quantidade e versão já calculadas, sem checagem de limites.
+     * Deve ser chamado na mesma transação de travarPorId.
+     */
+    void gravarEstoque(Long id, int quantidade, long versao);
+
+    /**
+     * Percorre todas as cervejas por um cursor somente-leitura, entregando
+     * uma linha por vez sem carregá-las no contexto de persistência.
+     */
+    void percorrerTodas(Consumer<Cerveja> consumidor);
+
+    /**
+     * Conta, no banco, as cervejas de cada tipo que atendem à especificação.
+     * Tipos sem nenhuma cerveja aparecem com zero.
+     */
+    Map<CervejaTipo, Long> contarPorTipo(Specification<Cerveja> especificacao);
+
+}
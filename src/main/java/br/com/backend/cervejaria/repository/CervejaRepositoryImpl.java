@@ -0,0 +1,209 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.dto.MovimentoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import lombok.AllArgsConstructor;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class CervejaRepositoryImpl implements CervejaRepositoryCustom {
+
+    private static final String SQL_MOVIMENTAR_ESTOQUE = "UPDATE cerveja SET quantidade = quantidade + ?, versao = versao + 1 " +
+            "WHERE id = ? AND quantidade + ? >= 0 AND quantidade + reservada + ? <= maximo";
+    private static final String SQL_RESERVAR_ESTOQUE = "UPDATE cerveja SET quantidade = quantidade - ?, reservada = reservada + ?, versao = versao + 1 " +
+            "WHERE id = ? AND quantidade >= ?";
+    private static final String SQL_LIBERAR_RESERVA = "UPDATE cerveja SET quantidade = quantidade + ?, reservada = reservada - ?, versao = versao + 1 WHERE id = ?";
+    private static final String SQL_BAIXAR_RESERVA = "UPDATE cerveja SET reservada = reservada - ?, versao = versao + 1 WHERE id = ?";
+    private static final String SQL_APLICAR_DELTA_ESTOQUE = "UPDATE cerveja SET quantidade = quantidade + ?, versao = versao + 1 WHERE id = ?";
+    private static final String SQL_GRAVAR_ESTOQUE = "UPDATE cerveja SET quantidade = ?, versao = ? WHERE id = ?";
+    private static final String SQL_COLUNAS = "SELECT id, nome, nome_busca, marca, maximo, quantidade, reservada, tipo, minimo, versao FROM cerveja";
+    private static final String SQL_PERCORRER_TODAS = SQL_COLUNAS + " ORDER BY id";
+    private static final String SQL_TRAVAR_POR_ID = SQL_COLUNAS + " WHERE id = ? FOR UPDATE";
+    private static final int TAMANHO_FETCH = 500;
+
+    private static final RowMapper<Cerveja> CERVEJA_ROW_MAPPER = (rs, numeroLinha) -> new Cerveja(
+            rs.getLong("id"),
+            rs.getString("nome"),
+            rs.getString("nome_busca"),
+            rs.getString("marca"),
+            rs.getInt("maximo"),
+            rs.getInt("quantidade"),
+            rs.getInt("reservada"),
+            CervejaTipo.valueOf(rs.getString("tipo")),
+            rs.getObject("minimo", Integer.class),
+            rs.getLong("versao"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public int movimentarEstoque(Long id, int quantidade) {
+        return comCacheSegundoNivelTravado(List.of(id),
+                () -> jdbcTemplate.update(SQL_MOVIMENTAR_ESTOQUE, quantidade, id, quantidade, quantidade));
+    }
+
+    @Override
+    public int[] movimentarEstoqueEmLote(List<MovimentoDTO> movimentos) {
+        Set<Long> ids = movimentos.stream().map(MovimentoDTO::getId).collect(Collectors.toSet());
+        return comCacheSegundoNivelTravado(ids, () -> jdbcTemplate.batchUpdate(SQL_MOVIMENTAR_ESTOQUE, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                MovimentoDTO movimento = movimentos.get(i);
+                ps.setInt(1, movimento.getQuantidade());
+                ps.setLong(2, movimento.getId());
+                ps.setInt(3, movimento.getQuantidade());
+                ps.setInt(4, movimento.getQuantidade());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return movimentos.size();
+            }
+        }));
+    }
+
+    @Override
+    public void aplicarDeltasEstoque(Map<Long, Integer> deltas) {
+        List<Object[]> parametros = new ArrayList<>(deltas.size());
+        deltas.forEach((id, quantidade) -> parametros.add(new Object[]{quantidade, id}));
+        comCacheSegundoNivelTravado(deltas.keySet(), () -> jdbcTemplate.batchUpdate(SQL_APLICAR_DELTA_ESTOQUE, parametros));
+    }
+
+    @Override
+    public int reservarEstoque(Long id, int quantidade) {
+        return comCacheSegundoNivelTravado(List.of(id),
+                () -> jdbcTemplate.update(SQL_RESERVAR_ESTOQUE, quantidade, quantidade, id, quantidade));
+    }
+
+    @Override
+    public void liberarReservas(Map<Long, Integer> quantidades) {
+        List<Object[]> parametros = new ArrayList<>(quantidades.size());
+        quantidades.forEach((id, quantidade) -> parametros.add(new Object[]{quantidade, quantidade, id}));
+        comCacheSegundoNivelTravado(quantidades.keySet(), () -> jdbcTemplate.batchUpdate(SQL_LIBERAR_RESERVA, parametros));
+    }
+
+    @Override
+    public void baixarReserva(Long id, int quantidade) {
+        comCacheSegundoNivelTravado(List.of(id), () -> jdbcTemplate.update(SQL_BAIXAR_RESERVA, quantidade, id));
+    }
+
+    @Override
+    public Optional<Cerveja> travarPorId(Long id) {
+        return jdbcTemplate.query(SQL_TRAVAR_POR_ID, CERVEJA_ROW_MAPPER, id).stream().findFirst();
+    }
+
+    @Override
+    public void gravarEstoque(Long id, int quantidade, long versao) {
+        comCacheSegundoNivelTravado(List.of(id), () -> jdbcTemplate.update(SQL_GRAVAR_ESTOQUE, quantidade, versao, id));
+    }
+
+    @Override
+    public void percorrerTodas(Consumer<Cerveja> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_PERCORRER_TODAS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAMANHO_FETCH);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(CERVEJA_ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    @Override
+    public Map<CervejaTipo, Long> contarPorTipo(Specification<Cerveja> especificacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<Cerveja> cerveja = consulta.from(Cerveja.class);
+        Path<CervejaTipo> tipo = cerveja.get("tipo");
+        consulta.multiselect(tipo, cb.count(cerveja)).groupBy(tipo);
+        Predicate predicado = especificacao.toPredicate(cerveja, consulta, cb);
+        if (predicado != null) {
+            consulta.where(predicado);
+        }
+
+        Map<CervejaTipo, Long> contagens = new EnumMap<>(CervejaTipo.class);
+        for (CervejaTipo cervejaTipo : CervejaTipo.values()) {
+            contagens.put(cervejaTipo, 0L);
+        }
+        for (Tuple linha : entityManager.createQuery(consulta).getResultList()) {
+            contagens.put(linha.get(0, CervejaTipo.class), linha.get(1, Long.class));
+        }
+        return contagens;
+    }
+
+    /**
+     * Os UPDATEs por JDBC não passam pelo Hibernate, que por isso não sabe
+     * invalidar o cache de segundo nível. Antes do UPDATE, cada cerveja
+     * alterada recebe no cache a mesma trava (soft lock) que o Hibernate usa
+     * nas próprias escritas: enquanto ela existe, as leituras vão ao banco e
+     * nenhuma transação guarda no cache o que leu. A trava é liberada depois
+     * do commit ou do rollback; sem transação, logo após o UPDATE.
+     */
+    private <T> T comCacheSegundoNivelTravado(Collection<Long> ids, Supplier<T> atualizacao) {
+        EntityPersister persister = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(Cerveja.class);
+        if (!persister.canWriteToCache()) {
+            return atualizacao.get();
+        }
+        EntityDataAccess acesso = persister.getCacheAccessStrategy();
+        SharedSessionContractImplementor sessao = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Map<Object, SoftLock> travas = new LinkedHashMap<>();
+        for (Long id : new TreeSet<>(ids)) {
+            Object chave = acesso.generateCacheKey(id, persister, persister.getFactory(), sessao.getTenantIdentifier());
+            travas.put(chave, acesso.lockItem(sessao, chave, null));
+        }
+        Runnable destravar = () -> travas.forEach((chave, trava) -> acesso.unlockItem(sessao, chave, trava));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return atualizacao.get();
+            } finally {
+                destravar.run();
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(int status) {
+                destravar.run();
+            }
+        });
+        return atualizacao.get();
+    }
+
+}
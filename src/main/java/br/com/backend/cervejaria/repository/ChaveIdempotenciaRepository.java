@@ -0,0 +1,17 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.entity.ChaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, String> {
+
+    @Modifying
+    @Query("DELETE FROM ChaveIdempotencia c WHERE c.criadaEm < :limite")
+    int removerCriadasAntes(@Param("limite") Instant limite);
+
+}
@@ -0,0 +1,8 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.entity.DescargaEstoque;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DescargaEstoqueRepository extends JpaRepository<DescargaEstoque, String> {
+
+}
@@ -0,0 +1,14 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.entity.MovimentoEstoque;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MovimentoEstoqueRepository extends JpaRepository<MovimentoEstoque, Long> {
+
+    List<MovimentoEstoque> findByCervejaIdAndRegistradoEmBetweenOrderByRegistradoEmAsc(Long cervejaId, Instant de, Instant ate, Pageable pageable);
+
+}
@@ -0,0 +1,28 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.entity.ReservaEstoque;
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReservaEstoqueRepository extends JpaRepository<ReservaEstoque, Long> {
+
+    List<ReservaEstoque> findByStatus(ReservaStatus status);
+
+    List<ReservaEstoque> findByCervejaIdAndStatus(Long cervejaId, ReservaStatus status);
+
+    /**
+     * Reservas dos ids informados que estão no status informado, travadas
+     * (SELECT ... FOR UPDATE) até o fim da transação.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ReservaEstoque r WHERE r.id IN :ids AND r.status = :status")
+    List<ReservaEstoque> travarPorIdsEStatus(@Param("ids") Collection<Long> ids, @Param("status") ReservaStatus status);
+
+}
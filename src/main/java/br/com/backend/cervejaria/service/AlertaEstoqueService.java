@@ -0,0 +1,166 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.alerta.AlertaEstoqueListener;
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.AlertaEstoqueSituacao;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém o índice das cervejas no mínimo de estoque ou abaixo dele. O
+ * limite é o minimo da cerveja ou, se ausente, um percentual do maximo.
+ * O índice é carregado por consulta na inicialização e depois atualizado
+ * a cada CervejaEvento, de forma que a lista de alertas nunca exige
+ * varrer o catálogo. Os listeners são avisados apenas nas transições.
+ * Eventos com versão mais antiga que a já avaliada para a cerveja são
+ * descartados, assim como os que chegam depois da remoção. A remoção fica
+ * marcada por cervejaria.alerta.remocao-expiracao; os ids não são
+ * reaproveitados, então depois disso já não chegam eventos atrasados.
+ */
+@Slf4j
+@Service
+public class AlertaEstoqueService {
+
+    private final CervejaRepository cervejaRepository;
+    private final List<AlertaEstoqueListener> listeners;
+    private final int percentualMinimo;
+    private final ConcurrentMap<Long, AlertaEstoqueDTO> abaixoDoMinimo = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> versoes = new ConcurrentHashMap<>();
+    private final Cache<Long, Boolean> removidas;
+
+    @Autowired
+    public AlertaEstoqueService(CervejaRepository cervejaRepository,
+                                List<AlertaEstoqueListener> listeners,
+                                @Value("${cervejaria.alerta.percentual-minimo:10}") int percentualMinimo,
+                                @Value("${cervejaria.alerta.remocao-expiracao:5m}") Duration expiracaoRemocao) {
+        this.cervejaRepository = cervejaRepository;
+        this.listeners = listeners;
+        this.percentualMinimo = percentualMinimo;
+        this.removidas = Caffeine.newBuilder()
+                .expireAfterWrite(expiracaoRemocao)
+                .build();
+    }
+
+    @PostConstruct
+    public void carregar() {
+        cervejaRepository.encontrarNoMinimo(percentualMinimo).forEach(cerveja -> versoes.compute(cerveja.getId(), (id, aplicada) -> {
+            long versao = versao(cerveja.getVersao());
+            if (aplicada != null && aplicada > versao) {
+                return aplicada;
+            }
+            abaixoDoMinimo.put(id, criarAlerta(id, cerveja.getNome(), cerveja.getQuantidade(),
+                    calcularLimite(cerveja.getMinimo(), cerveja.getMaximo()), AlertaEstoqueSituacao.ABAIXO_DO_MINIMO));
+            return versao;
+        }));
+    }
+
+    public List<AlertaEstoqueDTO> listarAbaixoDoMinimo() {
+        return abaixoDoMinimo.values().stream()
+                .sorted(Comparator.comparing(AlertaEstoqueDTO::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Dentro de uma transação (importação) a avaliação espera o commit;
+     * fora dela, acontece na hora. A marca de remoção é gravada e lida
+     * dentro do compute da cerveja, então a remoção e um evento atrasado
+     * nunca se intercalam.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void avaliar(CervejaEvento evento) {
+        CervejaDTO cerveja = evento.getCerveja();
+        AtomicReference<AlertaEstoqueDTO> transicao = new AtomicReference<>();
+        versoes.compute(cerveja.getId(), (id, aplicada) -> {
+            if (evento.getTipo() == CervejaEventoTipo.REMOVIDA) {
+                abaixoDoMinimo.remove(id);
+                removidas.put(id, Boolean.TRUE);
+                return null;
+            }
+            long versao = versao(cerveja.getVersao());
+            if (removidas.getIfPresent(id) != null || (aplicada != null && aplicada > versao)) {
+                return aplicada;
+            }
+            transicao.set(indexar(cerveja));
+            return versao;
+        });
+        if (transicao.get() != null) {
+            notificar(transicao.get());
+        }
+    }
+
+    /**
+     * Atualiza o índice com o estado da cerveja e devolve o alerta a
+     * notificar, se houve transição.
+     */
+    private AlertaEstoqueDTO indexar(CervejaDTO cerveja) {
+        int limite = calcularLimite(cerveja.getMinimo(), cerveja.getMaximo());
+        boolean noMinimo = cerveja.getQuantidade() <= limite;
+        AtomicReference<AlertaEstoqueDTO> transicao = new AtomicReference<>();
+        abaixoDoMinimo.compute(cerveja.getId(), (id, alertaAtual) -> {
+            if (!noMinimo) {
+                if (alertaAtual != null) {
+                    transicao.set(criarAlerta(id, cerveja.getNome(), cerveja.getQuantidade(), limite, AlertaEstoqueSituacao.NORMALIZADO));
+                }
+                return null;
+            }
+            if (alertaAtual == null) {
+                transicao.set(criarAlerta(id, cerveja.getNome(), cerveja.getQuantidade(), limite, AlertaEstoqueSituacao.ABAIXO_DO_MINIMO));
+                return transicao.get();
+            }
+            return alertaAtual.toBuilder()
+                    .quantidade(cerveja.getQuantidade())
+                    .limite(limite)
+                    .build();
+        });
+        return transicao.get();
+    }
+
+    private static long versao(Long versao) {
+        return versao == null ? -1L : versao;
+    }
+
+    private int calcularLimite(Integer minimo, Integer maximo) {
+        return minimo != null ? minimo : maximo * percentualMinimo / 100;
+    }
+
+    private AlertaEstoqueDTO criarAlerta(Long id, String nome, Integer quantidade, int limite, AlertaEstoqueSituacao situacao) {
+        return AlertaEstoqueDTO.builder()
+                .id(id)
+                .nome(nome)
+                .quantidade(quantidade)
+                .limite(limite)
+                .situacao(situacao)
+                .registradoEm(Instant.now())
+                .build();
+    }
+
+    private void notificar(AlertaEstoqueDTO alerta) {
+        for (AlertaEstoqueListener listener : listeners) {
+            try {
+                listener.notificar(alerta);
+            } catch (RuntimeException e) {
+                log.warn("Listener {} falhou ao receber o alerta da cerveja {}", listener.getClass().getSimpleName(), alerta.getId(), e);
+            }
+        }
+    }
+
+}
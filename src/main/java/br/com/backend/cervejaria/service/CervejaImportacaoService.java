@@ -0,0 +1,205 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.ImportacaoResultadoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa do catálogo. A unicidade dos nomes é verificada com
+ * uma consulta IN por bloco, e as novas cervejas são gravadas com um único
+ * saveAll, que o Hibernate envia em batches de inserts graças aos ids por
+ * sequence. Se uma importação concorrente gravar um dos nomes entre a
+ * consulta e o saveAll, o lote é desfeito e as cervejas são gravadas uma a
+ * uma, cada uma na sua transação, para que só as repetidas fiquem de fora.
+ */
+@Slf4j
+@Service
+public class CervejaImportacaoService {
+
+    private static final int TAMANHO_BLOCO_CONSULTA = 1000;
+    private static final String SEPARADOR_CSV = ",";
+    private static final int COLUNAS_CSV = 5;
+    private static final int COLUNAS_CSV_COM_MINIMO = 6;
+
+    private final CervejaRepository cervejaRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+
+    @Autowired
+    public CervejaImportacaoService(CervejaRepository cervejaRepository,
+                                    Validator validator,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.cervejaRepository = cervejaRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportacaoResultadoDTO importar(List<CervejaDTO> cervejasDTO) {
+        long inicio = System.nanoTime();
+        List<String> rejeitadas = new ArrayList<>();
+        Map<String, CervejaDTO> cervejasPorNome = new LinkedHashMap<>();
+        for (int i = 0; i < cervejasDTO.size(); i++) {
+            CervejaDTO cervejaDTO = cervejasDTO.get(i);
+            if (cervejaDTO == null) {
+                rejeitadas.add("item " + (i + 1) + ": cerveja nula");
+                continue;
+            }
+            Set<ConstraintViolation<CervejaDTO>> violacoes = validator.validate(cervejaDTO);
+            if (!violacoes.isEmpty()) {
+                rejeitadas.add(descreverRejeicao(cervejaDTO.getNome(), violacoes));
+            } else if (cervejasPorNome.putIfAbsent(cervejaDTO.getNome(), cervejaDTO) != null) {
+                rejeitadas.add(cervejaDTO.getNome() + ": nome repetido na importação");
+            }
+        }
+
+        Set<String> jaCadastradas = encontrarNomesCadastrados(cervejasPorNome.keySet());
+        List<CervejaDTO> novasCervejas = cervejasPorNome.values().stream()
+                .filter(cervejaDTO -> !jaCadastradas.contains(cervejaDTO.getNome()))
+                .collect(Collectors.toList());
+        int importadas;
+        try {
+            importadas = gravar(novasCervejas);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Lote de {} cervejas recusado pelo banco, gravando uma a uma: {}", novasCervejas.size(), e.getMessage());
+            importadas = gravarUmaAUma(novasCervejas, jaCadastradas, rejeitadas);
+        }
+
+        long duracaoNanos = System.nanoTime() - inicio;
+        return ImportacaoResultadoDTO.builder()
+                .importadas(importadas)
+                .jaCadastradas(new ArrayList<>(jaCadastradas))
+                .rejeitadas(rejeitadas)
+                .duracaoMs(TimeUnit.NANOSECONDS.toMillis(duracaoNanos))
+                .cervejasPorSegundo(importadas / Math.max(duracaoNanos / 1e9, 1e-9))
+                .build();
+    }
+
+    /**
+     * Espera o cabeçalho nome,marca,maximo,quantidade,tipo, com a coluna
+     * minimo opcional ao final. Linhas que não
+     * puderem ser lidas entram como rejeitadas no resultado.
+     */
+    public ImportacaoResultadoDTO importarCsv(String csv) {
+        List<CervejaDTO> cervejasDTO = new ArrayList<>();
+        List<String> rejeitadas = new ArrayList<>();
+        String[] linhas = csv.split("\\r?\\n");
+        for (int i = 1; i < linhas.length; i++) {
+            if (linhas[i].trim().isEmpty()) {
+                continue;
+            }
+            String[] campos = linhas[i].split(SEPARADOR_CSV, -1);
+            try {
+                if (campos.length != COLUNAS_CSV && campos.length != COLUNAS_CSV_COM_MINIMO) {
+                    throw new IllegalArgumentException("esperadas " + COLUNAS_CSV + " ou " + COLUNAS_CSV_COM_MINIMO + " colunas");
+                }
+                cervejasDTO.add(CervejaDTO.builder()
+                        .nome(campos[0].trim())
+                        .marca(campos[1].trim())
+                        .maximo(Integer.valueOf(campos[2].trim()))
+                        .quantidade(Integer.valueOf(campos[3].trim()))
+                        .tipo(CervejaTipo.valueOf(campos[4].trim().toUpperCase()))
+                        .minimo(campos.length == COLUNAS_CSV_COM_MINIMO && !campos[5].trim().isEmpty()
+                                ? Integer.valueOf(campos[5].trim())
+                                : null)
+                        .build());
+            } catch (IllegalArgumentException e) {
+                rejeitadas.add("linha " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        ImportacaoResultadoDTO resultado = importar(cervejasDTO);
+        resultado.getRejeitadas().addAll(0, rejeitadas);
+        return resultado;
+    }
+
+    /**
+     * Grava as cervejas em uma transação. Os eventos de criação só são
+     * entregues aos listeners depois do commit.
+     */
+    private int gravar(List<CervejaDTO> cervejasDTO) {
+        return transactionTemplate.execute(status -> {
+            List<Cerveja> cervejas = cervejasDTO.stream()
+                    .map(this::paraNovaCerveja)
+                    .collect(Collectors.toList());
+            cervejaRepository.saveAll(cervejas);
+            // força os inserts agora para que a duração medida inclua a escrita
+            cervejaRepository.flush();
+            cervejas.forEach(cerveja ->
+                    eventPublisher.publishEvent(new CervejaEvento(CervejaEventoTipo.CRIADA, cervejaMapper.toDTO(cerveja))));
+            return cervejas.size();
+        });
+    }
+
+    private int gravarUmaAUma(List<CervejaDTO> cervejasDTO, Set<String> jaCadastradas, List<String> rejeitadas) {
+        int importadas = 0;
+        for (CervejaDTO cervejaDTO : cervejasDTO) {
+            try {
+                importadas += gravar(Collections.singletonList(cervejaDTO));
+            } catch (DataIntegrityViolationException e) {
+                if (cervejaRepository.encontrarNomesCadastrados(Collections.singletonList(cervejaDTO.getNome())).isEmpty()) {
+                    rejeitadas.add(cervejaDTO.getNome() + ": recusada pelo banco");
+                } else {
+                    jaCadastradas.add(cervejaDTO.getNome());
+                }
+            }
+        }
+        return importadas;
+    }
+
+    private Cerveja paraNovaCerveja(CervejaDTO cervejaDTO) {
+        Cerveja cerveja = cervejaMapper.toModel(cervejaDTO);
+        cerveja.setId(null);
+        return cerveja;
+    }
+
+    private Set<String> encontrarNomesCadastrados(Set<String> nomes) {
+        Set<String> cadastrados = new HashSet<>();
+        List<String> bloco = new ArrayList<>(TAMANHO_BLOCO_CONSULTA);
+        for (String nome : nomes) {
+            bloco.add(nome);
+            if (bloco.size() == TAMANHO_BLOCO_CONSULTA) {
+                cadastrados.addAll(cervejaRepository.encontrarNomesCadastrados(bloco));
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()) {
+            cadastrados.addAll(cervejaRepository.encontrarNomesCadastrados(bloco));
+        }
+        return cadastrados;
+    }
+
+    private String descreverRejeicao(String nome, Set<ConstraintViolation<CervejaDTO>> violacoes) {
+        return nome + ": " + violacoes.stream()
+                .map(violacao -> violacao.getPropertyPath() + " " + violacao.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+}
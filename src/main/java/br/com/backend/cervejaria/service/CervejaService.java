@@ -1,50 +1,193 @@
 package br.com.backend.cervejaria.service;
 
+import br.com.backend.cervejaria.cache.ChamadaUnica;
+import br.com.backend.cervejaria.cache.CervejaCache;
+import br.com.backend.cervejaria.cache.FiltroNomesCadastrados;
+import br.com.backend.cervejaria.dto.BuscaCervejaDTO;
 import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.dto.MovimentoDTO;
+import br.com.backend.cervejaria.dto.MovimentoResultadoDTO;
+import br.com.backend.cervejaria.dto.PaginaCervejaDTO;
 import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.CervejaOrdenacao;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.enums.MovimentoStatus;
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import br.com.backend.cervejaria.evento.CervejaEvento;
 import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
 import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
 import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.CursorInvalidoException;
 import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaEspecificacoes;
 import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.ReservaEstoqueRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class CervejaService {
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 500;
+
     private final CervejaRepository cervejaRepository;
+    private final CervejaCache cervejaCache;
+    private final EstoqueWriteBehind estoqueWriteBehind;
+    private final EstoqueEmGrupo estoqueEmGrupo;
+    private final HistoricoEstoqueService historicoEstoqueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FiltroNomesCadastrados filtroNomesCadastrados;
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
     private final CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+    private final ChamadaUnica<String, Optional<Cerveja>> consultasPorNome = new ChamadaUnica<>();
 
+    /**
+     * A consulta de nome duplicado só é feita quando o filtro de nomes diz
+     * que o nome pode existir; nos demais casos, e em criações concorrentes
+     * com o mesmo nome, quem recusa é a restrição de unicidade do banco.
+     */
     public CervejaDTO criarCerveja(CervejaDTO cervejaDTO) throws CervejaJaCadastradaException {
-        verificarSeJaCadastrada(cervejaDTO.getNome());
+        if (filtroNomesCadastrados.podeConter(cervejaDTO.getNome())) {
+            verificarSeJaCadastrada(cervejaDTO.getNome());
+        }
         Cerveja cerveja = cervejaMapper.toModel(cervejaDTO);
-        Cerveja cervejaSalva = cervejaRepository.save(cerveja);
-        return cervejaMapper.toDTO(cervejaSalva);
+        Cerveja cervejaSalva;
+        try {
+            cervejaSalva = cervejaRepository.save(cerveja);
+        } catch (DataIntegrityViolationException e) {
+            verificarSeJaCadastrada(cervejaDTO.getNome());
+            throw e;
+        }
+        CervejaDTO cervejaSalvaDTO = cervejaMapper.toDTO(cervejaSalva);
+        eventPublisher.publishEvent(new CervejaEvento(CervejaEventoTipo.CRIADA, cervejaSalvaDTO));
+        return cervejaSalvaDTO;
     }
 
     public CervejaDTO encontrarPorNome(String nome) throws CervejaNaoEncontradaException {
-        Cerveja cervejaEncontrar = cervejaRepository.encontrarPorNome(nome)
+        Optional<CervejaDTO> cervejaEmCache = cervejaCache.obter(nome);
+        if (cervejaEmCache.isPresent()) {
+            return cervejaEmCache.get();
+        }
+        Cerveja cervejaEncontrar = consultasPorNome.executar(nome, () -> cervejaRepository.encontrarPorNome(nome))
                 .orElseThrow(() -> new CervejaNaoEncontradaException(nome));
-        return cervejaMapper.toDTO(cervejaEncontrar);
+        CervejaDTO cervejaEncontrarDTO = paraDTO(cervejaEncontrar);
+        cervejaCache.guardarSeAusente(cervejaEncontrarDTO);
+        return cervejaEncontrarDTO;
     }
 
     public List<CervejaDTO> listarTudo() {
         return cervejaRepository.findAll()
                 .stream()
-                .map(cervejaMapper::toDTO)
+                .map(this::paraDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Paginação por chave (keyset): o cursor carrega o último id entregue e a
+     * próxima página começa logo depois dele, sem OFFSET.
+     */
+    public PaginaCervejaDTO listarPagina(String cursor, int tamanho) throws CursorInvalidoException {
+        int tamanhoPagina = Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO_PAGINA));
+        long ultimoId = cursor == null ? 0L : decodificarCursor(cursor);
+
+        List<Cerveja> cervejas = cervejaRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.of(0, tamanhoPagina + 1));
+        List<CervejaDTO> itens = cervejas.stream()
+                .limit(tamanhoPagina)
+                .map(this::paraDTO)
                 .collect(Collectors.toList());
+        String proximoCursor = cervejas.size() > tamanhoPagina
+                ? codificarCursor(itens.get(itens.size() - 1).getId())
+                : null;
+        return new PaginaCervejaDTO(itens, proximoCursor);
+    }
+
+    /**
+     * Busca filtrada, ordenada e paginada por OFFSET, com as contagens por
+     * tipo calculadas no banco sobre os demais filtros. Os filtros de
+     * estoque usam a quantidade gravada no banco.
+     */
+    public BuscaCervejaDTO buscar(FiltroCervejaDTO filtro, CervejaOrdenacao ordenacao, Sort.Direction direcao, int pagina, int tamanho) {
+        int tamanhoPagina = Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO_PAGINA));
+        Sort ordem = Sort.by(direcao, ordenacao.getPropriedade()).and(Sort.by("id"));
+
+        Page<Cerveja> cervejas = cervejaRepository.findAll(CervejaEspecificacoes.filtrar(filtro), PageRequest.of(Math.max(0, pagina), tamanhoPagina, ordem));
+        Map<CervejaTipo, Long> tipos = cervejaRepository.contarPorTipo(CervejaEspecificacoes.semTipo(filtro));
+        return BuscaCervejaDTO.builder()
+                .itens(cervejas.map(this::paraDTO).getContent())
+                .pagina(cervejas.getNumber())
+                .total(cervejas.getTotalElements())
+                .tipos(tipos)
+                .build();
+    }
+
+    public void percorrerTudo(Consumer<CervejaDTO> consumidor) {
+        cervejaRepository.percorrerTodas(cerveja -> consumidor.accept(paraDTO(cerveja)));
     }
 
+    /**
+     * A linha da cerveja fica travada enquanto as reservas abertas dela são
+     * canceladas e ela é excluída, na mesma transação: uma reserva
+     * concorrente ou termina antes e é cancelada aqui, ou encontra a cerveja
+     * já excluída.
+     */
+    @Transactional
     public void deletarPorId(Long id) throws CervejaNaoEncontradaException {
-        verificarSeExiste(id);
+        Cerveja cervejaDeletar = cervejaRepository.travarPorId(id)
+                .orElseThrow(() -> new CervejaNaoEncontradaException(id));
+        reservaEstoqueRepository.findByCervejaIdAndStatus(id, ReservaStatus.ABERTA)
+                .forEach(reserva -> reserva.setStatus(ReservaStatus.CANCELADA));
         cervejaRepository.deleteById(id);
+        eventPublisher.publishEvent(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cervejaMapper.toDTO(cervejaDeletar)));
+    }
+
+    /**
+     * No modo write-behind o banco pode estar atrás do saldo em memória;
+     * a quantidade e a versão expostas são sempre as mais recentes.
+     */
+    private CervejaDTO paraDTO(Cerveja cerveja) {
+        CervejaDTO cervejaDTO = cervejaMapper.toDTO(cerveja);
+        estoqueWriteBehind.estadoAtual(cerveja.getId()).ifPresent(estadoAtual -> {
+            cervejaDTO.setQuantidade(estadoAtual.getQuantidade());
+            cervejaDTO.setVersao(estadoAtual.getVersao());
+        });
+        return cervejaDTO;
+    }
+
+    private String codificarCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodificarCursor(String cursor) throws CursorInvalidoException {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new CursorInvalidoException(cursor);
+        }
     }
 
     private void verificarSeJaCadastrada(String nome) throws CervejaJaCadastradaException {
@@ -60,25 +203,99 @@ public class CervejaService {
     }
 
     public CervejaDTO incrementar(Long id, int quantidadeIncrementar) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
-        Cerveja cervejaIncrementar = verificarSeExiste(id);
-        int quantidadeIncrementado = quantidadeIncrementar + cervejaIncrementar.getQuantidade();
-        if (quantidadeIncrementado <= cervejaIncrementar.getMaximo()) {
-            cervejaIncrementar.setQuantidade(cervejaIncrementar.getQuantidade() + quantidadeIncrementar);
-            Cerveja incrementadoEstoqueCerveja = cervejaRepository.save(cervejaIncrementar);
-            return cervejaMapper.toDTO(incrementadoEstoqueCerveja);
-        }
-        throw new CervejaEstoqueExcedidoException(id, quantidadeIncrementar);
+        return movimentarEstoque(id, quantidadeIncrementar, quantidadeIncrementar);
     }
 
     public CervejaDTO decrementar(Long id, int quantidadeDecrementar) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
-        Cerveja cervejaDecrementar = verificarSeExiste(id);
-        int quantidadeDecrementado = quantidadeDecrementar - cervejaDecrementar.getQuantidade();
-        if (quantidadeDecrementado <= cervejaDecrementar.getQuantidade()) {
-            cervejaDecrementar.setQuantidade(cervejaDecrementar.getQuantidade() - quantidadeDecrementado);
-            Cerveja decrementadoEstoqueCerveja = cervejaRepository.save(cervejaDecrementar);
-            return cervejaMapper.toDTO(decrementadoEstoqueCerveja);
+        return movimentarEstoque(id, -quantidadeDecrementar, quantidadeDecrementar);
+    }
+
+    private CervejaDTO movimentarEstoque(Long id, int quantidade, int quantidadeInformada) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+        CervejaDTO cervejaMovimentadaDTO;
+        if (estoqueWriteBehind.isAtivo()) {
+            cervejaMovimentadaDTO = estoqueWriteBehind.movimentar(id, quantidade, quantidadeInformada);
+        } else if (estoqueEmGrupo.isAtivo()) {
+            cervejaMovimentadaDTO = estoqueEmGrupo.movimentar(id, quantidade, quantidadeInformada);
+        } else {
+            if (cervejaRepository.movimentarEstoque(id, quantidade) == 0) {
+                verificarSeExiste(id);
+                throw new CervejaEstoqueExcedidoException(id, quantidadeInformada);
+            }
+            cervejaMovimentadaDTO = cervejaMapper.toDTO(verificarSeExiste(id));
+        }
+        historicoEstoqueService.registrar(id, quantidade);
+        eventPublisher.publishEvent(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cervejaMovimentadaDTO));
+        return cervejaMovimentadaDTO;
+    }
+
+    /**
+     * Aplica os movimentos em uma única transação. Os UPDATEs são enviados
+     * ordenados por id, para que transações concorrentes bloqueiem as linhas
+     * sempre na mesma ordem; o resultado volta na ordem da requisição.
+     */
+    public List<MovimentoResultadoDTO> movimentarEmLote(List<MovimentoDTO> movimentos) {
+        if (estoqueWriteBehind.isAtivo()) {
+            return movimentarEmLoteWriteBehind(movimentos);
+        }
+        Integer[] ordem = IntStream.range(0, movimentos.size())
+                .boxed()
+                .sorted(Comparator.comparing((Integer i) -> movimentos.get(i).getId()))
+                .toArray(Integer[]::new);
+        List<MovimentoDTO> movimentosOrdenados = Arrays.stream(ordem)
+                .map(movimentos::get)
+                .collect(Collectors.toList());
+
+        int[] linhasAtualizadas = cervejaRepository.movimentarEstoqueEmLote(movimentosOrdenados);
+
+        Set<Long> idsAplicados = new HashSet<>();
+        Set<Long> idsNaoAplicados = new HashSet<>();
+        for (int i = 0; i < linhasAtualizadas.length; i++) {
+            if (linhasAtualizadas[i] > 0) {
+                idsAplicados.add(movimentosOrdenados.get(i).getId());
+                historicoEstoqueService.registrar(movimentosOrdenados.get(i).getId(), movimentosOrdenados.get(i).getQuantidade());
+            } else {
+                idsNaoAplicados.add(movimentosOrdenados.get(i).getId());
+            }
+        }
+        publicarEstoqueAlterado(idsAplicados);
+        Set<Long> idsExistentes = idsNaoAplicados.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(cervejaRepository.encontrarIdsExistentes(idsNaoAplicados));
+
+        MovimentoResultadoDTO[] resultados = new MovimentoResultadoDTO[movimentos.size()];
+        for (int i = 0; i < linhasAtualizadas.length; i++) {
+            MovimentoDTO movimento = movimentosOrdenados.get(i);
+            MovimentoStatus status = linhasAtualizadas[i] > 0
+                    ? MovimentoStatus.APLICADO
+                    : idsExistentes.contains(movimento.getId()) ? MovimentoStatus.ESTOQUE_EXCEDIDO : MovimentoStatus.NAO_ENCONTRADA;
+            resultados[ordem[i]] = new MovimentoResultadoDTO(movimento.getId(), movimento.getQuantidade(), status);
+        }
+        return Arrays.asList(resultados);
+    }
+
+    private void publicarEstoqueAlterado(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        cervejaRepository.findAllById(ids).forEach(cerveja ->
+                eventPublisher.publishEvent(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cervejaMapper.toDTO(cerveja))));
+    }
+
+    private List<MovimentoResultadoDTO> movimentarEmLoteWriteBehind(List<MovimentoDTO> movimentos) {
+        List<MovimentoResultadoDTO> resultados = new ArrayList<>(movimentos.size());
+        for (MovimentoDTO movimento : movimentos) {
+            MovimentoStatus status;
+            try {
+                movimentarEstoque(movimento.getId(), movimento.getQuantidade(), Math.abs(movimento.getQuantidade()));
+                status = MovimentoStatus.APLICADO;
+            } catch (CervejaNaoEncontradaException e) {
+                status = MovimentoStatus.NAO_ENCONTRADA;
+            } catch (CervejaEstoqueExcedidoException e) {
+                status = MovimentoStatus.ESTOQUE_EXCEDIDO;
+            }
+            resultados.add(new MovimentoResultadoDTO(movimento.getId(), movimento.getQuantidade(), status));
         }
-        throw new CervejaEstoqueExcedidoException(id, quantidadeDecrementar);
+        return resultados;
     }
 
 }
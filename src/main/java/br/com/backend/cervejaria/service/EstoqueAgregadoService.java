@@ -0,0 +1,190 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.dto.AgregadosEstoqueDTO;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.EstoqueAgregadoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Totais de estoque e capacidade por tipo e por marca, mantidos em memória.
+ * <p>
+ * Guarda a última contribuição de cada cerveja (tipo, marca, quantidade e
+ * máximo) e, a cada CervejaEvento, aplica aos grupos apenas a diferença
+ * para a anterior. A leitura percorre os grupos, não o catálogo. Eventos
+ * com versão mais antiga que a já aplicada são descartados, e os de uma
+ * cerveja removida também, enquanto a remoção não passa de
+ * cervejaria.estoque.agregados.remocao-expiracao; os ids não são
+ * reaproveitados, então depois disso já não chegam eventos atrasados.
+ */
+@Service
+public class EstoqueAgregadoService {
+
+    private final CervejaRepository cervejaRepository;
+    private final EstoqueWriteBehind estoqueWriteBehind;
+    private final ConcurrentMap<Long, Contribuicao> contribuicoes = new ConcurrentHashMap<>();
+    private final Cache<Long, Boolean> removidas;
+    private final Map<CervejaTipo, Totais> porTipo = new EnumMap<>(CervejaTipo.class);
+    private final ConcurrentMap<String, Totais> porMarca = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EstoqueAgregadoService(CervejaRepository cervejaRepository,
+                                  EstoqueWriteBehind estoqueWriteBehind,
+                                  @Value("${cervejaria.estoque.agregados.remocao-expiracao:5m}") Duration expiracaoRemocao) {
+        this.cervejaRepository = cervejaRepository;
+        this.estoqueWriteBehind = estoqueWriteBehind;
+        this.removidas = Caffeine.newBuilder()
+                .expireAfterWrite(expiracaoRemocao)
+                .build();
+        for (CervejaTipo tipo : CervejaTipo.values()) {
+            porTipo.put(tipo, new Totais());
+        }
+    }
+
+    /**
+     * O EstoqueWriteBehind vem pelo construtor para que este carregamento só
+     * rode depois que ele reaplicou o diário ao banco; os saldos que ele já
+     * tem em memória prevalecem sobre os do banco.
+     */
+    @PostConstruct
+    public void carregar() {
+        cervejaRepository.percorrerTodas(cerveja -> {
+            Optional<CervejaDTO> emMemoria = estoqueWriteBehind.estadoAtual(cerveja.getId());
+            if (emMemoria.isPresent()) {
+                aplicar(emMemoria.get());
+            } else {
+                aplicar(cerveja);
+            }
+        });
+    }
+
+    public AgregadosEstoqueDTO consultar() {
+        return AgregadosEstoqueDTO.builder()
+                .tipos(paraDTO(porTipo, CervejaTipo::name))
+                .marcas(paraDTO(porMarca, Function.identity()))
+                .build();
+    }
+
+    public long quantidadePorTipo(CervejaTipo tipo) {
+        return porTipo.get(tipo).quantidade.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void atualizar(CervejaEvento evento) {
+        CervejaDTO cerveja = evento.getCerveja();
+        if (evento.getTipo() == CervejaEventoTipo.REMOVIDA) {
+            removidas.put(cerveja.getId(), Boolean.TRUE);
+            contribuicoes.computeIfPresent(cerveja.getId(), (id, anterior) -> {
+                somar(anterior, -1);
+                return null;
+            });
+            return;
+        }
+        aplicar(cerveja);
+    }
+
+    private void aplicar(CervejaDTO cerveja) {
+        aplicar(cerveja.getId(), new Contribuicao(cerveja.getTipo(), cerveja.getMarca(),
+                cerveja.getQuantidade(), cerveja.getMaximo(), versao(cerveja.getVersao())));
+    }
+
+    private void aplicar(Cerveja cerveja) {
+        aplicar(cerveja.getId(), new Contribuicao(cerveja.getTipo(), cerveja.getMarca(),
+                cerveja.getQuantidade(), cerveja.getMaximo(), versao(cerveja.getVersao())));
+    }
+
+    private void aplicar(Long id, Contribuicao nova) {
+        contribuicoes.compute(id, (chave, anterior) -> {
+            if (removidas.getIfPresent(chave) != null || (anterior != null && anterior.versao > nova.versao)) {
+                return anterior;
+            }
+            if (anterior != null) {
+                somar(anterior, -1);
+            }
+            somar(nova, 1);
+            return nova;
+        });
+    }
+
+    private void somar(Contribuicao contribuicao, int sinal) {
+        porTipo.get(contribuicao.tipo).somar(contribuicao, sinal);
+        porMarca.computeIfAbsent(contribuicao.marca, marca -> new Totais()).somar(contribuicao, sinal);
+    }
+
+    private static <K> List<EstoqueAgregadoDTO> paraDTO(Map<K, Totais> grupos, Function<K, String> nome) {
+        return grupos.entrySet().stream()
+                .filter(grupo -> grupo.getValue().cervejas.get() > 0)
+                .map(grupo -> grupo.getValue().paraDTO(nome.apply(grupo.getKey())))
+                .sorted(Comparator.comparing(EstoqueAgregadoDTO::getGrupo))
+                .collect(Collectors.toList());
+    }
+
+    private static long versao(Long versao) {
+        return versao == null ? -1L : versao;
+    }
+
+    private static class Contribuicao {
+
+        private final CervejaTipo tipo;
+        private final String marca;
+        private final int quantidade;
+        private final int maximo;
+        private final long versao;
+
+        private Contribuicao(CervejaTipo tipo, String marca, int quantidade, int maximo, long versao) {
+            this.tipo = tipo;
+            this.marca = marca;
+            this.quantidade = quantidade;
+            this.maximo = maximo;
+            this.versao = versao;
+        }
+    }
+
+    private static class Totais {
+
+        private final AtomicLong cervejas = new AtomicLong();
+        private final AtomicLong quantidade = new AtomicLong();
+        private final AtomicLong maximo = new AtomicLong();
+
+        private void somar(Contribuicao contribuicao, int sinal) {
+            cervejas.addAndGet(sinal);
+            quantidade.addAndGet((long) sinal * contribuicao.quantidade);
+            maximo.addAndGet((long) sinal * contribuicao.maximo);
+        }
+
+        private EstoqueAgregadoDTO paraDTO(String grupo) {
+            long quantidadeTotal = quantidade.get();
+            long maximoTotal = maximo.get();
+            return EstoqueAgregadoDTO.builder()
+                    .grupo(grupo)
+                    .cervejas(cervejas.get())
+                    .quantidade(quantidadeTotal)
+                    .maximo(maximoTotal)
+                    .percentualOcupacao(maximoTotal == 0 ? 0 : Math.round(quantidadeTotal * 10000.0 / maximoTotal) / 100.0)
+                    .build();
+        }
+    }
+
+}
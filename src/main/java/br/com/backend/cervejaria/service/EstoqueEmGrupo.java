@@ -0,0 +1,237 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Modo de commit em grupo do estoque (cervejaria.estoque.modo=grupo).
+ * <p>
+ * Cada cerveja tem uma caixa de movimentos, esvaziada por uma única thread
+ * de cada vez. Quem esvazia trava a linha, valida os movimentos na ordem de
+ * chegada contra a quantidade e o máximo, grava o resultado em um único
+ * UPDATE e um único commit e só então responde a cada chamador com o seu
+ * próprio resultado: a cerveja como ficou depois do seu movimento, ou
+ * CervejaEstoqueExcedidoException. Enquanto um grupo está sendo gravado, os
+ * movimentos seguintes se acumulam para o próximo, de forma que uma cerveja
+ * muito movimentada paga um commit por grupo, e não um por requisição.
+ */
+@Slf4j
+@Component
+public class EstoqueEmGrupo {
+
+    private final CervejaRepository cervejaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+    private final boolean ativo;
+    private final int tamanhoMaximoGrupo;
+    private final ExecutorService executor;
+    private final DistributionSummary tamanhoGrupo;
+
+    private final ConcurrentMap<Long, Caixa> caixas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EstoqueEmGrupo(CervejaRepository cervejaRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${cervejaria.estoque.modo:sincrono}") ModoEstoque modo,
+                          @Value("${cervejaria.estoque.grupo.threads:4}") int threads,
+                          @Value("${cervejaria.estoque.grupo.tamanho-maximo:256}") int tamanhoMaximoGrupo) {
+        this.cervejaRepository = cervejaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ativo = modo == ModoEstoque.GRUPO;
+        this.tamanhoMaximoGrupo = tamanhoMaximoGrupo;
+        this.executor = ativo ? Executors.newFixedThreadPool(threads) : null;
+        this.tamanhoGrupo = DistributionSummary.builder("cervejaria.estoque.grupo")
+                .description("Movimentos de estoque gravados em cada commit em grupo")
+                .register(meterRegistry);
+    }
+
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    public CervejaDTO movimentar(Long id, int quantidade, int quantidadeInformada) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+        Pedido pedido = new Pedido(quantidade, quantidadeInformada);
+        Caixa caixa = caixas.computeIfAbsent(id, Caixa::new);
+        caixa.fila.add(pedido);
+        if (caixa.agendada.compareAndSet(false, true)) {
+            agendar(caixa);
+        }
+        return pedido.aguardar();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Grava um grupo e, se a caixa ainda tiver movimentos, volta ao fim da
+     * fila do executor, para que uma cerveja muito movimentada não prenda a
+     * thread enquanto as outras esperam. Um movimento que chega depois da
+     * última leitura da fila e antes de agendada voltar a false é visto na
+     * nova checagem, então nenhum fica sem quem o grave.
+     */
+    private void esvaziar(Caixa caixa) {
+        List<Pedido> grupo = new ArrayList<>();
+        Pedido pedido;
+        while (grupo.size() < tamanhoMaximoGrupo && (pedido = caixa.fila.poll()) != null) {
+            grupo.add(pedido);
+        }
+        if (!grupo.isEmpty()) {
+            gravar(caixa.id, grupo);
+        }
+        if (!caixa.fila.isEmpty()) {
+            agendar(caixa);
+            return;
+        }
+        caixa.agendada.set(false);
+        if (!caixa.fila.isEmpty() && caixa.agendada.compareAndSet(false, true)) {
+            agendar(caixa);
+        } else if (caixa.fila.isEmpty()) {
+            caixas.remove(caixa.id, caixa);
+        }
+    }
+
+    /**
+     * Com o executor já encerrado, os movimentos da caixa são recusados em vez
+     * de deixar os chamadores esperando para sempre.
+     */
+    private void agendar(Caixa caixa) {
+        try {
+            executor.execute(() -> esvaziar(caixa));
+        } catch (RejectedExecutionException e) {
+            Pedido pedido;
+            while ((pedido = caixa.fila.poll()) != null) {
+                pedido.resultado.completeExceptionally(e);
+            }
+            caixa.agendada.set(false);
+        }
+    }
+
+    private void gravar(Long id, List<Pedido> grupo) {
+        List<Object> resultados;
+        try {
+            resultados = transactionTemplate.execute(status -> aplicar(id, grupo));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar {} movimentos de estoque da cerveja {}", grupo.size(), id, e);
+            grupo.forEach(pedido -> pedido.resultado.completeExceptionally(e));
+            return;
+        }
+        tamanhoGrupo.record(grupo.size());
+        for (int i = 0; i < grupo.size(); i++) {
+            Object resultado = resultados.get(i);
+            if (resultado instanceof CervejaDTO) {
+                grupo.get(i).resultado.complete((CervejaDTO) resultado);
+            } else {
+                grupo.get(i).resultado.completeExceptionally((Exception) resultado);
+            }
+        }
+    }
+
+    /**
+     * Chamado dentro da transação: cada posição do retorno é a cerveja depois
+     * do movimento correspondente ou a exceção que o recusou.
+     */
+    private List<Object> aplicar(Long id, List<Pedido> grupo) {
+        List<Object> resultados = new ArrayList<>(grupo.size());
+        Optional<Cerveja> travada = cervejaRepository.travarPorId(id);
+        if (travada.isEmpty()) {
+            grupo.forEach(pedido -> resultados.add(new CervejaNaoEncontradaException(id)));
+            return resultados;
+        }
+        Cerveja cerveja = travada.get();
+        boolean alterada = false;
+        long versao = cerveja.getVersao() == null ? 0L : cerveja.getVersao();
+        for (Pedido pedido : grupo) {
+            int novaQuantidade = cerveja.getQuantidade() + pedido.quantidade;
+            if (novaQuantidade < 0 || novaQuantidade + cerveja.getReservada() > cerveja.getMaximo()) {
+                resultados.add(new CervejaEstoqueExcedidoException(id, pedido.quantidadeInformada));
+                continue;
+            }
+            cerveja.setQuantidade(novaQuantidade);
+            cerveja.setVersao(++versao);
+            alterada = true;
+            resultados.add(cervejaMapper.toDTO(cerveja));
+        }
+        if (alterada) {
+            cervejaRepository.gravarEstoque(id, cerveja.getQuantidade(), versao);
+        }
+        return resultados;
+    }
+
+    private static class Caixa {
+
+        private final Long id;
+        private final Queue<Pedido> fila = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean agendada = new AtomicBoolean();
+
+        private Caixa(Long id) {
+            this.id = id;
+        }
+    }
+
+    private static class Pedido {
+
+        private final int quantidade;
+        private final int quantidadeInformada;
+        private final CompletableFuture<CervejaDTO> resultado = new CompletableFuture<>();
+
+        private Pedido(int quantidade, int quantidadeInformada) {
+            this.quantidade = quantidade;
+            this.quantidadeInformada = quantidadeInformada;
+        }
+
+        private CervejaDTO aguardar() throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+            try {
+                return resultado.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                if (causa instanceof CervejaNaoEncontradaException) {
+                    throw (CervejaNaoEncontradaException) causa;
+                }
+                if (causa instanceof CervejaEstoqueExcedidoException) {
+                    throw (CervejaEstoqueExcedidoException) causa;
+                }
+                if (causa instanceof RuntimeException) {
+                    throw (RuntimeException) causa;
+                }
+                throw new IllegalStateException(causa);
+            }
+        }
+    }
+
+}
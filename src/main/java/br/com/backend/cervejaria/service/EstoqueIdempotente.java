@@ -0,0 +1,307 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.ChaveIdempotencia;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaEmUsoException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaReutilizadaException;
+import br.com.backend.cervejaria.repository.ChaveIdempotenciaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Incremento e decremento com Idempotency-Key.
+ * <p>
+ * A primeira requisição com uma chave executa o movimento; as repetições
+ * recebem a mesma resposta (a cerveja ou o mesmo erro) sem movimentar o
+ * estoque de novo, e as que chegam enquanto a primeira ainda executa
+ * esperam por ela até cervejaria.idempotencia.espera, e depois recebem 409.
+ * As repetições na mesma instância são respondidas por um cache em memória,
+ * limitado por tamanho e por tempo desde a primeira execução. Falhas
+ * inesperadas não ficam registradas, para que a nova tentativa do cliente
+ * execute.
+ * <p>
+ * Por padrão as chaves ficam só nesse cache, sem nenhum acesso ao banco além
+ * do próprio movimento. Com cervejaria.idempotencia.persistente as chaves
+ * dos movimentos bem-sucedidos ficam também na tabela ChaveIdempotencia,
+ * cuja chave primária é a própria Idempotency-Key, de forma que sobrevivem
+ * a um reinício e valem entre instâncias, ao custo de uma inserção e uma
+ * atualização por chave nova.
+ */
+@Slf4j
+@Component
+public class EstoqueIdempotente {
+
+    private static final String NOME_CACHE = "cervejas.idempotencia";
+
+    private final CervejaService cervejaService;
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ModoEstoque modo;
+    private final boolean persistente;
+    private final Duration expiracao;
+    private final Duration espera;
+    private final Cache<String, Execucao> execucoes;
+
+    @Autowired
+    public EstoqueIdempotente(CervejaService cervejaService,
+                              ChaveIdempotenciaRepository chaveIdempotenciaRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${cervejaria.estoque.modo:sincrono}") ModoEstoque modo,
+                              @Value("${cervejaria.idempotencia.persistente:false}") boolean persistente,
+                              @Value("${cervejaria.idempotencia.tamanho-maximo:100000}") long tamanhoMaximo,
+                              @Value("${cervejaria.idempotencia.expiracao:24h}") Duration expiracao,
+                              @Value("${cervejaria.idempotencia.espera:10s}") Duration espera) {
+        this.cervejaService = cervejaService;
+        this.chaveIdempotenciaRepository = chaveIdempotenciaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.modo = modo;
+        this.persistente = persistente;
+        this.expiracao = expiracao;
+        this.espera = espera;
+        this.execucoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoDesdeCriacao(expiracao))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, execucoes, NOME_CACHE);
+    }
+
+    @Scheduled(fixedDelayString = "${cervejaria.idempotencia.limpeza:60000}")
+    public void removerExpiradas() {
+        if (!persistente) {
+            return;
+        }
+        Integer removidas = transactionTemplate.execute(status ->
+                chaveIdempotenciaRepository.removerCriadasAntes(Instant.now().minus(expiracao)));
+        if (removidas != null && removidas > 0) {
+            log.debug("{} chaves de idempotência expiradas removidas", removidas);
+        }
+    }
+
+    public CervejaDTO incrementar(String chave, Long id, int quantidade) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        return executar(chave, "incremento:" + id + ":" + quantidade, () -> cervejaService.incrementar(id, quantidade));
+    }
+
+    public CervejaDTO decrementar(String chave, Long id, int quantidade) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        return executar(chave, "decremento:" + id + ":" + quantidade, () -> cervejaService.decrementar(id, quantidade));
+    }
+
+    private CervejaDTO executar(String chave, String impressao, Movimento movimento) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        Execucao nova = new Execucao(impressao, Instant.now());
+        Execucao existente = execucoes.asMap().putIfAbsent(chave, nova);
+        if (existente != null) {
+            if (!existente.impressao.equals(impressao)) {
+                throw new ChaveIdempotenciaReutilizadaException(chave);
+            }
+            return existente.aguardar(chave, espera);
+        }
+        try {
+            CervejaDTO cervejaDTO = persistente ? registrar(chave, nova, movimento) : movimento.executar();
+            nova.resultado.complete(cervejaDTO);
+            return cervejaDTO;
+        } catch (CervejaNaoEncontradaException | CervejaEstoqueExcedidoException e) {
+            nova.resultado.completeExceptionally(e);
+            throw e;
+        } catch (ChaveIdempotenciaReutilizadaException | ChaveIdempotenciaEmUsoException | RuntimeException e) {
+            execucoes.asMap().remove(chave, nova);
+            nova.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * No modo síncrono a chave é inserida na mesma transação do movimento:
+     * sem commit não ficam nem o movimento nem a chave, e uma inserção
+     * concorrente da mesma chave espera por essa transação e é recusada pela
+     * chave primária. Nos outros modos o movimento é gravado fora desta
+     * transação, então a chave é confirmada antes dele, sem resposta, e a
+     * recebe depois; se o movimento for recusado ou falhar, a chave é
+     * removida.
+     */
+    private CervejaDTO registrar(String chave, Execucao execucao, Movimento movimento) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        ChaveIdempotencia registro = new ChaveIdempotencia(chave, execucao.impressao, execucao.criadaEm, null, null);
+        try {
+            if (modo == ModoEstoque.SINCRONO) {
+                return emTransacao(() -> {
+                    chaveIdempotenciaRepository.saveAndFlush(registro);
+                    return concluir(chave, movimento.executar());
+                });
+            }
+            emTransacao(() -> {
+                chaveIdempotenciaRepository.saveAndFlush(registro);
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return respostaRegistrada(chave, execucao.impressao);
+        }
+        CervejaDTO cervejaDTO;
+        try {
+            cervejaDTO = movimento.executar();
+        } catch (CervejaNaoEncontradaException | CervejaEstoqueExcedidoException | RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> chaveIdempotenciaRepository.deleteById(chave));
+            throw e;
+        }
+        return emTransacao(() -> concluir(chave, cervejaDTO));
+    }
+
+    private CervejaDTO concluir(String chave, CervejaDTO cervejaDTO) {
+        try {
+            String resposta = objectMapper.writeValueAsString(cervejaDTO);
+            chaveIdempotenciaRepository.findById(chave).ifPresent(registro -> registro.setResposta(resposta));
+            return cervejaDTO;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A chave já estava na tabela, gravada antes de um reinício ou por outra
+     * instância.
+     */
+    private CervejaDTO respostaRegistrada(String chave, String impressao) throws ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+        ChaveIdempotencia registro = chaveIdempotenciaRepository.findById(chave)
+                .orElseThrow(() -> new ChaveIdempotenciaEmUsoException(chave));
+        if (!registro.getImpressao().equals(impressao)) {
+            throw new ChaveIdempotenciaReutilizadaException(chave);
+        }
+        if (registro.getResposta() == null) {
+            throw new ChaveIdempotenciaEmUsoException(chave);
+        }
+        try {
+            return objectMapper.readValue(registro.getResposta(), CervejaDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CervejaDTO emTransacao(Movimento movimento) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return movimento.executar();
+                } catch (CervejaNaoEncontradaException | CervejaEstoqueExcedidoException e) {
+                    throw new MovimentoRecusado(e);
+                }
+            });
+        } catch (MovimentoRecusado e) {
+            if (e.getCause() instanceof CervejaNaoEncontradaException) {
+                throw (CervejaNaoEncontradaException) e.getCause();
+            }
+            throw (CervejaEstoqueExcedidoException) e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Movimento {
+        CervejaDTO executar() throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException;
+    }
+
+    /**
+     * Leva a recusa do movimento para fora do TransactionTemplate, desfazendo
+     * a transação.
+     */
+    private static class MovimentoRecusado extends RuntimeException {
+
+        private MovimentoRecusado(Exception causa) {
+            super(causa);
+        }
+    }
+
+    private static class Execucao {
+
+        private final String impressao;
+        private final Instant criadaEm;
+        private final CompletableFuture<CervejaDTO> resultado = new CompletableFuture<>();
+
+        private Execucao(String impressao, Instant criadaEm) {
+            this.impressao = impressao;
+            this.criadaEm = criadaEm;
+        }
+
+        private CervejaDTO aguardar(String chave, Duration espera) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ChaveIdempotenciaReutilizadaException, ChaveIdempotenciaEmUsoException {
+            try {
+                return resultado.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new ChaveIdempotenciaEmUsoException(chave);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                if (causa instanceof CervejaNaoEncontradaException) {
+                    throw (CervejaNaoEncontradaException) causa;
+                }
+                if (causa instanceof CervejaEstoqueExcedidoException) {
+                    throw (CervejaEstoqueExcedidoException) causa;
+                }
+                if (causa instanceof ChaveIdempotenciaReutilizadaException) {
+                    throw (ChaveIdempotenciaReutilizadaException) causa;
+                }
+                if (causa instanceof ChaveIdempotenciaEmUsoException) {
+                    throw (ChaveIdempotenciaEmUsoException) causa;
+                }
+                if (causa instanceof RuntimeException) {
+                    throw (RuntimeException) causa;
+                }
+                throw new IllegalStateException(causa);
+            }
+        }
+    }
+
+    /**
+     * O prazo conta da primeira execução; leituras e repetições não o
+     * renovam.
+     */
+    private static class ExpiracaoDesdeCriacao implements Expiry<String, Execucao> {
+
+        private final Duration expiracao;
+
+        private ExpiracaoDesdeCriacao(Duration expiracao) {
+            this.expiracao = expiracao;
+        }
+
+        @Override
+        public long expireAfterCreate(String chave, Execucao execucao, long agora) {
+            Duration restante = expiracao.minus(Duration.between(execucao.criadaEm, Instant.now()));
+            return Math.max(0L, restante.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, Execucao execucao, long agora, long duracaoAtual) {
+            return expireAfterCreate(chave, execucao, agora);
+        }
+
+        @Override
+        public long expireAfterRead(String chave, Execucao execucao, long agora, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+
+}
@@ -0,0 +1,364 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.entity.DescargaEstoque;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.DescargaEstoqueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Modo write-behind do estoque (cervejaria.estoque.modo=write-behind).
+ * <p>
+ * Cada movimento é validado contra o saldo e o máximo mantidos em memória e
+ * gravado em um diário local antes de ser aceito. Periodicamente o diário é
+ * rotacionado e o saldo líquido de cada cerveja vai ao banco em um único
+ * batch. Cada diário rotacionado recebe um número de sequência, e a maior
+ * sequência descarregada é gravada no banco na mesma transação dos saldos.
+ * Se o processo cair, os diários ainda presentes são reaplicados na
+ * inicialização, exceto os de sequência já gravada: uma queda entre o
+ * commit e a remoção do diário não aplica o mesmo intervalo duas vezes.
+ */
+@Slf4j
+@Component
+public class EstoqueWriteBehind {
+
+    private static final String SEPARADOR = ";";
+
+    private final CervejaRepository cervejaRepository;
+    private final DescargaEstoqueRepository descargaEstoqueRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+    private final boolean ativo;
+    private final boolean sincronizarDisco;
+    private final Path diario;
+
+    private final ConcurrentMap<Long, SaldoEstoque> saldos = new ConcurrentHashMap<>();
+    private final ReadWriteLock travaDescarga = new ReentrantReadWriteLock();
+    private final Object travaDiario = new Object();
+    private final List<Path> diariosRotacionados = new ArrayList<>();
+    private FileChannel canalDiario;
+    private long sequenciaRotacao;
+
+    public EstoqueWriteBehind(CervejaRepository cervejaRepository,
+                              DescargaEstoqueRepository descargaEstoqueRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${cervejaria.estoque.modo:sincrono}") ModoEstoque modo,
+                              @Value("${cervejaria.estoque.write-behind.diario:estoque-write-behind.log}") String diario,
+                              @Value("${cervejaria.estoque.write-behind.sincronizar-disco:true}") boolean sincronizarDisco) {
+        this.cervejaRepository = cervejaRepository;
+        this.descargaEstoqueRepository = descargaEstoqueRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ativo = modo == ModoEstoque.WRITE_BEHIND;
+        this.diario = Paths.get(diario).toAbsolutePath();
+        this.sincronizarDisco = sincronizarDisco;
+    }
+
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        if (!ativo) {
+            return;
+        }
+        Files.createDirectories(diario.getParent());
+        recuperarDiarios();
+        canalDiario = abrirDiario();
+    }
+
+    public CervejaDTO movimentar(Long id, int quantidade, int quantidadeInformada) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+        SaldoEstoque saldo = carregarSaldo(id);
+        travaDescarga.readLock().lock();
+        try {
+            synchronized (saldo) {
+                if (saldo.descartado) {
+                    throw new CervejaNaoEncontradaException(id);
+                }
+                int novaQuantidade = saldo.cerveja.getQuantidade() + quantidade;
+                if (novaQuantidade < 0 || novaQuantidade + saldo.cerveja.getReservada() > saldo.cerveja.getMaximo()) {
+                    throw new CervejaEstoqueExcedidoException(id, quantidadeInformada);
+                }
+                registrarNoDiario(id, quantidade);
+                saldo.cerveja.setQuantidade(novaQuantidade);
+                saldo.cerveja.setVersao(saldo.cerveja.getVersao() == null ? 1L : saldo.cerveja.getVersao() + 1);
+                saldo.pendente += quantidade;
+                return cervejaMapper.toDTO(saldo.cerveja);
+            }
+        } finally {
+            travaDescarga.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estado visto pelo modo write-behind, ainda não necessariamente gravado
+     * no banco. A versão em memória avança a cada movimento, enquanto a do
+     * banco avança uma vez por descarga; por isso prevalece a de memória.
+     */
+    public Optional<CervejaDTO> estadoAtual(Long id) {
+        SaldoEstoque saldo = saldos.get(id);
+        if (saldo == null) {
+            return Optional.empty();
+        }
+        synchronized (saldo) {
+            return saldo.descartado ? Optional.empty() : Optional.of(cervejaMapper.toDTO(saldo.cerveja));
+        }
+    }
+
+    /**
+     * Os movimentos ainda não descarregados de uma cerveja só são
+     * descartados depois que a exclusão dela é confirmada; se a exclusão
+     * for desfeita, eles continuam pendentes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void atualizar(CervejaEvento evento) {
+        if (evento.getTipo() == CervejaEventoTipo.REMOVIDA) {
+            descartar(evento.getCerveja().getId());
+        }
+    }
+
+    public void descartar(Long id) {
+        SaldoEstoque saldo = saldos.remove(id);
+        if (saldo != null) {
+            synchronized (saldo) {
+                saldo.descartado = true;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cervejaria.estoque.write-behind.intervalo:1000}")
+    public synchronized void descarregar() {
+        if (!ativo) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        List<Path> diariosDescarregados;
+        long sequencia;
+        travaDescarga.writeLock().lock();
+        try {
+            saldos.forEach((id, saldo) -> {
+                synchronized (saldo) {
+                    if (saldo.pendente != 0) {
+                        deltas.put(id, saldo.pendente);
+                        saldo.pendente = 0;
+                    }
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+            diariosDescarregados = rotacionarDiario();
+            sequencia = sequenciaRotacao;
+        } finally {
+            travaDescarga.writeLock().unlock();
+        }
+
+        try {
+            aplicarNoBanco(deltas, sequencia);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao descarregar {} saldos de estoque; nova tentativa no próximo ciclo", deltas.size(), e);
+            devolverPendentes(deltas);
+            return;
+        }
+        synchronized (travaDiario) {
+            diariosRotacionados.removeAll(diariosDescarregados);
+        }
+        diariosDescarregados.forEach(this::apagar);
+    }
+
+    @PreDestroy
+    public void encerrar() throws IOException {
+        if (!ativo) {
+            return;
+        }
+        descarregar();
+        synchronized (travaDiario) {
+            canalDiario.close();
+        }
+    }
+
+    private SaldoEstoque carregarSaldo(Long id) throws CervejaNaoEncontradaException {
+        SaldoEstoque saldo = saldos.get(id);
+        if (saldo != null) {
+            return saldo;
+        }
+        Cerveja cerveja = cervejaRepository.findById(id)
+                .orElseThrow(() -> new CervejaNaoEncontradaException(id));
+        SaldoEstoque existente = saldos.putIfAbsent(id, new SaldoEstoque(cerveja));
+        return existente != null ? existente : saldos.get(id);
+    }
+
+    private void registrarNoDiario(Long id, int quantidade) {
+        byte[] linha = (id + SEPARADOR + quantidade + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (travaDiario) {
+            try {
+                canalDiario.write(ByteBuffer.wrap(linha));
+                if (sincronizarDisco) {
+                    canalDiario.force(false);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private List<Path> rotacionarDiario() {
+        synchronized (travaDiario) {
+            try {
+                canalDiario.close();
+                Path rotacionado = segmento(++sequenciaRotacao);
+                Files.move(diario, rotacionado);
+                diariosRotacionados.add(rotacionado);
+                canalDiario = abrirDiario();
+                return new ArrayList<>(diariosRotacionados);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void devolverPendentes(Map<Long, Integer> deltas) {
+        travaDescarga.readLock().lock();
+        try {
+            deltas.forEach((id, quantidade) -> {
+                SaldoEstoque saldo = saldos.get(id);
+                if (saldo != null) {
+                    synchronized (saldo) {
+                        saldo.pendente += quantidade;
+                    }
+                }
+            });
+        } finally {
+            travaDescarga.readLock().unlock();
+        }
+    }
+
+    /**
+     * Os saldos e a sequência do último diário que eles cobrem vão ao banco
+     * na mesma transação.
+     */
+    private void aplicarNoBanco(Map<Long, Integer> deltas, long sequencia) {
+        transactionTemplate.executeWithoutResult(status -> {
+            cervejaRepository.aplicarDeltasEstoque(deltas);
+            descargaEstoqueRepository.save(new DescargaEstoque(nomeDiario(), sequencia));
+        });
+    }
+
+    /**
+     * O diário ativo deixado pela execução anterior é rotacionado como os
+     * demais antes da reaplicação, para também ganhar uma sequência.
+     */
+    private void recuperarDiarios() throws IOException {
+        long aplicada = descargaEstoqueRepository.findById(nomeDiario())
+                .map(DescargaEstoque::getSequencia)
+                .orElse(0L);
+        TreeMap<Long, Path> segmentos = listarSegmentos();
+        sequenciaRotacao = Math.max(aplicada, segmentos.isEmpty() ? 0L : segmentos.lastKey());
+        if (Files.exists(diario)) {
+            Path rotacionado = segmento(++sequenciaRotacao);
+            Files.move(diario, rotacionado);
+            segmentos.put(sequenciaRotacao, rotacionado);
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        int reaplicados = 0;
+        for (Map.Entry<Long, Path> segmento : segmentos.tailMap(aplicada, false).entrySet()) {
+            reaplicados++;
+            for (String linha : Files.readAllLines(segmento.getValue(), StandardCharsets.UTF_8)) {
+                String[] campos = linha.split(SEPARADOR);
+                if (campos.length == 2) {
+                    deltas.merge(Long.valueOf(campos[0]), Integer.valueOf(campos[1]), Integer::sum);
+                }
+            }
+        }
+        if (!deltas.isEmpty()) {
+            log.info("Reaplicando {} saldos de estoque encontrados em {} diários", deltas.size(), reaplicados);
+            aplicarNoBanco(deltas, sequenciaRotacao);
+        }
+        if (segmentos.size() > reaplicados) {
+            log.info("{} diários já aplicados ao banco descartados sem reaplicar", segmentos.size() - reaplicados);
+        }
+        segmentos.values().forEach(this::apagar);
+    }
+
+    private TreeMap<Long, Path> listarSegmentos() throws IOException {
+        String prefixo = nomeDiario() + ".";
+        TreeMap<Long, Path> segmentos = new TreeMap<>();
+        try (Stream<Path> arquivos = Files.list(diario.getParent())) {
+            arquivos.forEach(arquivo -> {
+                String nome = arquivo.getFileName().toString();
+                if (nome.startsWith(prefixo) && nome.substring(prefixo.length()).matches("\\d+")) {
+                    segmentos.put(Long.valueOf(nome.substring(prefixo.length())), arquivo);
+                }
+            });
+        }
+        return segmentos;
+    }
+
+    private Path segmento(long sequencia) {
+        return diario.resolveSibling(nomeDiario() + "." + sequencia);
+    }
+
+    private String nomeDiario() {
+        return diario.getFileName().toString();
+    }
+
+    private FileChannel abrirDiario() throws IOException {
+        return FileChannel.open(diario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover o diário {}", arquivo, e);
+        }
+    }
+
+    private static class SaldoEstoque {
+
+        private final Cerveja cerveja;
+        private int pendente;
+        private boolean descartado;
+
+        private SaldoEstoque(Cerveja cerveja) {
+            this.cerveja = cerveja;
+        }
+    }
+
+}
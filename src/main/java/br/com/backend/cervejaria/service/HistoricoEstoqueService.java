@@ -0,0 +1,145 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.dto.MovimentoEstoqueDTO;
+import br.com.backend.cervejaria.entity.MovimentoEstoque;
+import br.com.backend.cervejaria.mapper.MovimentoEstoqueMapper;
+import br.com.backend.cervejaria.repository.MovimentoEstoqueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.stream.Collectors;
+
+/**
+ * Histórico append-only dos movimentos de estoque.
+ * <p>
+ * Os movimentos entram em uma fila em memória e são gravados em lote por
+ * uma tarefa periódica: um saveAll por ciclo, com ids reservados de 50 em
+ * 50 pela sequence e inserts agrupados pelo hibernate.jdbc.batch_size.
+ * Um lote que falha é tentado de novo com espera crescente e, se continuar
+ * falhando, volta para o início da fila para o próximo ciclo. Só a tarefa
+ * periódica grava; com a fila cheia, o movimento é descartado e contado em
+ * cervejaria.historico.descartados, sem atrasar o movimento de estoque.
+ * Movimentos ainda na fila durante uma queda abrupta do processo não chegam
+ * ao histórico.
+ */
+@Slf4j
+@Service
+public class HistoricoEstoqueService {
+
+    private static final int LIMITE_CONSULTA = 1000;
+
+    private final MovimentoEstoqueRepository movimentoEstoqueRepository;
+    private final MovimentoEstoqueMapper movimentoEstoqueMapper = MovimentoEstoqueMapper.INSTANCE;
+    private final BlockingDeque<MovimentoEstoque> pendentes;
+    private final int tamanhoLote;
+    private final int tentativas;
+    private final Duration espera;
+    private final Counter descartados;
+
+    public HistoricoEstoqueService(MovimentoEstoqueRepository movimentoEstoqueRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cervejaria.historico.capacidade-fila:100000}") int capacidadeFila,
+                                   @Value("${cervejaria.historico.tamanho-lote:500}") int tamanhoLote,
+                                   @Value("${cervejaria.historico.tentativas:3}") int tentativas,
+                                   @Value("${cervejaria.historico.espera:100ms}") Duration espera) {
+        this.movimentoEstoqueRepository = movimentoEstoqueRepository;
+        this.pendentes = new LinkedBlockingDeque<>(capacidadeFila);
+        this.tamanhoLote = tamanhoLote;
+        this.tentativas = tentativas;
+        this.espera = espera;
+        this.descartados = Counter.builder("cervejaria.historico.descartados")
+                .description("Movimentos de estoque descartados com a fila do histórico cheia")
+                .register(meterRegistry);
+    }
+
+    public void registrar(Long cervejaId, int quantidade) {
+        if (!pendentes.offer(new MovimentoEstoque(null, cervejaId, quantidade, Instant.now()))) {
+            descartados.increment();
+        }
+    }
+
+    public List<MovimentoEstoqueDTO> consultar(Long cervejaId, Instant de, Instant ate) {
+        return movimentoEstoqueRepository.findByCervejaIdAndRegistradoEmBetweenOrderByRegistradoEmAsc(cervejaId, de, ate, PageRequest.of(0, LIMITE_CONSULTA))
+                .stream()
+                .map(movimentoEstoqueMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${cervejaria.historico.intervalo:200}")
+    public void descarregar() {
+        descarregarLotes();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (!descarregarLotes()) {
+            log.error("Histórico de estoque encerrado com {} movimentos não gravados", pendentes.size());
+        }
+    }
+
+    /**
+     * Devolve false quando um lote não pôde ser gravado e voltou para a fila.
+     */
+    private synchronized boolean descarregarLotes() {
+        List<MovimentoEstoque> lote = new ArrayList<>(tamanhoLote);
+        while (pendentes.drainTo(lote, tamanhoLote) > 0) {
+            if (!gravar(lote)) {
+                devolver(lote);
+                return false;
+            }
+            lote.clear();
+        }
+        return true;
+    }
+
+    private boolean gravar(List<MovimentoEstoque> lote) {
+        long esperaMillis = espera.toMillis();
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                movimentoEstoqueRepository.saveAll(lote);
+                return true;
+            } catch (RuntimeException e) {
+                lote.forEach(movimento -> movimento.setId(null));
+                if (tentativa >= tentativas) {
+                    log.error("Falha ao gravar {} movimentos no histórico de estoque após {} tentativas", lote.size(), tentativa, e);
+                    return false;
+                }
+                log.warn("Falha ao gravar {} movimentos no histórico de estoque; nova tentativa em {} ms", lote.size(), esperaMillis, e);
+            }
+            try {
+                Thread.sleep(esperaMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            esperaMillis *= 2;
+        }
+    }
+
+    private void devolver(List<MovimentoEstoque> lote) {
+        int descartados = 0;
+        for (ListIterator<MovimentoEstoque> movimentos = lote.listIterator(lote.size()); movimentos.hasPrevious(); ) {
+            if (!pendentes.offerFirst(movimentos.previous())) {
+                descartados++;
+            }
+        }
+        if (descartados > 0) {
+            this.descartados.increment(descartados);
+            log.error("Fila do histórico de estoque cheia; {} movimentos descartados", descartados);
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.agendamento.RodaTemporizacao;
+import br.com.backend.cervejaria.agendamento.RodaTemporizacao.Temporizador;
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.dto.ReservaRequisicaoDTO;
+import br.com.backend.cervejaria.entity.ReservaEstoque;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.ReservaEncerradaException;
+import br.com.backend.cervejaria.exception.ReservaIndisponivelException;
+import br.com.backend.cervejaria.exception.ReservaNaoEncontradaException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.mapper.ReservaEstoqueMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.ReservaEstoqueRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reservas de estoque com prazo.
+ * <p>
+ * Reservar passa unidades da quantidade disponível da cerveja para a
+ * reservada, de forma que decrementos e novas reservas já não as enxergam.
+ * Confirmar retira as unidades reservadas do estoque; cancelar, ou deixar o
+ * prazo passar, devolve-as à quantidade disponível. Os prazos ficam em uma
+ * roda de temporização em memória, avançada a cada
+ * cervejaria.reserva.tique milissegundos, e as reservas vencidas em um
+ * mesmo tique são expiradas juntas, em lotes de uma transação cada. Na
+ * inicialização as reservas abertas são relidas do banco e voltam à roda.
+ * <p>
+ * No modo write-behind o saldo em memória não enxerga a coluna reservada,
+ * então as reservas são recusadas.
+ */
+@Slf4j
+@Service
+public class ReservaEstoqueService {
+
+    private static final int TAMANHO_LOTE_EXPIRACAO = 500;
+
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
+    private final CervejaRepository cervejaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservaEstoqueMapper reservaEstoqueMapper = ReservaEstoqueMapper.INSTANCE;
+    private final CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+    private final ModoEstoque modo;
+    private final Duration expiracao;
+    private final long tique;
+    private final RodaTemporizacao<Long> roda;
+
+    private final ConcurrentMap<Long, Temporizador<Long>> temporizadores = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReservaEstoqueService(ReservaEstoqueRepository reservaEstoqueRepository,
+                                 CervejaRepository cervejaRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cervejaria.estoque.modo:sincrono}") ModoEstoque modo,
+                                 @Value("${cervejaria.reserva.expiracao:15m}") Duration expiracao,
+                                 @Value("${cervejaria.reserva.tique:1000}") long tique,
+                                 @Value("${cervejaria.reserva.posicoes:4096}") int posicoes) {
+        this.reservaEstoqueRepository = reservaEstoqueRepository;
+        this.cervejaRepository = cervejaRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.modo = modo;
+        this.expiracao = expiracao;
+        this.tique = tique;
+        this.roda = new RodaTemporizacao<>(tique, posicoes, Instant.now().toEpochMilli());
+        Gauge.builder("cervejaria.reservas.abertas", roda, RodaTemporizacao::getPendentes)
+                .description("Reservas de estoque aguardando confirmação ou expiração")
+                .register(meterRegistry);
+    }
+
+    /**
+     * No modo write-behind o estoque em memória é a fonte da verdade e as
+     * reservas não mexem nele; nada é carregado nem expirado.
+     */
+    @PostConstruct
+    public void carregar() {
+        if (modo == ModoEstoque.WRITE_BEHIND) {
+            log.info("Reservas de estoque desativadas no modo {}", modo.getDescricao());
+            return;
+        }
+        List<ReservaEstoque> abertas = reservaEstoqueRepository.findByStatus(ReservaStatus.ABERTA);
+        abertas.forEach(this::agendar);
+        log.info("{} reservas de estoque abertas carregadas", abertas.size());
+    }
+
+    public ReservaDTO reservar(Long cervejaId, ReservaRequisicaoDTO requisicao) throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException, ReservaIndisponivelException {
+        verificarModo();
+        int quantidade = requisicao.getQuantidade();
+        Instant agora = Instant.now();
+        Instant expiraEm = agora.plus(requisicao.getExpiracaoSegundos() != null ? Duration.ofSeconds(requisicao.getExpiracaoSegundos()) : expiracao);
+        ReservaEstoque reserva = transactionTemplate.execute(status -> {
+            if (cervejaRepository.reservarEstoque(cervejaId, quantidade) == 0) {
+                return null;
+            }
+            return reservaEstoqueRepository.save(new ReservaEstoque(null, cervejaId, quantidade, ReservaStatus.ABERTA, agora, expiraEm));
+        });
+        if (reserva == null) {
+            cervejaRepository.findById(cervejaId).orElseThrow(() -> new CervejaNaoEncontradaException(cervejaId));
+            throw new CervejaEstoqueExcedidoException(cervejaId, quantidade);
+        }
+        agendar(reserva);
+        publicarEstoqueAlterado(Set.of(cervejaId));
+        return reservaEstoqueMapper.toDTO(reserva);
+    }
+
+    public ReservaDTO consultar(Long id) throws ReservaNaoEncontradaException {
+        return reservaEstoqueMapper.toDTO(verificarSeExiste(id));
+    }
+
+    public ReservaDTO confirmar(Long id) throws ReservaNaoEncontradaException, ReservaEncerradaException, ReservaIndisponivelException {
+        verificarModo();
+        return encerrar(id, ReservaStatus.CONFIRMADA);
+    }
+
+    public ReservaDTO cancelar(Long id) throws ReservaNaoEncontradaException, ReservaEncerradaException, ReservaIndisponivelException {
+        verificarModo();
+        return encerrar(id, ReservaStatus.CANCELADA);
+    }
+
+    /**
+     * Expira as reservas cujo prazo venceu até agora. Um lote que falha
+     * volta para a roda e é tentado de novo no tique seguinte.
+     */
+    @Scheduled(fixedDelayString = "${cervejaria.reserva.tique:1000}")
+    public void expirarVencidas() {
+        if (modo == ModoEstoque.WRITE_BEHIND) {
+            return;
+        }
+        long agora = Instant.now().toEpochMilli();
+        List<Long> vencidas = roda.avancar(agora);
+        for (int inicio = 0; inicio < vencidas.size(); inicio += TAMANHO_LOTE_EXPIRACAO) {
+            List<Long> lote = vencidas.subList(inicio, Math.min(inicio + TAMANHO_LOTE_EXPIRACAO, vencidas.size()));
+            lote.forEach(temporizadores::remove);
+            try {
+                expirar(lote);
+            } catch (RuntimeException e) {
+                log.error("Falha ao expirar {} reservas de estoque", lote.size(), e);
+                lote.forEach(id -> temporizadores.put(id, roda.agendar(id, agora + tique)));
+            }
+        }
+    }
+
+    /**
+     * A reserva só muda de status se ainda estiver aberta e no prazo, e a
+     * cerveja é ajustada na mesma transação. Repetir a mesma operação
+     * devolve a reserva sem movimentar o estoque de novo; uma reserva com o
+     * prazo vencido, mesmo que a roda ainda não a tenha expirado, é tratada
+     * como expirada.
+     */
+    private ReservaDTO encerrar(Long id, ReservaStatus novoStatus) throws ReservaNaoEncontradaException, ReservaEncerradaException {
+        ReservaEstoque encerrada = transactionTemplate.execute(status -> {
+            List<ReservaEstoque> abertas = reservaEstoqueRepository.travarPorIdsEStatus(List.of(id), ReservaStatus.ABERTA);
+            if (abertas.isEmpty() || !abertas.get(0).getExpiraEm().isAfter(Instant.now())) {
+                return null;
+            }
+            ReservaEstoque reserva = abertas.get(0);
+            reserva.setStatus(novoStatus);
+            if (novoStatus == ReservaStatus.CONFIRMADA) {
+                cervejaRepository.baixarReserva(reserva.getCervejaId(), reserva.getQuantidade());
+            } else {
+                cervejaRepository.liberarReservas(Map.of(reserva.getCervejaId(), reserva.getQuantidade()));
+            }
+            return reserva;
+        });
+        if (encerrada == null) {
+            ReservaEstoque reserva = verificarSeExiste(id);
+            if (reserva.getStatus() == novoStatus) {
+                return reservaEstoqueMapper.toDTO(reserva);
+            }
+            throw new ReservaEncerradaException(id, reserva.getStatus() == ReservaStatus.ABERTA ? ReservaStatus.EXPIRADA : reserva.getStatus());
+        }
+        Temporizador<Long> temporizador = temporizadores.remove(id);
+        if (temporizador != null) {
+            temporizador.cancelar();
+        }
+        publicarEstoqueAlterado(Set.of(encerrada.getCervejaId()));
+        return reservaEstoqueMapper.toDTO(encerrada);
+    }
+
+    /**
+     * Trava as reservas do lote que ainda estão abertas, marca-as como
+     * expiradas e devolve as unidades com um UPDATE por cerveja, em ordem de
+     * id, como no movimento em lote.
+     */
+    private void expirar(Collection<Long> ids) {
+        Map<Long, Integer> liberadas = transactionTemplate.execute(status -> {
+            Map<Long, Integer> quantidades = new TreeMap<>();
+            for (ReservaEstoque reserva : reservaEstoqueRepository.travarPorIdsEStatus(ids, ReservaStatus.ABERTA)) {
+                reserva.setStatus(ReservaStatus.EXPIRADA);
+                quantidades.merge(reserva.getCervejaId(), reserva.getQuantidade(), Integer::sum);
+            }
+            if (!quantidades.isEmpty()) {
+                cervejaRepository.liberarReservas(quantidades);
+            }
+            return quantidades;
+        });
+        publicarEstoqueAlterado(liberadas.keySet());
+    }
+
+    private void verificarModo() throws ReservaIndisponivelException {
+        if (modo == ModoEstoque.WRITE_BEHIND) {
+            throw new ReservaIndisponivelException(modo);
+        }
+    }
+
+    private void agendar(ReservaEstoque reserva) {
+        temporizadores.put(reserva.getId(), roda.agendar(reserva.getId(), reserva.getExpiraEm().toEpochMilli()));
+    }
+
+    private void publicarEstoqueAlterado(Set<Long> cervejaIds) {
+        if (cervejaIds.isEmpty()) {
+            return;
+        }
+        cervejaRepository.findAllById(cervejaIds).forEach(cerveja ->
+                eventPublisher.publishEvent(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cervejaMapper.toDTO(cerveja))));
+    }
+
+    private ReservaEstoque verificarSeExiste(Long id) throws ReservaNaoEncontradaException {
+        return reservaEstoqueRepository.findById(id)
+                .orElseThrow(() -> new ReservaNaoEncontradaException(id));
+    }
+
+}
@@ -0,0 +1,92 @@
+package br.com.backend.cervejaria.agendamento;
+
+import br.com.backend.cervejaria.agendamento.RodaTemporizacao.Temporizador;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class RodaTemporizacaoTest {
+
+    private static final long INICIO = 1_000_000L;
+
+    @Test
+    void quandoPrazoNaoChegouEntaoNadaVence() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(100, 8, INICIO);
+        roda.agendar("pedido", INICIO + 250);
+
+        assertThat(roda.avancar(INICIO + 249), is(empty()));
+        assertThat(roda.avancar(INICIO + 299), is(empty()));
+        assertThat(roda.avancar(INICIO + 300), contains("pedido"));
+        assertThat(roda.avancar(INICIO + 1_000), is(empty()));
+        assertThat(roda.getPendentes(), is(equalTo(0L)));
+    }
+
+    @Test
+    void quandoPrazoAlemDeUmaVoltaEntaoVenceSoNaVoltaCerta() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(100, 4, INICIO);
+        roda.agendar("curto", INICIO + 200);
+        roda.agendar("longo", INICIO + 200 + 3 * 400);
+
+        assertThat(roda.avancar(INICIO + 200), contains("curto"));
+        for (long agora = INICIO + 300; agora < INICIO + 1_400; agora += 100) {
+            assertThat(roda.avancar(agora), is(empty()));
+        }
+        assertThat(roda.avancar(INICIO + 1_400), contains("longo"));
+    }
+
+    @Test
+    void quandoAvancoAtrasadoEntaoVencidosDeTodosOsTiquesEntreguesEmOrdem() {
+        RodaTemporizacao<Integer> roda = new RodaTemporizacao<>(10, 16, INICIO);
+        List<Integer> esperados = new ArrayList<>();
+        for (int i = 50; i > 0; i--) {
+            roda.agendar(i, INICIO + i * 10L);
+            esperados.add(0, i);
+        }
+
+        assertThat(roda.avancar(INICIO + 10_000), is(equalTo(esperados)));
+    }
+
+    @Test
+    void quandoPrazoJaPassouEntaoVenceNoProximoAvanco() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(100, 8, INICIO);
+        roda.avancar(INICIO + 500);
+        roda.agendar("atrasado", INICIO + 100);
+
+        assertThat(roda.avancar(INICIO + 550), is(empty()));
+        assertThat(roda.avancar(INICIO + 600), contains("atrasado"));
+    }
+
+    @Test
+    void quandoCanceladoEntaoNaoVence() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(100, 8, INICIO);
+        Temporizador<String> cancelado = roda.agendar("cancelado", INICIO + 100);
+        roda.agendar("mantido", INICIO + 100);
+        Temporizador<String> distribuido = roda.agendar("distribuido", INICIO + 300);
+        roda.avancar(INICIO);
+
+        assertThat(cancelado.cancelar(), is(true));
+        assertThat(distribuido.cancelar(), is(true));
+        assertThat(cancelado.cancelar(), is(false));
+        assertThat(roda.getPendentes(), is(equalTo(1L)));
+        assertThat(roda.avancar(INICIO + 1_000), contains("mantido"));
+        assertThat(roda.getPendentes(), is(equalTo(0L)));
+    }
+
+    @Test
+    void quandoVencidoEntaoCancelarNaoTemEfeito() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(100, 8, INICIO);
+        Temporizador<String> temporizador = roda.agendar("pedido", INICIO + 100);
+        roda.avancar(INICIO + 100);
+
+        assertThat(temporizador.cancelar(), is(false));
+        assertThat(roda.getPendentes(), is(equalTo(0L)));
+    }
+
+}
@@ -22,16 +22,28 @@ public class CervejaDTOBuilder {
     @Builder.Default
     private int quantidade = 10;
 
+    @Builder.Default
+    private int reservada = 0;
+
     @Builder.Default
     private CervejaTipo tipo = CervejaTipo.BOCK;
 
+    @Builder.Default
+    private Integer minimo = null;
+
+    @Builder.Default
+    private Long versao = null;
+
     public CervejaDTO toCervejaDTO() {
         return new CervejaDTO(id,
                 nome,
                 marca,
                 maximo,
                 quantidade,
-                tipo);
+                reservada,
+                tipo,
+                minimo,
+                versao);
     }
 
 }
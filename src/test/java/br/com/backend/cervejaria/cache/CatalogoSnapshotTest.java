@@ -0,0 +1,148 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.service.CervejaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogoSnapshotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CervejaService cervejaService;
+
+    private CatalogoSnapshot catalogoSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        catalogoSnapshot = new CatalogoSnapshot(cervejaService, objectMapper, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void quandoLidoSemAlteracoesEntaoCatalogoCarregadoUmaVezEReaproveitado() throws IOException {
+        CervejaDTO cervejaDTO = cerveja(1L, 10, 0L);
+        carregarDoBanco(cervejaDTO);
+
+        byte[] primeira = catalogoSnapshot.atual().json();
+        byte[] segunda = catalogoSnapshot.atual().json();
+
+        assertThat(segunda, is(sameInstance(primeira)));
+        assertThat(ler(primeira), is(equalTo(new CervejaDTO[]{cervejaDTO})));
+        verify(cervejaService, times(1)).percorrerTudo(any());
+    }
+
+    @Test
+    void quandoEventosRecebidosEntaoSomenteVersaoMaisNovaPrevalece() throws IOException {
+        carregarDoBanco(cerveja(1L, 10, 0L), cerveja(2L, 5, 0L));
+        catalogoSnapshot.atual().json();
+
+        catalogoSnapshot.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 12, 2L)));
+        catalogoSnapshot.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 11, 1L)));
+        catalogoSnapshot.atualizar(new CervejaEvento(CervejaEventoTipo.CRIADA, cerveja(3L, 7, 0L)));
+
+        CervejaDTO[] catalogo = ler(catalogoSnapshot.atual().json());
+        assertThat(catalogo, is(arrayWithSize(3)));
+        assertThat(catalogo[0].getQuantidade(), is(equalTo(12)));
+        assertThat(catalogo[2].getId(), is(equalTo(3L)));
+    }
+
+    @Test
+    void quandoCervejaRemovidaEntaoEventoAtrasadoNaoARecria() throws IOException {
+        carregarDoBanco(cerveja(1L, 10, 0L));
+        catalogoSnapshot.atual().json();
+
+        catalogoSnapshot.atualizar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cerveja(1L, 10, 0L)));
+        catalogoSnapshot.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 9, 1L)));
+
+        assertThat(ler(catalogoSnapshot.atual().json()), is(arrayWithSize(0)));
+    }
+
+    @Test
+    void quandoGzipSolicitadoEntaoConteudoIgualAoJson() throws IOException {
+        carregarDoBanco(cerveja(1L, 10, 0L), cerveja(2L, 5, 0L));
+
+        byte[] json = catalogoSnapshot.atual().json();
+        try (GZIPInputStream descompactador = new GZIPInputStream(new ByteArrayInputStream(catalogoSnapshot.atual().gzip()))) {
+            assertThat(descompactador.readAllBytes(), is(equalTo(json)));
+        }
+    }
+
+    @Test
+    void quandoListenersIntercaladosEntaoETagAcompanhaOConteudo() throws IOException {
+        VersaoCatalogo versaoCatalogo = new VersaoCatalogo();
+        carregarDoBanco(cerveja(1L, 10, 0L));
+        CatalogoSnapshot.Conteudo inicial = catalogoSnapshot.atual();
+
+        CervejaEvento evento = new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 9, 1L));
+        versaoCatalogo.avancar(evento);
+        CatalogoSnapshot.Conteudo entreListeners = catalogoSnapshot.atual();
+        catalogoSnapshot.atualizar(evento);
+        CatalogoSnapshot.Conteudo posterior = catalogoSnapshot.atual();
+
+        assertThat(entreListeners.getEtag(), is(equalTo(inicial.getEtag())));
+        assertThat(ler(entreListeners.json())[0].getQuantidade(), is(equalTo(10)));
+        assertThat(posterior.getEtag(), is(not(equalTo(inicial.getEtag()))));
+        assertThat(ler(posterior.json())[0].getQuantidade(), is(equalTo(9)));
+
+        CervejaEvento seguinte = new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 8, 2L));
+        catalogoSnapshot.atualizar(seguinte);
+        CatalogoSnapshot.Conteudo antesDeAvancar = catalogoSnapshot.atual();
+        versaoCatalogo.avancar(seguinte);
+
+        assertThat(antesDeAvancar.getEtag(), is(not(equalTo(posterior.getEtag()))));
+        assertThat(ler(antesDeAvancar.json())[0].getQuantidade(), is(equalTo(8)));
+        assertThat(catalogoSnapshot.atual(), is(sameInstance(antesDeAvancar)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void carregarDoBanco(CervejaDTO... cervejas) {
+        doAnswer(invocacao -> {
+            Consumer<CervejaDTO> consumidor = invocacao.getArgument(0);
+            for (CervejaDTO cervejaDTO : cervejas) {
+                consumidor.accept(cervejaDTO);
+            }
+            return null;
+        }).when(cervejaService).percorrerTudo(any(Consumer.class));
+    }
+
+    private CervejaDTO[] ler(byte[] json) throws IOException {
+        return objectMapper.readValue(json, CervejaDTO[].class);
+    }
+
+    private static CervejaDTO cerveja(Long id, int quantidade, Long versao) {
+        return CervejaDTOBuilder.builder()
+                .id(id)
+                .nome("Cerveja " + id)
+                .quantidade(quantidade)
+                .versao(versao)
+                .build()
+                .toCervejaDTO();
+    }
+
+}
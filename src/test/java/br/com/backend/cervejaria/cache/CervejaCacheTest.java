@@ -0,0 +1,61 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class CervejaCacheTest {
+
+    private final CervejaCache cervejaCache = new CervejaCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+    @Test
+    void quandoEventosForaDeOrdemEntaoVersaoMaisNovaPermanece() {
+        cervejaCache.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 12, 2L)));
+        cervejaCache.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 11, 1L)));
+
+        assertThat(cervejaCache.obter("Cerveja 1").map(CervejaDTO::getQuantidade), is(equalTo(Optional.of(12))));
+    }
+
+    @Test
+    void quandoCervejaRemovidaEntaoSaiDoCacheSemAfetarAsDemais() {
+        cervejaCache.guardarSeAusente(cerveja(1L, 10, 0L));
+        cervejaCache.guardarSeAusente(cerveja(2L, 5, 0L));
+
+        cervejaCache.atualizar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cerveja(1L, 10, 0L)));
+
+        assertThat(cervejaCache.obter("Cerveja 1"), is(equalTo(Optional.empty())));
+        assertThat(cervejaCache.obter("Cerveja 2").isPresent(), is(true));
+    }
+
+    @Test
+    void quandoCervejaRemovidaEntaoEventoOuLeituraAtrasadosNaoARecolocam() {
+        cervejaCache.atualizar(new CervejaEvento(CervejaEventoTipo.CRIADA, cerveja(1L, 10, 0L)));
+        cervejaCache.atualizar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cerveja(1L, 10, 0L)));
+
+        cervejaCache.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cerveja(1L, 9, 1L)));
+        cervejaCache.guardarSeAusente(cerveja(1L, 10, 0L));
+
+        assertThat(cervejaCache.obter("Cerveja 1"), is(equalTo(Optional.empty())));
+    }
+
+    private static CervejaDTO cerveja(Long id, int quantidade, Long versao) {
+        return CervejaDTOBuilder.builder()
+                .id(id)
+                .nome("Cerveja " + id)
+                .quantidade(quantidade)
+                .versao(versao)
+                .build()
+                .toCervejaDTO();
+    }
+
+}
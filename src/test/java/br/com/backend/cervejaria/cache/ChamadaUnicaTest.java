@@ -0,0 +1,66 @@
+package br.com.backend.cervejaria.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ChamadaUnicaTest {
+
+    private final ChamadaUnica<String, Integer> chamadaUnica = new ChamadaUnica<>();
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    @Test
+    void quandoChamadasSeguidasEntaoCadaUmaExecuta() {
+        assertThat(chamadaUnica.executar("brahma", execucoes::incrementAndGet), is(equalTo(1)));
+        assertThat(chamadaUnica.executar("brahma", execucoes::incrementAndGet), is(equalTo(2)));
+    }
+
+    @Test
+    void quandoChaveDiferenteEntaoNaoEsperaExecucaoEmAndamento() throws Exception {
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> bloqueada = executor.submit(() -> chamadaUnica.executar("brahma", () -> {
+                emExecucao.countDown();
+                aguardar(liberar);
+                return 1;
+            }));
+            emExecucao.await(5, TimeUnit.SECONDS);
+
+            assertThat(chamadaUnica.executar("skol", () -> 2), is(equalTo(2)));
+            liberar.countDown();
+            assertThat(bloqueada.get(5, TimeUnit.SECONDS), is(equalTo(1)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void quandoExecucaoFalhaEntaoExcecaoPropagadaENovaChamadaExecuta() {
+        assertThrows(IllegalStateException.class, () -> chamadaUnica.executar("brahma", () -> {
+            throw new IllegalStateException("banco indisponível");
+        }));
+
+        assertThat(chamadaUnica.executar("brahma", execucoes::incrementAndGet), is(equalTo(1)));
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
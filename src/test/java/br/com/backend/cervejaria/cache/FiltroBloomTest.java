@@ -0,0 +1,42 @@
+package br.com.backend.cervejaria.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FiltroBloomTest {
+
+    private static final int NOMES = 10_000;
+
+    @Test
+    void quandoNomeAdicionadoEntaoSemprePodeConter() {
+        FiltroBloom filtro = new FiltroBloom(NOMES, 0.01);
+        for (int i = 0; i < NOMES; i++) {
+            filtro.adicionar("Cerveja " + i);
+        }
+
+        for (int i = 0; i < NOMES; i++) {
+            assertThat(filtro.podeConter("Cerveja " + i), is(true));
+        }
+    }
+
+    @Test
+    void quandoNomeAusenteEntaoFalsosPositivosPertoDaTaxaConfigurada() {
+        FiltroBloom filtro = new FiltroBloom(NOMES, 0.01);
+        for (int i = 0; i < NOMES; i++) {
+            filtro.adicionar("Cerveja " + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < NOMES; i++) {
+            if (filtro.podeConter("Ausente " + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        assertThat((double) falsosPositivos / NOMES, is(lessThan(0.02)));
+    }
+
+}
@@ -0,0 +1,103 @@
+package br.com.backend.cervejaria.cache;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class FiltroNomesCadastradosTest {
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    private final List<Cerveja> cadastradas = new ArrayList<>();
+
+    @Test
+    void quandoCarregadoEntaoNomesDoBancoPodemExistirEOutrosNao() {
+        cadastradas.add(cerveja("Brahma"));
+        FiltroNomesCadastrados filtro = criarFiltro(true, 10);
+
+        assertThat(filtro.podeConter("Brahma"), is(true));
+        assertThat(filtro.podeConter("Skol"), is(false));
+    }
+
+    @Test
+    void quandoCervejaCriadaEntaoNomePassaAPoderExistir() {
+        FiltroNomesCadastrados filtro = criarFiltro(true, 10);
+
+        filtro.atualizar(new CervejaEvento(CervejaEventoTipo.CRIADA, dto("Skol")));
+
+        assertThat(filtro.podeConter("Skol"), is(true));
+    }
+
+    @Test
+    void quandoRemocoesAtingemLimiteEntaoFiltroReconstruidoSemNomesRemovidos() {
+        cadastradas.add(cerveja("Brahma"));
+        cadastradas.add(cerveja("Skol"));
+        FiltroNomesCadastrados filtro = criarFiltro(true, 2);
+
+        cadastradas.remove(0);
+        filtro.atualizar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, dto("Brahma")));
+        filtro.reconstruirSeNecessario();
+        assertThat(filtro.podeConter("Brahma"), is(true));
+
+        cadastradas.remove(0);
+        filtro.atualizar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, dto("Skol")));
+        filtro.reconstruirSeNecessario();
+
+        assertThat(filtro.podeConter("Brahma"), is(false));
+        assertThat(filtro.podeConter("Skol"), is(false));
+        verify(cervejaRepository, times(2)).percorrerTodas(any());
+    }
+
+    @Test
+    void quandoDesligadoEntaoNomeSemprePodeExistir() {
+        FiltroNomesCadastrados filtro = criarFiltro(false, 10);
+
+        assertThat(filtro.podeConter("Skol"), is(true));
+        verify(cervejaRepository, never()).percorrerTodas(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private FiltroNomesCadastrados criarFiltro(boolean ativo, long reconstruirAposRemocoes) {
+        if (ativo) {
+            doAnswer(invocacao -> {
+                Consumer<Cerveja> consumidor = invocacao.getArgument(0);
+                new ArrayList<>(cadastradas).forEach(consumidor);
+                return null;
+            }).when(cervejaRepository).percorrerTodas(any(Consumer.class));
+        }
+        FiltroNomesCadastrados filtro = new FiltroNomesCadastrados(cervejaRepository, ativo, 0.01, 1000, reconstruirAposRemocoes);
+        filtro.carregar();
+        return filtro;
+    }
+
+    private static CervejaDTO dto(String nome) {
+        return CervejaDTOBuilder.builder().nome(nome).build().toCervejaDTO();
+    }
+
+    private static Cerveja cerveja(String nome) {
+        return CervejaMapper.INSTANCE.toModel(dto(nome));
+    }
+
+}
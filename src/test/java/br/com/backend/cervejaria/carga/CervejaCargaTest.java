@@ -0,0 +1,362 @@
+package br.com.backend.cervejaria.carga;
+
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Gerador de carga ponta a ponta contra a API REST. Fica fora do build
+ * normal (tag "carga") e roda com:
+ *
+ * <pre>./mvnw -P carga test -Dcarga.concorrencias=8,64,256 -Dcarga.duracao=60</pre>
+ *
+ * Cada cenário mistura as operações do CervejaController em proporções
+ * fixas e roda uma vez para cada nível de concorrência; o relatório com
+ * vazão e percentis p50/p99/p999 de cada operação vai para a saída padrão
+ * e para target/carga/. A curva concorrência x latência de cada modo de
+ * execução (bloqueante ou threads virtuais) é acumulada em
+ * target/carga/curva-&lt;modo&gt;.csv.
+ */
+@Tag("carga")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "logging.level.root=WARN",
+        "cervejaria.limite.ativo=false"
+})
+public class CervejaCargaTest {
+
+    private static final int[] CONCORRENCIAS = Stream.of(System.getProperty("carga.concorrencias", "16").split(","))
+            .mapToInt(concorrencia -> Integer.parseInt(concorrencia.trim()))
+            .toArray();
+    private static final Duration DURACAO = Duration.ofSeconds(Long.getLong("carga.duracao", 20L));
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(Long.getLong("carga.aquecimento", 5L));
+    private static final int TAMANHO_CATALOGO = Integer.getInteger("carga.catalogo", 1000);
+    private static final long LATENCIA_MAXIMA_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Path DIRETORIO_RELATORIOS = Paths.get("target", "carga");
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cervejaria.execucao.threads-virtuais:false}")
+    private boolean threadsVirtuais;
+
+    private final AtomicLong sequenciaNomes = new AtomicLong();
+    private final List<CervejaDTO> catalogo = new ArrayList<>();
+    private HttpClient httpClient;
+    private String urlBase;
+
+    @BeforeAll
+    void prepararCatalogo() throws Exception {
+        httpClient = HttpClient.newBuilder()
+                .executor(Executors.newCachedThreadPool())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        urlBase = "http://localhost:" + porta + "/api/v1/cervejas";
+
+        StringBuilder csv = new StringBuilder("nome,marca,maximo,quantidade,tipo\n");
+        CervejaTipo[] tipos = CervejaTipo.values();
+        for (int i = 0; i < TAMANHO_CATALOGO; i++) {
+            csv.append("Catalogo ").append(i).append(",Marca ").append(i % 20).append(",500,100,")
+                    .append(tipos[i % tipos.length]).append('\n');
+        }
+        enviar(HttpRequest.newBuilder(URI.create(urlBase + "/importacao"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build());
+
+        HttpResponse<String> resposta = enviar(HttpRequest.newBuilder(URI.create(urlBase)).GET().build());
+        catalogo.addAll(List.of(objectMapper.readValue(resposta.body(), CervejaDTO[].class)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("cenariosEConcorrencias")
+    void executarCenario(Cenario cenario, int concorrencia) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+        long inicioMedicao = System.nanoTime() + AQUECIMENTO.toNanos();
+        long fim = inicioMedicao + DURACAO.toNanos();
+        List<Future<Registro>> tarefas = new ArrayList<>();
+        try {
+            for (int i = 0; i < concorrencia; i++) {
+                tarefas.add(executor.submit(() -> {
+                    Registro registro = new Registro(inicioMedicao);
+                    while (System.nanoTime() < fim) {
+                        executar(cenario.sortear(), registro);
+                    }
+                    return registro;
+                }));
+            }
+            Registro total = new Registro(inicioMedicao);
+            for (Future<Registro> tarefa : tarefas) {
+                total.somar(tarefa.get());
+            }
+            relatar(cenario, concorrencia, total);
+            assertThat(total.erros(), is(equalTo(0L)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static Stream<Arguments> cenariosEConcorrencias() {
+        return Stream.of(Cenario.values())
+                .flatMap(cenario -> Arrays.stream(CONCORRENCIAS).mapToObj(concorrencia -> Arguments.of(cenario, concorrencia)));
+    }
+
+    private void executar(Operacao operacao, Registro registro) throws IOException, InterruptedException {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        CervejaDTO cerveja = catalogo.get(aleatorio.nextInt(catalogo.size()));
+        switch (operacao) {
+            case BUSCAR_POR_NOME:
+                registro.medir(operacao, get(urlBase + "/" + cerveja.getNome().replace(" ", "%20")));
+                break;
+            case LISTAR:
+                registro.medir(operacao, get(urlBase));
+                break;
+            case LISTAR_PAGINA:
+                registro.medir(operacao, get(urlBase + "?tamanho=100"));
+                break;
+            case TRANSMITIR:
+                registro.medir(operacao, HttpRequest.newBuilder(URI.create(urlBase))
+                        .header("Accept", "application/x-ndjson")
+                        .GET()
+                        .build());
+                break;
+            case INCREMENTAR:
+                registro.medir(operacao, json(urlBase + "/" + cerveja.getId() + "/incremento", "PATCH", "{\"quantidade\":1}"));
+                break;
+            case DECREMENTAR:
+                registro.medir(operacao, json(urlBase + "/" + cerveja.getId() + "/decremento", "PATCH", "{\"quantidade\":1}"));
+                break;
+            case MOVIMENTAR_LOTE:
+                CervejaDTO outra = catalogo.get(aleatorio.nextInt(catalogo.size()));
+                registro.medir(operacao, json(urlBase + "/movimentos", "POST",
+                        "{\"movimentos\":[{\"id\":" + cerveja.getId() + ",\"quantidade\":1},"
+                                + "{\"id\":" + outra.getId() + ",\"quantidade\":-1}]}"));
+                break;
+            case CONSULTAR_MOVIMENTOS:
+                registro.medir(operacao, get(urlBase + "/" + cerveja.getId() + "/movimentos"));
+                break;
+            case CRIAR_E_DELETAR:
+                String nome = "Carga " + sequenciaNomes.incrementAndGet();
+                HttpResponse<String> criada = registro.medir(Operacao.CRIAR, json(urlBase, "POST",
+                        "{\"nome\":\"" + nome + "\",\"marca\":\"Carga\",\"maximo\":100,\"quantidade\":10,\"tipo\":\"IPA\"}"));
+                if (criada != null && criada.statusCode() == 201) {
+                    Long id = objectMapper.readValue(criada.body(), CervejaDTO.class).getId();
+                    registro.medir(Operacao.DELETAR, HttpRequest.newBuilder(URI.create(urlBase + "/" + id)).DELETE().build());
+                }
+                break;
+            case IMPORTAR:
+                long lote = sequenciaNomes.incrementAndGet();
+                StringBuilder csv = new StringBuilder("nome,marca,maximo,quantidade,tipo\n");
+                for (int i = 0; i < 20; i++) {
+                    csv.append("Importada ").append(lote).append('-').append(i).append(",Carga,100,10,STOUT\n");
+                }
+                registro.medir(operacao, HttpRequest.newBuilder(URI.create(urlBase + "/importacao"))
+                        .header("Content-Type", "text/csv")
+                        .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                        .build());
+                break;
+            default:
+                throw new IllegalStateException("Operação sem requisição: " + operacao);
+        }
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private HttpRequest json(String url, String metodo, String corpo) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+    }
+
+    private HttpResponse<String> enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+        return httpClient.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void relatar(Cenario cenario, int concorrencia, Registro registro) throws IOException {
+        Files.createDirectories(DIRETORIO_RELATORIOS);
+        String modo = threadsVirtuais ? "threads-virtuais" : "bloqueante";
+        Path arquivo = DIRETORIO_RELATORIOS.resolve(modo + "-" + cenario.name().toLowerCase() + "-" + concorrencia + ".txt");
+        try (PrintStream relatorio = new PrintStream(Files.newOutputStream(arquivo), true, StandardCharsets.UTF_8)) {
+            for (PrintStream saida : List.of(System.out, relatorio)) {
+                saida.printf("%nCenário %s (%s): %d clientes, %ds medidos após %ds de aquecimento%n",
+                        cenario, modo, concorrencia, DURACAO.getSeconds(), AQUECIMENTO.getSeconds());
+                saida.printf("%-22s %10s %8s %10s %10s %10s %10s %10s%n",
+                        "operação", "requisições", "erros", "req/s", "p50 ms", "p99 ms", "p999 ms", "máx ms");
+                registro.histogramas.forEach((operacao, histograma) -> saida.printf("%-22s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                        operacao,
+                        histograma.getTotalCount(),
+                        registro.errosPorOperacao.getOrDefault(operacao, 0L),
+                        histograma.getTotalCount() / (double) DURACAO.getSeconds(),
+                        emMilissegundos(histograma.getValueAtPercentile(50)),
+                        emMilissegundos(histograma.getValueAtPercentile(99)),
+                        emMilissegundos(histograma.getValueAtPercentile(99.9)),
+                        emMilissegundos(histograma.getMaxValue())));
+            }
+            registro.histogramas.forEach((operacao, histograma) -> {
+                relatorio.printf("%nDistribuição de %s (ms)%n", operacao);
+                histograma.outputPercentileDistribution(relatorio, 1_000_000.0);
+            });
+        }
+        registrarCurva(modo, cenario, concorrencia, registro);
+    }
+
+    private void registrarCurva(String modo, Cenario cenario, int concorrencia, Registro registro) throws IOException {
+        Path curva = DIRETORIO_RELATORIOS.resolve("curva-" + modo + ".csv");
+        StringBuilder linhas = new StringBuilder();
+        if (Files.notExists(curva)) {
+            linhas.append("cenario,concorrencia,operacao,req_s,p50_ms,p99_ms,p999_ms\n");
+        }
+        registro.histogramas.forEach((operacao, histograma) -> linhas.append(String.format(Locale.ROOT, "%s,%d,%s,%.1f,%.2f,%.2f,%.2f%n",
+                cenario, concorrencia, operacao,
+                histograma.getTotalCount() / (double) DURACAO.getSeconds(),
+                emMilissegundos(histograma.getValueAtPercentile(50)),
+                emMilissegundos(histograma.getValueAtPercentile(99)),
+                emMilissegundos(histograma.getValueAtPercentile(99.9)))));
+        Files.writeString(curva, linhas, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static double emMilissegundos(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private class Registro {
+
+        private final long inicioMedicao;
+        private final Map<Operacao, Histogram> histogramas = new EnumMap<>(Operacao.class);
+        private final Map<Operacao, Long> errosPorOperacao = new EnumMap<>(Operacao.class);
+
+        private Registro(long inicioMedicao) {
+            this.inicioMedicao = inicioMedicao;
+        }
+
+        /**
+         * Respostas 4xx fazem parte da carga (estoque excedido, nome já
+         * cadastrado); só 5xx e falhas de conexão contam como erro.
+         */
+        private HttpResponse<String> medir(Operacao operacao, HttpRequest requisicao) throws InterruptedException {
+            long inicio = System.nanoTime();
+            HttpResponse<String> resposta = null;
+            boolean erro;
+            try {
+                resposta = enviar(requisicao);
+                erro = resposta.statusCode() >= 500;
+            } catch (IOException e) {
+                erro = true;
+            }
+            long fim = System.nanoTime();
+            if (inicio >= inicioMedicao) {
+                histogramas.computeIfAbsent(operacao, o -> new Histogram(LATENCIA_MAXIMA_NANOS, 3))
+                        .recordValue(Math.min(fim - inicio, LATENCIA_MAXIMA_NANOS));
+                if (erro) {
+                    errosPorOperacao.merge(operacao, 1L, Long::sum);
+                }
+            }
+            return resposta;
+        }
+
+        private void somar(Registro outro) {
+            outro.histogramas.forEach((operacao, histograma) ->
+                    histogramas.computeIfAbsent(operacao, o -> new Histogram(LATENCIA_MAXIMA_NANOS, 3)).add(histograma));
+            outro.errosPorOperacao.forEach((operacao, erros) -> errosPorOperacao.merge(operacao, erros, Long::sum));
+        }
+
+        private long erros() {
+            return errosPorOperacao.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private enum Operacao {
+        BUSCAR_POR_NOME,
+        LISTAR,
+        LISTAR_PAGINA,
+        TRANSMITIR,
+        INCREMENTAR,
+        DECREMENTAR,
+        MOVIMENTAR_LOTE,
+        CONSULTAR_MOVIMENTOS,
+        CRIAR_E_DELETAR,
+        CRIAR,
+        DELETAR,
+        IMPORTAR
+    }
+
+    enum Cenario {
+
+        LEITURA(pesos(Operacao.BUSCAR_POR_NOME, 70, Operacao.LISTAR_PAGINA, 15, Operacao.LISTAR, 5,
+                Operacao.TRANSMITIR, 5, Operacao.CONSULTAR_MOVIMENTOS, 5)),
+        ESTOQUE(pesos(Operacao.INCREMENTAR, 40, Operacao.DECREMENTAR, 40, Operacao.MOVIMENTAR_LOTE, 15,
+                Operacao.BUSCAR_POR_NOME, 5)),
+        CADASTRO(pesos(Operacao.CRIAR_E_DELETAR, 90, Operacao.IMPORTAR, 5, Operacao.BUSCAR_POR_NOME, 5));
+
+        private final Operacao[] roleta;
+
+        Cenario(Map<Operacao, Integer> pesos) {
+            roleta = pesos.entrySet().stream()
+                    .flatMap(peso -> Collections.nCopies(peso.getValue(), peso.getKey()).stream())
+                    .toArray(Operacao[]::new);
+        }
+
+        private Operacao sortear() {
+            return roleta[ThreadLocalRandom.current().nextInt(roleta.length)];
+        }
+
+        private static Map<Operacao, Integer> pesos(Object... operacoesEPesos) {
+            Map<Operacao, Integer> pesos = new LinkedHashMap<>();
+            for (int i = 0; i < operacoesEPesos.length; i += 2) {
+                pesos.put((Operacao) operacoesEPesos[i], (Integer) operacoesEPesos[i + 1]);
+            }
+            return pesos;
+        }
+    }
+
+}
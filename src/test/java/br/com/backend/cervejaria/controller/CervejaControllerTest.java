@@ -1,17 +1,49 @@
 package br.com.backend.cervejaria.controller;
 
 import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.cache.CatalogoSnapshot;
+import br.com.backend.cervejaria.cache.VersaoCatalogo;
+import br.com.backend.cervejaria.dto.AgregadosEstoqueDTO;
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+import br.com.backend.cervejaria.dto.BuscaCervejaDTO;
 import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.EstoqueAgregadoDTO;
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.dto.ImportacaoResultadoDTO;
+import br.com.backend.cervejaria.dto.MovimentoDTO;
+import br.com.backend.cervejaria.dto.MovimentoEstoqueDTO;
+import br.com.backend.cervejaria.dto.MovimentoLoteDTO;
+import br.com.backend.cervejaria.dto.MovimentoResultadoDTO;
+import br.com.backend.cervejaria.dto.PaginaCervejaDTO;
 import br.com.backend.cervejaria.dto.QuantidadeDTO;
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.dto.ReservaRequisicaoDTO;
+import br.com.backend.cervejaria.enums.AlertaEstoqueSituacao;
+import br.com.backend.cervejaria.enums.CervejaOrdenacao;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.enums.MovimentoStatus;
+import br.com.backend.cervejaria.enums.ReservaStatus;
 import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
 import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaEmUsoException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaReutilizadaException;
+import br.com.backend.cervejaria.exception.ReservaEncerradaException;
+import br.com.backend.cervejaria.service.AlertaEstoqueService;
+import br.com.backend.cervejaria.service.CervejaImportacaoService;
 import br.com.backend.cervejaria.service.CervejaService;
+import br.com.backend.cervejaria.service.EstoqueAgregadoService;
+import br.com.backend.cervejaria.service.EstoqueIdempotente;
+import br.com.backend.cervejaria.service.HistoricoEstoqueService;
+import br.com.backend.cervejaria.service.ReservaEstoqueService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,15 +51,25 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static br.com.backend.cervejaria.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.mock.http.server.reactive.MockServerHttpRequest.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,12 +81,37 @@ public class CervejaControllerTest {
     private static final long ID_INVALIDO_CERVEJA = 2l;
     private static final String CERVEJA_API_URL_SUBCAMINHO_INCREMENTO_URL = "/incremento";
     private static final String CERVEJA_API_URL_SUBCAMINHO_DECREMENTO_URL = "/decremento";
+    private static final String CERVEJA_API_URL_SUBCAMINHO_MOVIMENTOS_URL = "/movimentos";
 
     private MockMvc mockMvc;
 
     @Mock
     private CervejaService cervejaService;
 
+    @Mock
+    private HistoricoEstoqueService historicoEstoqueService;
+
+    @Mock
+    private CervejaImportacaoService cervejaImportacaoService;
+
+    @Mock
+    private AlertaEstoqueService alertaEstoqueService;
+
+    @Mock
+    private EstoqueAgregadoService estoqueAgregadoService;
+
+    @Mock
+    private EstoqueIdempotente estoqueIdempotente;
+
+    @Mock
+    private ReservaEstoqueService reservaEstoqueService;
+
+    @Mock
+    private VersaoCatalogo versaoCatalogo;
+
+    @Mock
+    private CatalogoSnapshot catalogoSnapshot;
+
     @InjectMocks
     private CervejaController cervejaController;
 
@@ -71,6 +138,19 @@ public class CervejaControllerTest {
                 .andExpect(jsonPath("$.tipo", is(cervejaDTO.getTipo().toString())));
     }
 
+    @Test
+    void quandoPOSTChamadoComNomeReservadoEntaoRetornaErro() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        cervejaDTO.setNome("agregados");
+
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(cervejaDTO)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(cervejaService);
+    }
+
     @Test
     void quandoPOSTChamadoSemCampoRequisitadoEntaoRetornaErro() throws Exception {
         CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
@@ -112,11 +192,12 @@ public class CervejaControllerTest {
     void quandoGETListaComCervejasChamadoEntaoOKStatusRetornado() throws Exception {
         CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
 
-        when(cervejaService.listarTudo()).thenReturn(Collections.singletonList(cervejaDTO));
+        when(catalogoSnapshot.atual()).thenReturn(conteudo(asJsonString(Collections.singletonList(cervejaDTO))));
 
         mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].nome", is(cervejaDTO.getNome())))
                 .andExpect(jsonPath("$[0].marca", is(cervejaDTO.getMarca())))
                 .andExpect(jsonPath("$[0].tipo", is(cervejaDTO.getTipo().toString())));
@@ -124,13 +205,105 @@ public class CervejaControllerTest {
 
     @Test
     void quandoGETListaSemCervejasChamadoEntaoOKStatusRetornado() throws Exception {
+        when(catalogoSnapshot.atual()).thenReturn(conteudo("[]"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void quandoGETListaAceitaGzipEntaoSnapshotCompactadoRetornado() throws Exception {
+        CatalogoSnapshot.Conteudo conteudo = conteudo("[]");
+        byte[] compactado = conteudo.gzip();
+
+        when(catalogoSnapshot.atual()).thenReturn(conteudo);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO)
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(content().bytes(compactado));
+    }
+
+    @Test
+    void quandoGETListaRecusaGzipEntaoSnapshotSemCompactacaoRetornado() throws Exception {
+        when(catalogoSnapshot.atual()).thenReturn(conteudo("[]"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO)
+                        .header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void quandoGETAgregadosChamadoEntaoTotaisPorTipoEMarcaRetornados() throws Exception {
+        EstoqueAgregadoDTO bock = EstoqueAgregadoDTO.builder().grupo("BOCK").cervejas(2).quantidade(30).maximo(100).percentualOcupacao(30.0).build();
+        EstoqueAgregadoDTO ambev = EstoqueAgregadoDTO.builder().grupo("Ambev").cervejas(2).quantidade(30).maximo(100).percentualOcupacao(30.0).build();
+
+        when(estoqueAgregadoService.consultar()).thenReturn(new AgregadosEstoqueDTO(Collections.singletonList(bock), Collections.singletonList(ambev)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/agregados"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tipos[0].grupo", is("BOCK")))
+                .andExpect(jsonPath("$.tipos[0].percentualOcupacao", is(30.0)))
+                .andExpect(jsonPath("$.marcas[0].grupo", is("Ambev")))
+                .andExpect(jsonPath("$.marcas[0].quantidade", is(30)));
+    }
+
+    @Test
+    void quandoGETBuscaChamadoComFiltrosEntaoResultadoComContagensRetornado() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        FiltroCervejaDTO filtroEsperado = FiltroCervejaDTO.builder()
+                .nome("bra")
+                .tipo(Arrays.asList(CervejaTipo.BOCK, CervejaTipo.IPA))
+                .marca("Ambev")
+                .quantidadeMinima(1)
+                .build();
+        BuscaCervejaDTO busca = BuscaCervejaDTO.builder()
+                .itens(Collections.singletonList(cervejaDTO))
+                .pagina(0)
+                .total(1)
+                .tipos(Collections.singletonMap(CervejaTipo.BOCK, 1L))
+                .build();
+
+        when(cervejaService.buscar(filtroEsperado, CervejaOrdenacao.MARCA, Sort.Direction.DESC, 0, 20)).thenReturn(busca);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/busca")
+                        .param("nome", "bra")
+                        .param("tipo", "BOCK", "IPA")
+                        .param("marca", "Ambev")
+                        .param("quantidadeMinima", "1")
+                        .param("ordenacao", "MARCA")
+                        .param("direcao", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].nome", is(cervejaDTO.getNome())))
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.tipos.BOCK", is(1)));
+    }
+
+    @Test
+    void quandoGETBuscaChamadoComQuantidadeNegativaEntaoBadRequestStatusRetornado() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/busca")
+                        .param("quantidadeMaxima", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void quandoGETPaginaChamadoEntaoOKStatusRetornadoComCursor() throws Exception {
         CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
 
-        when(cervejaService.listarTudo()).thenReturn(Collections.singletonList(cervejaDTO));
+        when(cervejaService.listarPagina(null, 1)).thenReturn(new PaginaCervejaDTO(Collections.singletonList(cervejaDTO), "MQ"));
 
         mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO)
+                        .param("tamanho", "1")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].nome", is(cervejaDTO.getNome())))
+                .andExpect(jsonPath("$.proximoCursor", is("MQ")));
     }
 
     @Test
@@ -174,6 +347,57 @@ public class CervejaControllerTest {
                 .andExpect(jsonPath("$.quantidade", is(cervejaDTO.getQuantidade())));
     }
 
+    @Test
+    void quandoPATCHIncrementoComIdempotencyKeyEntaoMovimentoIdempotenteUsado() throws Exception {
+        QuantidadeDTO quantidadeDTO = QuantidadeDTO.builder()
+                .quantidade(10)
+                .build();
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().quantidade(20).build().toCervejaDTO();
+
+        when(estoqueIdempotente.incrementar("pedido-1", ID_VALIDO_CERVEJA, quantidadeDTO.getQuantidade())).thenReturn(cervejaDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + CERVEJA_API_URL_SUBCAMINHO_INCREMENTO_URL)
+                        .header("Idempotency-Key", "pedido-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantidadeDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantidade", is(20)));
+
+        verify(cervejaService, never()).incrementar(ID_VALIDO_CERVEJA, quantidadeDTO.getQuantidade());
+    }
+
+    @Test
+    void quandoPATCHDecrementoReutilizaIdempotencyKeyEntaoUnprocessableEntityStatusRetornado() throws Exception {
+        QuantidadeDTO quantidadeDTO = QuantidadeDTO.builder()
+                .quantidade(5)
+                .build();
+
+        when(estoqueIdempotente.decrementar("pedido-1", ID_VALIDO_CERVEJA, quantidadeDTO.getQuantidade()))
+                .thenThrow(new ChaveIdempotenciaReutilizadaException("pedido-1"));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + CERVEJA_API_URL_SUBCAMINHO_DECREMENTO_URL)
+                        .header("Idempotency-Key", "pedido-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantidadeDTO)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void quandoPATCHDecrementoComIdempotencyKeyEmExecucaoEntaoConflictStatusRetornado() throws Exception {
+        QuantidadeDTO quantidadeDTO = QuantidadeDTO.builder()
+                .quantidade(5)
+                .build();
+
+        when(estoqueIdempotente.decrementar("pedido-1", ID_VALIDO_CERVEJA, quantidadeDTO.getQuantidade()))
+                .thenThrow(new ChaveIdempotenciaEmUsoException("pedido-1"));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + CERVEJA_API_URL_SUBCAMINHO_DECREMENTO_URL)
+                        .header("Idempotency-Key", "pedido-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantidadeDTO)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void quandoPATCHChamadoIncrementoMaiorQueMaximoEentaoBadRequestStatusRetornado() throws Exception {
         QuantidadeDTO quantidadeDTO = QuantidadeDTO.builder()
@@ -252,4 +476,189 @@ public class CervejaControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void quandoPOSTChamadoComMovimentosEmLoteEntaoOKStatusRetornado() throws Exception {
+        List<MovimentoDTO> movimentos = Collections.singletonList(new MovimentoDTO(ID_VALIDO_CERVEJA, -5));
+        MovimentoLoteDTO movimentoLoteDTO = new MovimentoLoteDTO(movimentos);
+
+        when(cervejaService.movimentarEmLote(movimentos))
+                .thenReturn(Collections.singletonList(new MovimentoResultadoDTO(ID_VALIDO_CERVEJA, -5, MovimentoStatus.APLICADO)));
+
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO + CERVEJA_API_URL_SUBCAMINHO_MOVIMENTOS_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(movimentoLoteDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is((int) ID_VALIDO_CERVEJA)))
+                .andExpect(jsonPath("$[0].status", is(MovimentoStatus.APLICADO.toString())));
+    }
+
+    @Test
+    void quandoPOSTChamadoComMovimentoForaDoLimiteEntaoBadRequestStatusRetornado() throws Exception {
+        MovimentoLoteDTO movimentoLoteDTO = new MovimentoLoteDTO(Collections.singletonList(new MovimentoDTO(ID_VALIDO_CERVEJA, 150)));
+
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO + CERVEJA_API_URL_SUBCAMINHO_MOVIMENTOS_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(movimentoLoteDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void quandoPOSTReservaChamadoEntaoReservaCriada() throws Exception {
+        ReservaRequisicaoDTO requisicao = ReservaRequisicaoDTO.builder()
+                .quantidade(5)
+                .expiracaoSegundos(60L)
+                .build();
+        Instant agora = Instant.now();
+        ReservaDTO reserva = new ReservaDTO(10L, ID_VALIDO_CERVEJA, 5, ReservaStatus.ABERTA, agora, agora.plusSeconds(60));
+
+        when(reservaEstoqueService.reservar(ID_VALIDO_CERVEJA, requisicao)).thenReturn(reserva);
+
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + "/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(requisicao)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(10)))
+                .andExpect(jsonPath("$.status", is("ABERTA")));
+    }
+
+    @Test
+    void quandoPOSTReservaComQuantidadeZeroEntaoBadRequestStatusRetornado() throws Exception {
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + "/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(ReservaRequisicaoDTO.builder().quantidade(0).build())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void quandoPOSTConfirmacaoDeReservaExpiradaEntaoConflictStatusRetornado() throws Exception {
+        when(reservaEstoqueService.confirmar(10L)).thenThrow(new ReservaEncerradaException(10L, ReservaStatus.EXPIRADA));
+
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO + "/reservas/10/confirmacao"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void quandoGETMovimentosChamadoComIntervaloEntaoOKStatusRetornado() throws Exception {
+        Instant de = Instant.parse("2021-11-01T00:00:00Z");
+        Instant ate = Instant.parse("2021-11-02T00:00:00Z");
+        MovimentoEstoqueDTO movimentoEstoqueDTO = new MovimentoEstoqueDTO(1L, ID_VALIDO_CERVEJA, -5, Instant.parse("2021-11-01T12:00:00Z"));
+
+        when(historicoEstoqueService.consultar(ID_VALIDO_CERVEJA, de, ate)).thenReturn(Collections.singletonList(movimentoEstoqueDTO));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + CERVEJA_API_URL_SUBCAMINHO_MOVIMENTOS_URL)
+                        .param("de", de.toString())
+                        .param("ate", ate.toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cervejaId", is((int) ID_VALIDO_CERVEJA)))
+                .andExpect(jsonPath("$[0].quantidade", is(-5)));
+    }
+
+    @Test
+    void quandoPOSTImportacaoChamadoComCsvEntaoResultadoRetornado() throws Exception {
+        String csv = "nome,marca,maximo,quantidade,tipo\nBrahma,Ambev,50,10,BOCK\n";
+        ImportacaoResultadoDTO resultado = ImportacaoResultadoDTO.builder()
+                .importadas(1)
+                .jaCadastradas(Collections.emptyList())
+                .rejeitadas(Collections.emptyList())
+                .duracaoMs(3L)
+                .cervejasPorSegundo(333.3)
+                .build();
+
+        when(cervejaImportacaoService.importarCsv(csv)).thenReturn(resultado);
+
+        mockMvc.perform(post(CERVEJA_API_URL_CAMINHO + "/importacao")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importadas", is(1)));
+    }
+
+    @Test
+    void quandoGETAlertasChamadoEntaoCervejasNoMinimoRetornadas() throws Exception {
+        AlertaEstoqueDTO alerta = AlertaEstoqueDTO.builder()
+                .id(ID_VALIDO_CERVEJA)
+                .nome("Brahma")
+                .quantidade(2)
+                .limite(5)
+                .situacao(AlertaEstoqueSituacao.ABAIXO_DO_MINIMO)
+                .registradoEm(Instant.parse("2021-11-01T12:00:00Z"))
+                .build();
+
+        when(alertaEstoqueService.listarAbaixoDoMinimo()).thenReturn(Collections.singletonList(alerta));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/alertas")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is((int) ID_VALIDO_CERVEJA)))
+                .andExpect(jsonPath("$[0].situacao", is(AlertaEstoqueSituacao.ABAIXO_DO_MINIMO.toString())));
+    }
+
+    @Test
+    void quandoGETListaComETagAtualEntaoNotModifiedSemConsultarServico() throws Exception {
+        when(catalogoSnapshot.atual()).thenReturn(new CatalogoSnapshot.Conteudo("\"1-7\"", "[]".getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO)
+                        .header("If-None-Match", "\"1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(cervejaService);
+    }
+
+    @Test
+    void quandoGETPorNomeComETagAntigaEntaoCervejaRetornadaComNovaETag() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().versao(3L).build().toCervejaDTO();
+
+        when(versaoCatalogo.etagCatalogo()).thenReturn("\"1-8\"");
+        when(cervejaService.encontrarPorNome(cervejaDTO.getNome())).thenReturn(cervejaDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/" + cervejaDTO.getNome())
+                        .header("If-None-Match", "\"1-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-8\""))
+                .andExpect(jsonPath("$.versao", is(3)));
+    }
+
+    @Test
+    void quandoGETPorNomeComETagAtualEntaoNotModifiedSemConsultarServico() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+
+        when(versaoCatalogo.etagCatalogo()).thenReturn("\"1-7\"");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(CERVEJA_API_URL_CAMINHO + "/" + cervejaDTO.getNome())
+                        .header("If-None-Match", "\"1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(cervejaService);
+    }
+
+    @Test
+    void quandoPATCHIncrementoChamadoEmCborEntaoRespostaEmCbor() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        QuantidadeDTO quantidadeDTO = QuantidadeDTO.builder()
+                .quantidade(10)
+                .build();
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().quantidade(20).build().toCervejaDTO();
+
+        when(cervejaService.incrementar(ID_VALIDO_CERVEJA, quantidadeDTO.getQuantidade())).thenReturn(cervejaDTO);
+
+        byte[] resposta = mockMvc.perform(MockMvcRequestBuilders.patch(CERVEJA_API_URL_CAMINHO + "/" + ID_VALIDO_CERVEJA + CERVEJA_API_URL_SUBCAMINHO_INCREMENTO_URL)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(quantidadeDTO)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertThat(cborMapper.readValue(resposta, CervejaDTO.class), is(cervejaDTO));
+    }
+
+    private static CatalogoSnapshot.Conteudo conteudo(String json) {
+        return new CatalogoSnapshot.Conteudo("\"1-1\"", json.getBytes(StandardCharsets.UTF_8));
+    }
+
 }
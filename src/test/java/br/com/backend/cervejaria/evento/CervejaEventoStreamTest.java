@@ -0,0 +1,186 @@
+package br.com.backend.cervejaria.evento;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.AlteracaoCervejaDTO;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class CervejaEventoStreamTest {
+
+    private CervejaEventoStream cervejaEventoStream;
+
+    @AfterEach
+    void tearDown() {
+        cervejaEventoStream.encerrar();
+    }
+
+    @Test
+    void quandoReconectaComUltimoIdEntaoRecebeSomenteEventosPerdidos() throws Exception {
+        cervejaEventoStream = criarStream(100);
+        DestinoGravado primeiro = new DestinoGravado();
+        cervejaEventoStream.inscrever(null, primeiro);
+        publicar(3);
+        String idPrimeiroEvento = primeiro.proximo();
+
+        DestinoGravado reconectado = new DestinoGravado();
+        cervejaEventoStream.inscrever(idPrimeiroEvento, reconectado);
+
+        assertThat(reconectado.proximo(), is(equalTo(idSequencia(idPrimeiroEvento, 2))));
+        assertThat(reconectado.proximo(), is(equalTo(idSequencia(idPrimeiroEvento, 3))));
+    }
+
+    @Test
+    void quandoUltimoIdDeOutraExecucaoEntaoResincronizar() throws Exception {
+        cervejaEventoStream = criarStream(100);
+        publicar(2);
+
+        DestinoGravado destino = new DestinoGravado();
+        cervejaEventoStream.inscrever("1-1", destino);
+
+        assertThat(destino.proximo(), startsWith(CervejaEventoStream.RESINCRONIZAR));
+    }
+
+    @Test
+    void quandoAssinanteNaoAcompanhaEntaoDesconectado() throws Exception {
+        cervejaEventoStream = criarStream(2);
+        CountDownLatch liberarEnvio = new CountDownLatch(1);
+        DestinoGravado lento = new DestinoGravado() {
+            @Override
+            public void enviar(String id, AlteracaoCervejaDTO alteracao) throws IOException {
+                try {
+                    liberarEnvio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.enviar(id, alteracao);
+            }
+        };
+        cervejaEventoStream.inscrever(null, lento);
+
+        publicar(5);
+
+        assertThat(lento.encerrado.await(5, TimeUnit.SECONDS), is(true));
+        liberarEnvio.countDown();
+    }
+
+    @Test
+    void quandoEnvioTravadoEntaoDemaisAssinantesRecebemETravadoDesconectado() throws Exception {
+        cervejaEventoStream = new CervejaEventoStream(new SimpleMeterRegistry(), 10, 100, 2, 10, Duration.ofMinutes(1), Duration.ofMillis(50));
+        CountDownLatch envioIniciado = new CountDownLatch(1);
+        CountDownLatch liberarEnvio = new CountDownLatch(1);
+        DestinoGravado travado = new DestinoGravado() {
+            @Override
+            public void enviar(String id, AlteracaoCervejaDTO alteracao) throws IOException {
+                envioIniciado.countDown();
+                try {
+                    liberarEnvio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        DestinoGravado saudavel = new DestinoGravado();
+        cervejaEventoStream.inscrever(null, travado);
+        cervejaEventoStream.inscrever(null, saudavel);
+
+        publicar(1);
+
+        assertThat(envioIniciado.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(saudavel.proximo(), is(notNullValue()));
+
+        Thread.sleep(100);
+        cervejaEventoStream.desconectarTravados();
+
+        assertThat(travado.encerrado.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(saudavel.encerrado.getCount(), is(equalTo(1L)));
+        liberarEnvio.countDown();
+    }
+
+    @Test
+    void quandoPoolDeEnvioSaturadoEntaoAssinanteRecusadoDesconectado() throws Exception {
+        cervejaEventoStream = new CervejaEventoStream(new SimpleMeterRegistry(), 10, 100, 1, 1, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        CountDownLatch envioIniciado = new CountDownLatch(1);
+        CountDownLatch liberarEnvio = new CountDownLatch(1);
+        DestinoGravado travado = new DestinoGravado() {
+            @Override
+            public void enviar(String id, AlteracaoCervejaDTO alteracao) throws IOException {
+                envioIniciado.countDown();
+                try {
+                    liberarEnvio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        DestinoGravado enfileirado = new DestinoGravado();
+        DestinoGravado recusado = new DestinoGravado();
+        cervejaEventoStream.inscrever(null, travado);
+        publicar(1);
+        assertThat(envioIniciado.await(5, TimeUnit.SECONDS), is(true));
+        cervejaEventoStream.inscrever(null, enfileirado);
+        cervejaEventoStream.inscrever(null, recusado);
+
+        publicar(1);
+
+        assertThat(recusado.encerrado.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(enfileirado.encerrado.getCount(), is(equalTo(1L)));
+        liberarEnvio.countDown();
+        assertThat(enfileirado.proximo(), is(notNullValue()));
+    }
+
+    private CervejaEventoStream criarStream(int capacidadeFila) {
+        return new CervejaEventoStream(new SimpleMeterRegistry(), 10, capacidadeFila, 1, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+
+    private void publicar(int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            cervejaEventoStream.publicar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO,
+                    CervejaDTOBuilder.builder().quantidade(i).build().toCervejaDTO()));
+        }
+    }
+
+    private String idSequencia(String idReferencia, long sequencia) {
+        return idReferencia.substring(0, idReferencia.indexOf('-') + 1) + sequencia;
+    }
+
+    private static class DestinoGravado implements CervejaEventoStream.Destino {
+
+        private final BlockingQueue<String> recebidos = new LinkedBlockingQueue<>();
+        private final CountDownLatch encerrado = new CountDownLatch(1);
+
+        @Override
+        public void enviar(String id, AlteracaoCervejaDTO alteracao) throws IOException {
+            recebidos.add(id);
+        }
+
+        @Override
+        public void resincronizar(String id) {
+            recebidos.add(CervejaEventoStream.RESINCRONIZAR + " " + id);
+        }
+
+        @Override
+        public void encerrar() {
+            encerrado.countDown();
+        }
+
+        private String proximo() throws InterruptedException {
+            return recebidos.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package br.com.backend.cervejaria.limite;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class BaldeFichasTest {
+
+    private static final long MILISSEGUNDO = 1_000_000L;
+
+    private final AtomicLong relogio = new AtomicLong(-5_000 * MILISSEGUNDO);
+
+    @Test
+    void quandoCapacidadeEsgotadaEntaoEsperaAteProximaReposicao() {
+        BaldeFichas baldeFichas = new BaldeFichas(3, 10, relogio::get);
+
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(0L)));
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(0L)));
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(0L)));
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(100 * MILISSEGUNDO)));
+
+        relogio.addAndGet(100 * MILISSEGUNDO);
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(0L)));
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(100 * MILISSEGUNDO)));
+    }
+
+    @Test
+    void quandoOciosoEntaoAcumulaNoMaximoACapacidade() {
+        BaldeFichas baldeFichas = new BaldeFichas(2, 10, relogio::get);
+
+        relogio.addAndGet(10_000 * MILISSEGUNDO);
+
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(0L)));
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(0L)));
+        assertThat(baldeFichas.tentarConsumir(), is(equalTo(100 * MILISSEGUNDO)));
+    }
+
+}
@@ -0,0 +1,62 @@
+package br.com.backend.cervejaria.limite;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class LimiteConcorrenciaAdaptativoTest {
+
+    private static final long LATENCIA_ALVO = 100;
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    @Test
+    void quandoLimiteOcupadoEntaoLeiturasRecusadasAntesDasEscritas() {
+        LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(10, 1, 100, LATENCIA_ALVO, 0.5, relogio::get);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(limite.tentarAdquirir(0.8), is(true));
+        }
+
+        assertThat(limite.tentarAdquirir(0.8), is(false));
+        assertThat(limite.tentarAdquirir(1.0), is(true));
+        assertThat(limite.tentarAdquirir(1.0), is(true));
+        assertThat(limite.tentarAdquirir(1.0), is(false));
+        assertThat(limite.getEmAndamento(), is(equalTo(10)));
+    }
+
+    @Test
+    void quandoLatenciaAcimaDoAlvoEntaoReduzUmaVezPorJanela() {
+        LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(40, 1, 100, LATENCIA_ALVO, 0.5, relogio::get);
+
+        limite.tentarAdquirir(1.0);
+        limite.liberar(LATENCIA_ALVO * 2);
+        limite.tentarAdquirir(1.0);
+        limite.liberar(LATENCIA_ALVO * 2);
+        assertThat(limite.getLimite(), is(closeTo(20.0, 0.001)));
+
+        relogio.addAndGet(LATENCIA_ALVO);
+        limite.tentarAdquirir(1.0);
+        limite.liberar(LATENCIA_ALVO * 2);
+        assertThat(limite.getLimite(), is(closeTo(10.0, 0.001)));
+    }
+
+    @Test
+    void quandoLatenciaDentroDoAlvoEntaoLimiteCresceCercaDeUmPorRodada() {
+        LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(10, 1, 100, LATENCIA_ALVO, 0.5, relogio::get);
+
+        for (int i = 0; i < 10; i++) {
+            limite.tentarAdquirir(1.0);
+            limite.liberar(LATENCIA_ALVO / 2);
+        }
+
+        assertThat(limite.getLimite(), is(closeTo(11.0, 0.1)));
+        assertThat(limite.getEmAndamento(), is(equalTo(0)));
+    }
+
+}
@@ -0,0 +1,116 @@
+package br.com.backend.cervejaria.limite;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LimiteRequisicoesFilterTest {
+
+    private static final String URL_CERVEJAS = "/api/v1/cervejas";
+
+    private MeterRegistry meterRegistry;
+    private LimiteRequisicoesFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = criarFilter(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void quandoLeiturasEsgotamOrcamentoEntaoTooManyRequestsSemAfetarEscritas() throws Exception {
+        assertThat(executar("GET", URL_CERVEJAS, "cliente-1").getStatus(), is(equalTo(HttpServletResponse.SC_OK)));
+        assertThat(executar("GET", URL_CERVEJAS, "cliente-1").getStatus(), is(equalTo(HttpServletResponse.SC_OK)));
+
+        MockHttpServletResponse recusada = executar("GET", URL_CERVEJAS, "cliente-1");
+        assertThat(recusada.getStatus(), is(equalTo(429)));
+        assertThat(recusada.getHeader("Retry-After"), is(notNullValue()));
+
+        assertThat(executar("PATCH", URL_CERVEJAS + "/1/incremento", "cliente-1").getStatus(), is(equalTo(HttpServletResponse.SC_OK)));
+        assertThat(meterRegistry.counter("cervejaria.limite.rejeicoes", "motivo", "taxa", "categoria", "LEITURA").count(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void quandoOutroClienteEntaoOrcamentoSeparado() throws Exception {
+        executar("PATCH", URL_CERVEJAS + "/1/incremento", "cliente-1");
+
+        assertThat(executar("PATCH", URL_CERVEJAS + "/1/incremento", "cliente-1").getStatus(), is(equalTo(429)));
+        assertThat(executar("PATCH", URL_CERVEJAS + "/1/incremento", "cliente-2").getStatus(), is(equalTo(HttpServletResponse.SC_OK)));
+    }
+
+    @Test
+    void quandoChaveDesconhecidaEntaoOrcamentoDoIp() throws Exception {
+        executar("PATCH", URL_CERVEJAS + "/1/incremento", "inventada-1");
+
+        assertThat(executar("PATCH", URL_CERVEJAS + "/1/incremento", "inventada-2").getStatus(), is(equalTo(429)));
+        assertThat(executar("PATCH", URL_CERVEJAS + "/1/incremento", "cliente-1").getStatus(), is(equalTo(HttpServletResponse.SC_OK)));
+    }
+
+    @Test
+    void quandoCriadoEntaoContadoresDeRejeicaoJaRegistrados() {
+        assertThat(meterRegistry.find("cervejaria.limite.rejeicoes").counters().size(), is(equalTo(4)));
+    }
+
+    @Test
+    void quandoImportacaoOuFluxoEntaoDuracaoNaoReduzLimite() throws Exception {
+        filter = criarFilter(Duration.ofNanos(1));
+
+        executar("POST", URL_CERVEJAS + "/importacao", "cliente-1");
+        executarComAccept(URL_CERVEJAS, "application/x-ndjson");
+        executarComAccept(URL_CERVEJAS + "/eventos", "text/event-stream");
+
+        assertThat(meterRegistry.get("cervejaria.limite.concorrencia").gauge().value(), is(equalTo(100.0)));
+        assertThat(meterRegistry.get("cervejaria.limite.em-andamento").gauge().value(), is(equalTo(0.0)));
+
+        executar("GET", URL_CERVEJAS, "cliente-2");
+
+        assertThat(meterRegistry.get("cervejaria.limite.concorrencia").gauge().value(), is(lessThan(100.0)));
+    }
+
+    @Test
+    void quandoForaDaApiEntaoNaoLimitado() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = executar("GET", "/actuator/prometheus", "cliente-1");
+            assertThat(response.getStatus(), is(equalTo(HttpServletResponse.SC_OK)));
+            assertThat(response.getHeader("Retry-After"), is(nullValue()));
+        }
+    }
+
+    private LimiteRequisicoesFilter criarFilter(Duration latenciaAlvo) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new LimiteRequisicoesFilter(meterRegistry, true, Set.of("cliente-1", "cliente-2"), 1000,
+                2, 0.001,
+                1, 0.001,
+                100, 10, 400, latenciaAlvo, 0.8);
+    }
+
+    private void executarComAccept(String url, String accept) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", url);
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private MockHttpServletResponse executar(String metodo, String url, String chaveApi) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, url);
+        request.addHeader(LimiteRequisicoesFilter.CABECALHO_CHAVE_API, chaveApi);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+}
@@ -0,0 +1,98 @@
+package br.com.backend.cervejaria.metricas;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.cache.CervejaCache;
+import br.com.backend.cervejaria.cache.FiltroNomesCadastrados;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.ReservaEstoqueRepository;
+import br.com.backend.cervejaria.service.CervejaService;
+import br.com.backend.cervejaria.service.EstoqueEmGrupo;
+import br.com.backend.cervejaria.service.EstoqueWriteBehind;
+import br.com.backend.cervejaria.service.HistoricoEstoqueService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CervejaServiceMetricasTest {
+
+    private static final long ID_CERVEJA = 1L;
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private CervejaCache cervejaCache;
+
+    @Mock
+    private EstoqueWriteBehind estoqueWriteBehind;
+
+    @Mock
+    private EstoqueEmGrupo estoqueEmGrupo;
+
+    @Mock
+    private HistoricoEstoqueService historicoEstoqueService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FiltroNomesCadastrados filtroNomesCadastrados;
+
+    @Mock
+    private ReservaEstoqueRepository reservaEstoqueRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CervejaService cervejaServiceMonitorado;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CervejaService cervejaService = new CervejaService(cervejaRepository, cervejaCache, estoqueWriteBehind, estoqueEmGrupo, historicoEstoqueService, eventPublisher, filtroNomesCadastrados, reservaEstoqueRepository);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(cervejaService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new CervejaServiceMetricas(meterRegistry));
+        cervejaServiceMonitorado = proxyFactory.getProxy();
+    }
+
+    @Test
+    void quandoOperacoesExecutadasEntaoTimerMarcadoPorResultado() throws Exception {
+        when(cervejaRepository.movimentarEstoque(ID_CERVEJA, 10)).thenReturn(1, 0);
+        when(cervejaRepository.findById(ID_CERVEJA))
+                .thenReturn(Optional.of(CervejaMapper.INSTANCE.toModel(CervejaDTOBuilder.builder().build().toCervejaDTO())));
+        when(cervejaRepository.encontrarPorNome("Inexistente")).thenReturn(Optional.empty());
+
+        cervejaServiceMonitorado.incrementar(ID_CERVEJA, 10);
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> cervejaServiceMonitorado.incrementar(ID_CERVEJA, 10));
+        assertThrows(CervejaNaoEncontradaException.class, () -> cervejaServiceMonitorado.encontrarPorNome("Inexistente"));
+
+        assertThat(contagem("incrementar", "sucesso"), is(equalTo(1L)));
+        assertThat(contagem("incrementar", "estoque-excedido"), is(equalTo(1L)));
+        assertThat(contagem("encontrarPorNome", "nao-encontrada"), is(equalTo(1L)));
+    }
+
+    private long contagem(String operacao, String resultado) {
+        return meterRegistry.get("cervejaria.servico")
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .timer()
+                .count();
+    }
+
+}
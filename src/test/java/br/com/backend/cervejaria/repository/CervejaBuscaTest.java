@@ -0,0 +1,126 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Busca contra o H2 real: filtros, contagens por tipo e os planos de
+ * execução, que devem usar os índices declarados em Cerveja.
+ */
+@SpringBootTest
+public class CervejaBuscaTest {
+
+    private static final String MARCA = "Busca Teste";
+    private static final int CERVEJAS_VOLUME = 300;
+
+    @Autowired
+    private CervejaRepository cervejaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cervejaRepository.deleteAll(cervejaRepository.findAll(CervejaEspecificacoes.marcaIgual(MARCA)));
+        List<Cerveja> cervejas = new ArrayList<>();
+        cervejas.add(cerveja("Brahma Duplo Malte", CervejaTipo.PILSEN, 30));
+        cervejas.add(cerveja("BRAHMA Black", CervejaTipo.STOUT, 5));
+        cervejas.add(cerveja("Bra_vo IPA", CervejaTipo.IPA, 12));
+        cervejas.add(cerveja("Skol", CervejaTipo.PILSEN, 40));
+        for (int i = 0; i < CERVEJAS_VOLUME; i++) {
+            cervejas.add(cerveja("Volume " + i, CervejaTipo.values()[i % CervejaTipo.values().length], i % 50));
+        }
+        cervejaRepository.saveAll(cervejas);
+    }
+
+    @Test
+    void quandoBuscaPorPrefixoEntaoIgnoraCaixaEOrdenaPeloNome() {
+        FiltroCervejaDTO filtro = FiltroCervejaDTO.builder().nome("brahma").marca(MARCA).build();
+
+        List<String> nomes = nomes(cervejaRepository.findAll(CervejaEspecificacoes.filtrar(filtro), Sort.by("nomeBusca")));
+
+        assertThat(nomes, contains("BRAHMA Black", "Brahma Duplo Malte"));
+    }
+
+    @Test
+    void quandoPrefixoTemCuringaEntaoCuringaTratadoComoTexto() {
+        FiltroCervejaDTO filtro = FiltroCervejaDTO.builder().nome("bra_").marca(MARCA).build();
+
+        assertThat(nomes(cervejaRepository.findAll(CervejaEspecificacoes.filtrar(filtro))), contains("Bra_vo IPA"));
+    }
+
+    @Test
+    void quandoFiltraPorTipoEEstoqueEntaoContagensIgnoramSomenteOFiltroDeTipo() {
+        FiltroCervejaDTO filtro = FiltroCervejaDTO.builder()
+                .nome("b")
+                .tipo(Collections.singletonList(CervejaTipo.PILSEN))
+                .marca(MARCA)
+                .quantidadeMinima(10)
+                .build();
+
+        List<String> nomes = nomes(cervejaRepository.findAll(CervejaEspecificacoes.filtrar(filtro)));
+        Map<CervejaTipo, Long> tipos = cervejaRepository.contarPorTipo(CervejaEspecificacoes.semTipo(filtro));
+
+        assertThat(nomes, contains("Brahma Duplo Malte"));
+        assertThat(tipos.get(CervejaTipo.PILSEN), is(equalTo(1L)));
+        assertThat(tipos.get(CervejaTipo.IPA), is(equalTo(1L)));
+        assertThat(tipos.get(CervejaTipo.STOUT), is(equalTo(0L)));
+        assertThat(tipos.get(CervejaTipo.BOCK), is(equalTo(0L)));
+    }
+
+    @Test
+    void quandoBuscaPorPrefixoDoNomeEntaoPlanoUsaIndiceNomeBusca() {
+        assertThat(plano("SELECT id FROM cerveja WHERE nome_busca LIKE 'bra%' ESCAPE '\\' ORDER BY nome_busca"),
+                containsStringIgnoringCase("idx_cerveja_nome_busca"));
+    }
+
+    @Test
+    void quandoBuscaPorMarcaEntaoPlanoUsaIndiceMarca() {
+        assertThat(plano("SELECT id FROM cerveja WHERE marca = 'Ambev'"),
+                containsStringIgnoringCase("idx_cerveja_marca"));
+    }
+
+    @Test
+    void quandoBuscaPorTiposEntaoPlanoUsaIndiceTipo() {
+        assertThat(plano("SELECT id FROM cerveja WHERE tipo IN ('IPA', 'STOUT')"),
+                containsStringIgnoringCase("idx_cerveja_tipo"));
+    }
+
+    private String plano(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private static List<String> nomes(List<Cerveja> cervejas) {
+        return cervejas.stream().map(Cerveja::getNome).collect(Collectors.toList());
+    }
+
+    private static Cerveja cerveja(String nome, CervejaTipo tipo, int quantidade) {
+        Cerveja cerveja = new Cerveja();
+        cerveja.setNome(nome);
+        cerveja.setMarca(MARCA);
+        cerveja.setMaximo(50);
+        cerveja.setQuantidade(quantidade);
+        cerveja.setTipo(tipo);
+        return cerveja;
+    }
+
+}
@@ -0,0 +1,125 @@
+package br.com.backend.cervejaria.repository;
+
+import br.com.backend.cervejaria.dto.MovimentoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Cache de segundo nível ligado contra o H2 real: leituras repetidas não
+ * voltam ao banco e os movimentos de estoque por JDBC não deixam a cerveja
+ * antiga no cache.
+ */
+@SpringBootTest(properties = "cervejaria.cache.segundo-nivel.ativo=true")
+public class CervejaCacheSegundoNivelTest {
+
+    @Autowired
+    private CervejaRepository cervejaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics estatisticas;
+    private Cerveja cerveja;
+
+    @BeforeEach
+    void setUp() {
+        cervejaRepository.findAll().stream()
+                .filter(existente -> existente.getNome().startsWith("Cache Teste"))
+                .forEach(cervejaRepository::delete);
+        cerveja = cervejaRepository.save(new Cerveja(null, "Cache Teste " + System.nanoTime(), null, "Cache", 100, 10, 0, CervejaTipo.PILSEN, null, null));
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        estatisticas.clear();
+    }
+
+    @Test
+    void quandoCervejaLidaDuasVezesEntaoSegundaLeituraVemDoCache() {
+        cervejaRepository.findById(cerveja.getId());
+        cervejaRepository.findById(cerveja.getId());
+
+        assertThat(estatisticas.getSecondLevelCacheHitCount(), is(equalTo(1L)));
+        assertThat(estatisticas.getEntityLoadCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    void quandoConsultaPorNomeRepetidaEntaoResultadoVemDoCache() {
+        cervejaRepository.encontrarPorNome(cerveja.getNome());
+        Cerveja encontrada = cervejaRepository.encontrarPorNome(cerveja.getNome()).orElseThrow();
+
+        assertThat(encontrada.getId(), is(equalTo(cerveja.getId())));
+        assertThat(estatisticas.getQueryCacheHitCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    void quandoEstoqueMovimentadoEntaoLeituraSeguinteTrazQuantidadeNova() {
+        cervejaRepository.findById(cerveja.getId());
+
+        cervejaRepository.movimentarEstoque(cerveja.getId(), 5);
+        Cerveja aposMovimento = cervejaRepository.findById(cerveja.getId()).orElseThrow();
+
+        assertThat(aposMovimento.getQuantidade(), is(equalTo(15)));
+        assertThat(aposMovimento.getVersao(), is(equalTo(cerveja.getVersao() + 1)));
+    }
+
+    @Test
+    void quandoEstoqueMovimentadoEmLoteOuWriteBehindEntaoCacheNaoFicaDesatualizado() {
+        cervejaRepository.findById(cerveja.getId());
+
+        cervejaRepository.movimentarEstoqueEmLote(List.of(new MovimentoDTO(cerveja.getId(), -3)));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                cervejaRepository.aplicarDeltasEstoque(Map.of(cerveja.getId(), 8)));
+
+        assertThat(cervejaRepository.findById(cerveja.getId()).orElseThrow().getQuantidade(), is(equalTo(15)));
+    }
+
+    @Test
+    void quandoEstoqueMovimentadoEmTransacaoAbertaEntaoLeituraConcorrenteNaoGuardaValorAntigo() {
+        cervejaRepository.findById(cerveja.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cervejaRepository.movimentarEstoque(cerveja.getId(), 5);
+            long guardadas = estatisticas.getSecondLevelCachePutCount();
+
+            Cerveja concorrente = CompletableFuture.supplyAsync(() -> cervejaRepository.findById(cerveja.getId()).orElseThrow()).join();
+
+            assertThat(concorrente.getQuantidade(), is(equalTo(10)));
+            assertThat(estatisticas.getSecondLevelCachePutCount(), is(equalTo(guardadas)));
+        });
+
+        assertThat(cervejaRepository.findById(cerveja.getId()).orElseThrow().getQuantidade(), is(equalTo(15)));
+    }
+
+    @Test
+    void quandoCacheAtivoEntaoEstatisticasPublicadasNoActuator() {
+        cervejaRepository.findById(cerveja.getId());
+
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").meters(), is(not(empty())));
+    }
+
+}
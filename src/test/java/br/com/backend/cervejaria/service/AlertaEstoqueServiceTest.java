@@ -0,0 +1,117 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.alerta.AlertaEstoqueListener;
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.AlertaEstoqueDTO;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.enums.AlertaEstoqueSituacao;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class AlertaEstoqueServiceTest {
+
+    private static final int PERCENTUAL_MINIMO = 10;
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private AlertaEstoqueListener alertaEstoqueListener;
+
+    private AlertaEstoqueService alertaEstoqueService;
+
+    @BeforeEach
+    void setUp() {
+        alertaEstoqueService = new AlertaEstoqueService(cervejaRepository, Collections.singletonList(alertaEstoqueListener), PERCENTUAL_MINIMO, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void quandoEstoqueChegaAoPercentualDoMaximoEntaoAlertaEmitidoUmaVez() {
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().maximo(50).quantidade(5).build().toCervejaDTO()));
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().maximo(50).quantidade(4).build().toCervejaDTO()));
+
+        ArgumentCaptor<AlertaEstoqueDTO> alerta = ArgumentCaptor.forClass(AlertaEstoqueDTO.class);
+        verify(alertaEstoqueListener, times(1)).notificar(alerta.capture());
+        assertThat(alerta.getValue().getSituacao(), is(equalTo(AlertaEstoqueSituacao.ABAIXO_DO_MINIMO)));
+        assertThat(alerta.getValue().getLimite(), is(equalTo(5)));
+
+        List<AlertaEstoqueDTO> abaixoDoMinimo = alertaEstoqueService.listarAbaixoDoMinimo();
+        assertThat(abaixoDoMinimo, hasSize(1));
+        assertThat(abaixoDoMinimo.get(0).getQuantidade(), is(equalTo(4)));
+    }
+
+    @Test
+    void quandoEstoqueVoltaAcimaDoMinimoInformadoEntaoAlertaNormalizado() {
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().minimo(20).quantidade(20).build().toCervejaDTO()));
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().minimo(20).quantidade(21).build().toCervejaDTO()));
+
+        ArgumentCaptor<AlertaEstoqueDTO> alertas = ArgumentCaptor.forClass(AlertaEstoqueDTO.class);
+        verify(alertaEstoqueListener, times(2)).notificar(alertas.capture());
+        assertThat(alertas.getAllValues().get(1).getSituacao(), is(equalTo(AlertaEstoqueSituacao.NORMALIZADO)));
+        assertThat(alertaEstoqueService.listarAbaixoDoMinimo(), is(empty()));
+    }
+
+    @Test
+    void quandoEstoqueAcimaDoMinimoEntaoNenhumAlerta() {
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().build().toCervejaDTO()));
+
+        verify(alertaEstoqueListener, never()).notificar(any());
+        assertThat(alertaEstoqueService.listarAbaixoDoMinimo(), is(empty()));
+    }
+
+    @Test
+    void quandoEventoMaisAntigoChegaDepoisEntaoIgnorado() {
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().maximo(50).quantidade(20).versao(2L).build().toCervejaDTO()));
+        alertaEstoqueService.avaliar(estoqueAlterado(CervejaDTOBuilder.builder().maximo(50).quantidade(3).versao(1L).build().toCervejaDTO()));
+
+        verify(alertaEstoqueListener, never()).notificar(any());
+        assertThat(alertaEstoqueService.listarAbaixoDoMinimo(), is(empty()));
+    }
+
+    @Test
+    void quandoEventoChegaDepoisDaRemocaoEntaoIgnorado() {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().maximo(50).quantidade(3).versao(1L).build().toCervejaDTO();
+        alertaEstoqueService.avaliar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cervejaDTO));
+        alertaEstoqueService.avaliar(estoqueAlterado(cervejaDTO));
+
+        verify(alertaEstoqueListener, never()).notificar(any());
+        assertThat(alertaEstoqueService.listarAbaixoDoMinimo(), is(empty()));
+    }
+
+    @Test
+    void quandoRemocaoExpiradaEntaoMarcaDaCervejaDescartada() {
+        alertaEstoqueService = new AlertaEstoqueService(cervejaRepository, Collections.singletonList(alertaEstoqueListener), PERCENTUAL_MINIMO, Duration.ZERO);
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().maximo(50).quantidade(3).versao(1L).build().toCervejaDTO();
+        alertaEstoqueService.avaliar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cervejaDTO));
+        alertaEstoqueService.avaliar(estoqueAlterado(cervejaDTO));
+
+        assertThat(alertaEstoqueService.listarAbaixoDoMinimo(), hasSize(1));
+    }
+
+    private CervejaEvento estoqueAlterado(CervejaDTO cervejaDTO) {
+        return new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cervejaDTO);
+    }
+
+}
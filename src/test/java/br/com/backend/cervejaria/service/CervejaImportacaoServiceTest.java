@@ -0,0 +1,126 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.ImportacaoResultadoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CervejaImportacaoServiceTest {
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CervejaImportacaoService cervejaImportacaoService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void quandoImportacaoComNomesRepetidosECadastradosEntaoSomenteNovasGravadas() {
+        CervejaDTO nova = CervejaDTOBuilder.builder().id(7L).nome("Nova").build().toCervejaDTO();
+        CervejaDTO repetida = CervejaDTOBuilder.builder().nome("Nova").build().toCervejaDTO();
+        CervejaDTO cadastrada = CervejaDTOBuilder.builder().nome("Brahma").build().toCervejaDTO();
+
+        when(validator.validate(any(CervejaDTO.class))).thenReturn(Collections.emptySet());
+        when(cervejaRepository.encontrarNomesCadastrados(anyCollection())).thenReturn(Collections.singletonList("Brahma"));
+
+        ImportacaoResultadoDTO resultado = cervejaImportacaoService.importar(Arrays.asList(nova, repetida, cadastrada));
+
+        ArgumentCaptor<List<Cerveja>> gravadas = ArgumentCaptor.forClass(List.class);
+        verify(cervejaRepository).saveAll(gravadas.capture());
+        assertThat(gravadas.getValue(), hasSize(1));
+        assertThat(gravadas.getValue().get(0).getNome(), is(equalTo("Nova")));
+        assertThat(gravadas.getValue().get(0).getId(), is(nullValue()));
+        assertThat(resultado.getImportadas(), is(equalTo(1)));
+        assertThat(resultado.getJaCadastradas(), contains("Brahma"));
+        assertThat(resultado.getRejeitadas(), hasSize(1));
+    }
+
+    @Test
+    void quandoCsvComLinhaInvalidaEntaoLinhaRejeitada() {
+        when(validator.validate(any(CervejaDTO.class))).thenReturn(Collections.emptySet());
+        when(cervejaRepository.encontrarNomesCadastrados(anyCollection())).thenReturn(Collections.emptyList());
+
+        ImportacaoResultadoDTO resultado = cervejaImportacaoService.importarCsv(
+                "nome,marca,maximo,quantidade,tipo\nBrahma,Ambev,50,10,BOCK\nSkol,Ambev,cinquenta,10,PILSEN\n");
+
+        assertThat(resultado.getImportadas(), is(equalTo(1)));
+        assertThat(resultado.getRejeitadas(), hasSize(1));
+        assertThat(resultado.getRejeitadas().get(0).startsWith("linha 3"), is(true));
+    }
+
+    @Test
+    void quandoImportacaoComItemNuloEntaoItemRejeitado() {
+        CervejaDTO nova = CervejaDTOBuilder.builder().nome("Nova").build().toCervejaDTO();
+
+        when(validator.validate(any(CervejaDTO.class))).thenReturn(Collections.emptySet());
+        when(cervejaRepository.encontrarNomesCadastrados(anyCollection())).thenReturn(Collections.emptyList());
+
+        ImportacaoResultadoDTO resultado = cervejaImportacaoService.importar(Arrays.asList(null, nova));
+
+        assertThat(resultado.getImportadas(), is(equalTo(1)));
+        assertThat(resultado.getRejeitadas(), contains("item 1: cerveja nula"));
+        verify(validator, times(1)).validate(any(CervejaDTO.class));
+    }
+
+    @Test
+    void quandoNomeGravadoPorImportacaoConcorrenteEntaoSomenteEleFicaDeFora() {
+        CervejaDTO nova = CervejaDTOBuilder.builder().nome("Nova").build().toCervejaDTO();
+        CervejaDTO concorrente = CervejaDTOBuilder.builder().nome("Concorrente").build().toCervejaDTO();
+
+        when(validator.validate(any(CervejaDTO.class))).thenReturn(Collections.emptySet());
+        when(cervejaRepository.encontrarNomesCadastrados(anyCollection()))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(Collections.singletonList("Concorrente"));
+        when(cervejaRepository.saveAll(anyIterable()))
+                .thenThrow(new DataIntegrityViolationException("nome duplicado"))
+                .thenReturn(Collections.emptyList())
+                .thenThrow(new DataIntegrityViolationException("nome duplicado"));
+
+        ImportacaoResultadoDTO resultado = cervejaImportacaoService.importar(Arrays.asList(nova, concorrente));
+
+        assertThat(resultado.getImportadas(), is(equalTo(1)));
+        assertThat(resultado.getJaCadastradas(), contains("Concorrente"));
+        assertThat(resultado.getRejeitadas(), hasSize(0));
+        verify(cervejaRepository, times(3)).saveAll(anyIterable());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+}
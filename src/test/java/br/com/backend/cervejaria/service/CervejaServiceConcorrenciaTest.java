@@ -0,0 +1,129 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class CervejaServiceConcorrenciaTest {
+
+    private static final int THREADS = 8;
+    private static final int MOVIMENTOS_POR_THREAD = 50;
+
+    @Autowired
+    private CervejaService cervejaService;
+
+    @Autowired
+    private CervejaRepository cervejaRepository;
+
+    @Test
+    void quandoIncrementosConcorrentesEntaoNenhumaAtualizacaoPerdida() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Concorrencia Incremento", 500, 0);
+
+        AtomicInteger falhas = executarEmParalelo(() -> cervejaService.incrementar(cerveja.getId(), 1));
+
+        assertThat(falhas.get(), is(equalTo(0)));
+        assertThat(quantidadeGravada(cerveja), is(equalTo(THREADS * MOVIMENTOS_POR_THREAD)));
+    }
+
+    @Test
+    void quandoIncrementosConcorrentesUltrapassamMaximoEntaoEstoqueParaNoMaximo() throws Exception {
+        int maximo = 100;
+        CervejaDTO cerveja = criarCerveja("Concorrencia Maximo", maximo, 0);
+
+        AtomicInteger falhas = executarEmParalelo(() -> cervejaService.incrementar(cerveja.getId(), 1));
+
+        assertThat(falhas.get(), is(equalTo(THREADS * MOVIMENTOS_POR_THREAD - maximo)));
+        assertThat(quantidadeGravada(cerveja), is(equalTo(maximo)));
+    }
+
+    @Test
+    void quandoIncrementosEDecrementosConcorrentesEntaoSaldoPreservado() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Concorrencia Saldo", 500, 250);
+        AtomicInteger sequencia = new AtomicInteger();
+
+        AtomicInteger falhas = executarEmParalelo(() -> {
+            if (sequencia.incrementAndGet() % 2 == 0) {
+                cervejaService.incrementar(cerveja.getId(), 1);
+            } else {
+                cervejaService.decrementar(cerveja.getId(), 1);
+            }
+        });
+
+        assertThat(falhas.get(), is(equalTo(0)));
+        assertThat(quantidadeGravada(cerveja), is(equalTo(250)));
+    }
+
+    /**
+     * O sufixo evita colisão de nomes com a subclasse, que roda os mesmos
+     * cenários em outro contexto sobre o mesmo banco H2 em memória.
+     */
+    private CervejaDTO criarCerveja(String nome, int maximo, int quantidade) throws CervejaJaCadastradaException {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder()
+                .id(null)
+                .nome(nome + " " + System.nanoTime())
+                .maximo(maximo)
+                .quantidade(quantidade)
+                .build()
+                .toCervejaDTO();
+        return cervejaService.criarCerveja(cervejaDTO);
+    }
+
+    private int quantidadeGravada(CervejaDTO cerveja) {
+        return cervejaRepository.findById(cerveja.getId()).orElseThrow(IllegalStateException::new).getQuantidade();
+    }
+
+    private AtomicInteger executarEmParalelo(Movimento movimento) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger falhas = new AtomicInteger();
+        List<Future<?>> tarefas = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int j = 0; j < MOVIMENTOS_POR_THREAD; j++) {
+                        try {
+                            movimento.executar();
+                        } catch (CervejaEstoqueExcedidoException e) {
+                            falhas.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return falhas;
+    }
+
+    @FunctionalInterface
+    private interface Movimento {
+        void executar() throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException;
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.com.backend.cervejaria.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Os mesmos cenários de concorrência, com os movimentos passando pelo
+ * commit em grupo contra o H2 real.
+ */
+@SpringBootTest(properties = "cervejaria.estoque.modo=grupo")
+public class CervejaServiceGrupoConcorrenciaTest extends CervejaServiceConcorrenciaTest {
+}
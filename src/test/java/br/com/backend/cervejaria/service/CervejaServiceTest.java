@@ -1,22 +1,55 @@
 package br.com.backend.cervejaria.service;
 
 import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.cache.CervejaCache;
+import br.com.backend.cervejaria.cache.FiltroNomesCadastrados;
+import br.com.backend.cervejaria.dto.BuscaCervejaDTO;
 import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.FiltroCervejaDTO;
+import br.com.backend.cervejaria.dto.MovimentoDTO;
+import br.com.backend.cervejaria.dto.MovimentoResultadoDTO;
+import br.com.backend.cervejaria.dto.PaginaCervejaDTO;
 import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.entity.ReservaEstoque;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.CervejaOrdenacao;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.enums.MovimentoStatus;
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import br.com.backend.cervejaria.evento.CervejaEvento;
 import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
 import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
 import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.exception.CursorInvalidoException;
 import br.com.backend.cervejaria.mapper.CervejaMapper;
 import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.ReservaEstoqueRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -24,7 +57,9 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +72,27 @@ public class CervejaServiceTest {
     @Mock
     private CervejaRepository cervejaRepository;
 
+    @Mock
+    private CervejaCache cervejaCache;
+
+    @Mock
+    private EstoqueWriteBehind estoqueWriteBehind;
+
+    @Mock
+    private EstoqueEmGrupo estoqueEmGrupo;
+
+    @Mock
+    private HistoricoEstoqueService historicoEstoqueService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FiltroNomesCadastrados filtroNomesCadastrados;
+
+    @Mock
+    private ReservaEstoqueRepository reservaEstoqueRepository;
+
     private CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
 
     @InjectMocks
@@ -48,6 +104,7 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperadaSalva = cervejaMapper.toModel(cervejaEsperadaDTO);
 
+        when(filtroNomesCadastrados.podeConter(cervejaEsperadaDTO.getNome())).thenReturn(true);
         when(cervejaRepository.encontrarPorNome(cervejaEsperadaDTO.getNome())).thenReturn(Optional.empty());
         when(cervejaRepository.save(cervejaEsperadaSalva)).thenReturn(cervejaEsperadaSalva);
 
@@ -63,9 +120,37 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaDuplicada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
+        when(filtroNomesCadastrados.podeConter(cervejaEsperadaDTO.getNome())).thenReturn(true);
+        when(cervejaRepository.encontrarPorNome(cervejaEsperadaDTO.getNome())).thenReturn(Optional.of(cervejaDuplicada));
+
+        assertThrows(CervejaJaCadastradaException.class, () -> cervejaService.criarCerveja(cervejaEsperadaDTO));
+    }
+
+    @Test
+    void quandoFiltroIndicaNomeAusenteEntaoCriaSemConsultarNome() throws CervejaJaCadastradaException {
+        CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        Cerveja cervejaEsperadaSalva = cervejaMapper.toModel(cervejaEsperadaDTO);
+
+        when(filtroNomesCadastrados.podeConter(cervejaEsperadaDTO.getNome())).thenReturn(false);
+        when(cervejaRepository.save(cervejaEsperadaSalva)).thenReturn(cervejaEsperadaSalva);
+
+        CervejaDTO cervejaCriadaDTO = cervejaService.criarCerveja(cervejaEsperadaDTO);
+
+        assertThat(cervejaCriadaDTO.getNome(), is(equalTo(cervejaEsperadaDTO.getNome())));
+        verify(cervejaRepository, never()).encontrarPorNome(cervejaEsperadaDTO.getNome());
+    }
+
+    @Test
+    void quandoRestricaoDeNomeUnicoVioladaEntaoExcecaoDeCervejaJaCadastrada() {
+        CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        Cerveja cervejaDuplicada = cervejaMapper.toModel(cervejaEsperadaDTO);
+
+        when(filtroNomesCadastrados.podeConter(cervejaEsperadaDTO.getNome())).thenReturn(false);
+        when(cervejaRepository.save(cervejaDuplicada)).thenThrow(new DataIntegrityViolationException("nome duplicado"));
         when(cervejaRepository.encontrarPorNome(cervejaEsperadaDTO.getNome())).thenReturn(Optional.of(cervejaDuplicada));
 
         assertThrows(CervejaJaCadastradaException.class, () -> cervejaService.criarCerveja(cervejaEsperadaDTO));
+        verify(eventPublisher, never()).publishEvent(ArgumentMatchers.any(CervejaEvento.class));
     }
 
     @Test
@@ -77,7 +162,19 @@ public class CervejaServiceTest {
 
         CervejaDTO cervejaEncontradaDTO = cervejaService.encontrarPorNome(cervejaEsperadaEncontradaDTO.getNome());
 
-        assertThat(cervejaEncontradaDTO, is(equalTo(cervejaEsperadaEncontrada)));
+        assertThat(cervejaEncontradaDTO, is(equalTo(cervejaEsperadaEncontradaDTO)));
+    }
+
+    @Test
+    void quandoNomeCervejaEmCacheEntaoNaoConsultarRepositorio() throws CervejaNaoEncontradaException {
+        CervejaDTO cervejaEmCacheDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+
+        when(cervejaCache.obter(cervejaEmCacheDTO.getNome())).thenReturn(Optional.of(cervejaEmCacheDTO));
+
+        CervejaDTO cervejaEncontradaDTO = cervejaService.encontrarPorNome(cervejaEmCacheDTO.getNome());
+
+        assertThat(cervejaEncontradaDTO, is(equalTo(cervejaEmCacheDTO)));
+        verify(cervejaRepository, never()).encontrarPorNome(cervejaEmCacheDTO.getNome());
     }
 
     @Test
@@ -89,6 +186,53 @@ public class CervejaServiceTest {
         assertThrows(CervejaNaoEncontradaException.class, () -> cervejaService.encontrarPorNome(cervejaEsperadaEncontradaDTO.getNome()));
     }
 
+    @Test
+    void quandoConsultasConcorrentesPorNomeEntaoUmaConsultaAoBancoPorRajada() throws Exception {
+        CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
+        AtomicReference<CountDownLatch> emExecucao = new AtomicReference<>();
+        AtomicReference<CountDownLatch> liberar = new AtomicReference<>();
+        when(cervejaRepository.encontrarPorNome(cervejaEsperadaDTO.getNome())).thenAnswer(invocacao -> {
+            emExecucao.get().countDown();
+            liberar.get().await(5, TimeUnit.SECONDS);
+            return Optional.of(cervejaEsperada);
+        });
+
+        for (int rajada = 1; rajada <= 2; rajada++) {
+            emExecucao.set(new CountDownLatch(1));
+            liberar.set(new CountDownLatch(1));
+            List<CervejaDTO> resultados = new CopyOnWriteArrayList<>();
+            Runnable consulta = () -> {
+                try {
+                    resultados.add(cervejaService.encontrarPorNome(cervejaEsperadaDTO.getNome()));
+                } catch (CervejaNaoEncontradaException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            Thread primeira = new Thread(consulta);
+            primeira.start();
+            assertThat(emExecucao.get().await(5, TimeUnit.SECONDS), is(true));
+            List<Thread> seguintes = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                Thread seguinte = new Thread(consulta);
+                seguinte.start();
+                seguintes.add(seguinte);
+            }
+            for (Thread seguinte : seguintes) {
+                aguardarEstado(seguinte, Thread.State.WAITING);
+            }
+            liberar.get().countDown();
+            primeira.join(5000);
+            for (Thread seguinte : seguintes) {
+                seguinte.join(5000);
+            }
+
+            assertThat(resultados, hasSize(16));
+            assertThat(resultados, everyItem(is(equalTo(cervejaEsperadaDTO))));
+            verify(cervejaRepository, times(rajada)).encontrarPorNome(cervejaEsperadaDTO.getNome());
+        }
+    }
+
     @Test
     void quandoListaCervejaEchamadaEntaoRetorneUmalistaCervejas() {
         CervejaDTO cervejaEsperadaEncontradaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
@@ -111,18 +255,49 @@ public class CervejaServiceTest {
         assertThat(encontrarListaCervejasDTO, is(empty()));
     }
 
+    @Test
+    void quandoPaginaSolicitadaEntaoRetornarItensECursorDaProximaPagina() throws CursorInvalidoException {
+        Cerveja primeira = cervejaMapper.toModel(CervejaDTOBuilder.builder().id(1L).nome("Brahma").build().toCervejaDTO());
+        Cerveja segunda = cervejaMapper.toModel(CervejaDTOBuilder.builder().id(2L).nome("Skol").build().toCervejaDTO());
+
+        when(cervejaRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(primeira, segunda));
+        when(cervejaRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 2))).thenReturn(Collections.singletonList(segunda));
+
+        PaginaCervejaDTO primeiraPagina = cervejaService.listarPagina(null, 1);
+        PaginaCervejaDTO segundaPagina = cervejaService.listarPagina(primeiraPagina.getProximoCursor(), 1);
+
+        assertThat(primeiraPagina.getItens(), contains(cervejaMapper.toDTO(primeira)));
+        assertThat(primeiraPagina.getProximoCursor(), is(notNullValue()));
+        assertThat(segundaPagina.getItens(), contains(cervejaMapper.toDTO(segunda)));
+        assertThat(segundaPagina.getProximoCursor(), is(nullValue()));
+    }
+
+    @Test
+    void quandoCursorInvalidoEntaoLancarExcecao() {
+        assertThrows(CursorInvalidoException.class, () -> cervejaService.listarPagina("nao-e-um-cursor", 10));
+    }
+
     @Test
     void quandoExclusaoChamadoComIdValidoEntaoCervejaDeveSerDeletada() throws CervejaNaoEncontradaException{
         CervejaDTO cervejaDeletadaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaDeletadaEsperada = cervejaMapper.toModel(cervejaDeletadaEsperadaDTO);
 
-        when(cervejaRepository.findById(cervejaDeletadaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaDeletadaEsperada));
+        ReservaEstoque reservaAberta = new ReservaEstoque(1L, cervejaDeletadaEsperadaDTO.getId(), 2, ReservaStatus.ABERTA, Instant.now(), Instant.now().plusSeconds(60));
+
+        when(cervejaRepository.travarPorId(cervejaDeletadaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaDeletadaEsperada));
+        when(reservaEstoqueRepository.findByCervejaIdAndStatus(cervejaDeletadaEsperadaDTO.getId(), ReservaStatus.ABERTA)).thenReturn(List.of(reservaAberta));
         doNothing().when(cervejaRepository).deleteById(cervejaDeletadaEsperadaDTO.getId());
 
         cervejaService.deletarPorId(cervejaDeletadaEsperadaDTO.getId());
 
-        verify(cervejaRepository, times(1)).findById(cervejaDeletadaEsperadaDTO.getId());
+        verify(cervejaRepository, times(1)).travarPorId(cervejaDeletadaEsperadaDTO.getId());
         verify(cervejaRepository, times(1)).deleteById(cervejaDeletadaEsperadaDTO.getId());
+        assertThat(reservaAberta.getStatus(), is(equalTo(ReservaStatus.CANCELADA)));
+
+        ArgumentCaptor<CervejaEvento> evento = ArgumentCaptor.forClass(CervejaEvento.class);
+        verify(eventPublisher, times(1)).publishEvent(evento.capture());
+        assertThat(evento.getValue().getTipo(), is(equalTo(CervejaEventoTipo.REMOVIDA)));
+        assertThat(evento.getValue().getCerveja().getId(), is(equalTo(cervejaDeletadaEsperadaDTO.getId())));
     }
 
     @Test
@@ -130,16 +305,41 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
-        when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
-        when(cervejaRepository.save(cervejaEsperada)).thenReturn(cervejaEsperada);
-
         int quantidadeAincrementar = 10;
         int quantidadeEsperadaAposIncremento = cervejaEsperadaDTO.getQuantidade() + quantidadeAincrementar;
+        cervejaEsperada.setQuantidade(quantidadeEsperadaAposIncremento);
+
+        when(cervejaRepository.movimentarEstoque(cervejaEsperadaDTO.getId(), quantidadeAincrementar)).thenReturn(1);
+        when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
 
         CervejaDTO incrementedCervejaDTO = cervejaService.incrementar(cervejaEsperadaDTO.getId(), quantidadeAincrementar);
 
         assertThat(quantidadeEsperadaAposIncremento, equalTo(incrementedCervejaDTO.getQuantidade()));
         assertThat(quantidadeEsperadaAposIncremento, lessThan(cervejaEsperadaDTO.getMaximo()));
+        verify(historicoEstoqueService, times(1)).registrar(cervejaEsperadaDTO.getId(), quantidadeAincrementar);
+
+        ArgumentCaptor<CervejaEvento> evento = ArgumentCaptor.forClass(CervejaEvento.class);
+        verify(eventPublisher, times(1)).publishEvent(evento.capture());
+        assertThat(evento.getValue().getTipo(), is(equalTo(CervejaEventoTipo.ESTOQUE_ALTERADO)));
+        assertThat(evento.getValue().getCerveja().getQuantidade(), is(equalTo(quantidadeEsperadaAposIncremento)));
+    }
+
+    @Test
+    void quandoModoWriteBehindAtivoEntaoIncrementoNaoAcessaBanco() throws CervejaNaoEncontradaException, CervejaEstoqueExcedidoException {
+        CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().quantidade(20).build().toCervejaDTO();
+        int quantidadeAincrementar = 10;
+
+        when(estoqueWriteBehind.isAtivo()).thenReturn(true);
+        when(estoqueWriteBehind.movimentar(cervejaEsperadaDTO.getId(), quantidadeAincrementar, quantidadeAincrementar)).thenReturn(cervejaEsperadaDTO);
+
+        CervejaDTO incrementedCervejaDTO = cervejaService.incrementar(cervejaEsperadaDTO.getId(), quantidadeAincrementar);
+
+        assertThat(incrementedCervejaDTO, is(equalTo(cervejaEsperadaDTO)));
+        verify(cervejaRepository, never()).movimentarEstoque(cervejaEsperadaDTO.getId(), quantidadeAincrementar);
+
+        ArgumentCaptor<CervejaEvento> evento = ArgumentCaptor.forClass(CervejaEvento.class);
+        verify(eventPublisher, times(1)).publishEvent(evento.capture());
+        assertThat(evento.getValue().getCerveja(), is(equalTo(cervejaEsperadaDTO)));
     }
 
     @Test
@@ -147,9 +347,10 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
+        int quantidadeAincrementar = 80;
+        when(cervejaRepository.movimentarEstoque(cervejaEsperadaDTO.getId(), quantidadeAincrementar)).thenReturn(0);
         when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
 
-        int quantidadeAincrementar = 80;
         assertThrows(CervejaEstoqueExcedidoException.class, () -> cervejaService.incrementar(cervejaEsperadaDTO.getId(), quantidadeAincrementar));
     }
 
@@ -159,9 +360,10 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
+        int quantidadeAincrementar = 45;
+        when(cervejaRepository.movimentarEstoque(cervejaEsperadaDTO.getId(), quantidadeAincrementar)).thenReturn(0);
         when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
 
-        int quantidadeAincrementar = 45;
         assertThrows(CervejaEstoqueExcedidoException.class, () -> cervejaService.incrementar(cervejaEsperadaDTO.getId(), quantidadeAincrementar));
     }
 
@@ -169,6 +371,7 @@ public class CervejaServiceTest {
     void quandoIncrementoChamadoComIdInvalidoEntaoLancarExcecao() {
         int quantidadeAincrementar = 10;
 
+        when(cervejaRepository.movimentarEstoque(ID_INVALIDO_CERVEJA, quantidadeAincrementar)).thenReturn(0);
         when(cervejaRepository.findById(ID_INVALIDO_CERVEJA)).thenReturn(Optional.empty());
 
         assertThrows(CervejaNaoEncontradaException.class, () -> cervejaService.incrementar(ID_INVALIDO_CERVEJA, quantidadeAincrementar));
@@ -183,15 +386,18 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
-        when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
-        when(cervejaRepository.save(cervejaEsperada)).thenReturn(cervejaEsperada);
-
         int quantidadeDecrementar = 5;
         int quantidadeEsperadaAposDecremento = cervejaEsperadaDTO.getQuantidade() - quantidadeDecrementar;
+        cervejaEsperada.setQuantidade(quantidadeEsperadaAposDecremento);
+
+        when(cervejaRepository.movimentarEstoque(cervejaEsperadaDTO.getId(), -quantidadeDecrementar)).thenReturn(1);
+        when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
+
         CervejaDTO cervejaDecrementadaDTO = cervejaService.decrementar(cervejaEsperadaDTO.getId(), quantidadeDecrementar);
 
         assertThat(quantidadeEsperadaAposDecremento, equalTo(cervejaDecrementadaDTO.getQuantidade()));
         assertThat(quantidadeEsperadaAposDecremento, greaterThan(0));
+        verify(historicoEstoqueService, times(1)).registrar(cervejaEsperadaDTO.getId(), -quantidadeDecrementar);
     }
 
     @Test
@@ -199,11 +405,13 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
-        when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
-        when(cervejaRepository.save(cervejaEsperada)).thenReturn(cervejaEsperada);
-
         int quantidadeDecrementar = 10;
         int quantidadeEsperadaAposDecremento = cervejaEsperadaDTO.getQuantidade() - quantidadeDecrementar;
+        cervejaEsperada.setQuantidade(quantidadeEsperadaAposDecremento);
+
+        when(cervejaRepository.movimentarEstoque(cervejaEsperadaDTO.getId(), -quantidadeDecrementar)).thenReturn(1);
+        when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
+
         CervejaDTO cervejaDecrementadaDTO = cervejaService.decrementar(cervejaEsperadaDTO.getId(), quantidadeDecrementar);
 
         assertThat(quantidadeEsperadaAposDecremento, equalTo(0));
@@ -215,9 +423,10 @@ public class CervejaServiceTest {
         CervejaDTO cervejaEsperadaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
         Cerveja cervejaEsperada = cervejaMapper.toModel(cervejaEsperadaDTO);
 
+        int quantidadeDecrementar = 80;
+        when(cervejaRepository.movimentarEstoque(cervejaEsperadaDTO.getId(), -quantidadeDecrementar)).thenReturn(0);
         when(cervejaRepository.findById(cervejaEsperadaDTO.getId())).thenReturn(Optional.of(cervejaEsperada));
 
-        int quantidadeDecrementar = 80;
         assertThrows(CervejaEstoqueExcedidoException.class, () -> cervejaService.decrementar(cervejaEsperadaDTO.getId(), quantidadeDecrementar));
     }
 
@@ -225,9 +434,62 @@ public class CervejaServiceTest {
     void quandoDecrementarChamadoComIdInvalidoEntaoLancarExcecao() {
         int quantidadeDecrementar = 10;
 
+        when(cervejaRepository.movimentarEstoque(ID_INVALIDO_CERVEJA, -quantidadeDecrementar)).thenReturn(0);
         when(cervejaRepository.findById(ID_INVALIDO_CERVEJA)).thenReturn(Optional.empty());
 
         assertThrows(CervejaNaoEncontradaException.class, () -> cervejaService.decrementar(ID_INVALIDO_CERVEJA, quantidadeDecrementar));
     }
 
+//Movimentos em lote
+
+    @Test
+    void quandoMovimentosEmLoteEntaoAplicarOrdenadoPorIdERetornarNaOrdemEnviada() {
+        List<MovimentoDTO> movimentos = Arrays.asList(
+                new MovimentoDTO(2L, -5),
+                new MovimentoDTO(1L, 10),
+                new MovimentoDTO(3L, 1));
+        List<MovimentoDTO> movimentosOrdenados = Arrays.asList(
+                new MovimentoDTO(1L, 10),
+                new MovimentoDTO(2L, -5),
+                new MovimentoDTO(3L, 1));
+
+        when(cervejaRepository.movimentarEstoqueEmLote(movimentosOrdenados)).thenReturn(new int[]{1, 0, 0});
+        when(cervejaRepository.encontrarIdsExistentes(new HashSet<>(Arrays.asList(2L, 3L)))).thenReturn(Collections.singletonList(2L));
+
+        List<MovimentoResultadoDTO> resultados = cervejaService.movimentarEmLote(movimentos);
+
+        assertThat(resultados, contains(
+                new MovimentoResultadoDTO(2L, -5, MovimentoStatus.ESTOQUE_EXCEDIDO),
+                new MovimentoResultadoDTO(1L, 10, MovimentoStatus.APLICADO),
+                new MovimentoResultadoDTO(3L, 1, MovimentoStatus.NAO_ENCONTRADA)));
+    }
+
+    @Test
+    void quandoBuscaChamadaEntaoPaginaOrdenadaComContagensPorTipoRetornada() {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        Cerveja cerveja = cervejaMapper.toModel(cervejaDTO);
+        FiltroCervejaDTO filtro = FiltroCervejaDTO.builder().nome("bra").tipo(Collections.singletonList(CervejaTipo.BOCK)).build();
+        PageRequest paginaEsperada = PageRequest.of(0, 500, Sort.by(Sort.Direction.DESC, "quantidade").and(Sort.by("id")));
+        Map<CervejaTipo, Long> tipos = Collections.singletonMap(CervejaTipo.BOCK, 1L);
+
+        when(cervejaRepository.findAll(ArgumentMatchers.<Specification<Cerveja>>any(), eq(paginaEsperada)))
+                .thenReturn(new PageImpl<>(Collections.singletonList(cerveja), paginaEsperada, 1));
+        when(cervejaRepository.contarPorTipo(ArgumentMatchers.any())).thenReturn(tipos);
+
+        BuscaCervejaDTO busca = cervejaService.buscar(filtro, CervejaOrdenacao.QUANTIDADE, Sort.Direction.DESC, -1, 10_000);
+
+        assertThat(busca.getItens(), is(equalTo(Collections.singletonList(cervejaDTO))));
+        assertThat(busca.getTotal(), is(equalTo(1L)));
+        assertThat(busca.getPagina(), is(equalTo(0)));
+        assertThat(busca.getTipos(), is(equalTo(tipos)));
+    }
+
+    private static void aguardarEstado(Thread thread, Thread.State estado) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != estado && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertThat(thread.getState(), is(equalTo(estado)));
+    }
+
 }
@@ -0,0 +1,146 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.AgregadosEstoqueDTO;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.EstoqueAgregadoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.CervejaTipo;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EstoqueAgregadoServiceTest {
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private EstoqueWriteBehind estoqueWriteBehind;
+
+    private EstoqueAgregadoService estoqueAgregadoService;
+
+    @BeforeEach
+    void setUp() {
+        estoqueAgregadoService = new EstoqueAgregadoService(cervejaRepository, estoqueWriteBehind, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void quandoCarregadoEntaoTotaisPorTipoEMarcaCalculados() {
+        carregarDoBanco(
+                cerveja(1L, "Brahma", "Ambev", CervejaTipo.BOCK, 10, 50, 0L),
+                cerveja(2L, "Skol", "Ambev", CervejaTipo.PILSEN, 20, 50, 0L),
+                cerveja(3L, "Colorado", "Colorado", CervejaTipo.BOCK, 5, 100, 0L));
+
+        AgregadosEstoqueDTO agregados = estoqueAgregadoService.consultar();
+
+        assertThat(agregados.getTipos(), hasSize(2));
+        assertThat(agregados.getTipos().get(0), is(equalTo(agregado("BOCK", 2, 15, 150, 10.0))));
+        assertThat(agregados.getMarcas().get(0), is(equalTo(agregado("Ambev", 2, 30, 100, 30.0))));
+        assertThat(estoqueAgregadoService.quantidadePorTipo(CervejaTipo.PILSEN), is(equalTo(20L)));
+    }
+
+    @Test
+    void quandoEstoqueAlteradoEntaoSomenteDiferencaAplicada() {
+        carregarDoBanco(cerveja(1L, "Brahma", "Ambev", CervejaTipo.BOCK, 10, 50, 0L));
+
+        estoqueAgregadoService.atualizar(evento(CervejaEventoTipo.ESTOQUE_ALTERADO, 1L, 25, 2L));
+        estoqueAgregadoService.atualizar(evento(CervejaEventoTipo.ESTOQUE_ALTERADO, 1L, 15, 1L));
+
+        assertThat(estoqueAgregadoService.consultar().getTipos().get(0), is(equalTo(agregado("BOCK", 1, 25, 50, 50.0))));
+    }
+
+    @Test
+    void quandoCervejaRemovidaEntaoGrupoVazioOmitidoEEventoAtrasadoIgnorado() {
+        carregarDoBanco(cerveja(1L, "Brahma", "Ambev", CervejaTipo.BOCK, 10, 50, 0L));
+
+        estoqueAgregadoService.atualizar(evento(CervejaEventoTipo.REMOVIDA, 1L, 10, 0L));
+        estoqueAgregadoService.atualizar(evento(CervejaEventoTipo.ESTOQUE_ALTERADO, 1L, 12, 1L));
+
+        AgregadosEstoqueDTO agregados = estoqueAgregadoService.consultar();
+        assertThat(agregados.getTipos(), is(empty()));
+        assertThat(agregados.getMarcas(), is(empty()));
+        assertThat(estoqueAgregadoService.quantidadePorTipo(CervejaTipo.BOCK), is(equalTo(0L)));
+    }
+
+    @Test
+    void quandoRemocaoExpiradaEntaoMarcaDaCervejaDescartada() {
+        estoqueAgregadoService = new EstoqueAgregadoService(cervejaRepository, estoqueWriteBehind, Duration.ZERO);
+        carregarDoBanco(cerveja(1L, "Brahma", "Ambev", CervejaTipo.BOCK, 10, 50, 0L));
+
+        estoqueAgregadoService.atualizar(evento(CervejaEventoTipo.REMOVIDA, 1L, 10, 0L));
+        estoqueAgregadoService.atualizar(evento(CervejaEventoTipo.ESTOQUE_ALTERADO, 1L, 12, 1L));
+
+        assertThat(estoqueAgregadoService.quantidadePorTipo(CervejaTipo.BOCK), is(equalTo(12L)));
+    }
+
+    @Test
+    void quandoSaldoEmMemoriaNoWriteBehindEntaoPrevaleceSobreOBanco() {
+        Cerveja emMemoria = cerveja(1L, "Brahma", "Ambev", CervejaTipo.BOCK, 40, 50, 5L);
+        when(estoqueWriteBehind.estadoAtual(1L)).thenReturn(Optional.of(CervejaMapper.INSTANCE.toDTO(emMemoria)));
+
+        carregarDoBanco(cerveja(1L, "Brahma", "Ambev", CervejaTipo.BOCK, 10, 50, 2L));
+
+        assertThat(estoqueAgregadoService.quantidadePorTipo(CervejaTipo.BOCK), is(equalTo(40L)));
+    }
+
+    private void carregarDoBanco(Cerveja... cervejas) {
+        doAnswer(invocacao -> {
+            Consumer<Cerveja> consumidor = invocacao.getArgument(0);
+            for (Cerveja cerveja : cervejas) {
+                consumidor.accept(cerveja);
+            }
+            return null;
+        }).when(cervejaRepository).percorrerTodas(any());
+        estoqueAgregadoService.carregar();
+    }
+
+    private static CervejaEvento evento(CervejaEventoTipo tipo, Long id, int quantidade, Long versao) {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder()
+                .id(id)
+                .quantidade(quantidade)
+                .versao(versao)
+                .build()
+                .toCervejaDTO();
+        return new CervejaEvento(tipo, cervejaDTO);
+    }
+
+    private static Cerveja cerveja(Long id, String nome, String marca, CervejaTipo tipo, int quantidade, int maximo, Long versao) {
+        Cerveja cerveja = CervejaMapper.INSTANCE.toModel(CervejaDTOBuilder.builder()
+                .id(id)
+                .nome(nome)
+                .marca(marca)
+                .tipo(tipo)
+                .quantidade(quantidade)
+                .maximo(maximo)
+                .build()
+                .toCervejaDTO());
+        cerveja.setVersao(versao);
+        return cerveja;
+    }
+
+    private static EstoqueAgregadoDTO agregado(String grupo, long cervejas, long quantidade, long maximo, double percentualOcupacao) {
+        return new EstoqueAgregadoDTO(grupo, cervejas, quantidade, maximo, percentualOcupacao);
+    }
+
+}
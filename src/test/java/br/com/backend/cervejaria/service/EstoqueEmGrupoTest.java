@@ -0,0 +1,172 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EstoqueEmGrupoTest {
+
+    private static final long ID_CERVEJA = 1L;
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService chamadores = Executors.newFixedThreadPool(4);
+    private EstoqueEmGrupo estoqueEmGrupo;
+
+    @AfterEach
+    void tearDown() {
+        chamadores.shutdownNow();
+        if (estoqueEmGrupo != null) {
+            estoqueEmGrupo.encerrar();
+        }
+    }
+
+    @Test
+    void quandoMovimentosChegamDuranteUmCommitEntaoProximoGrupoGravadoDeUmaVez() throws Exception {
+        AtomicReference<Cerveja> banco = new AtomicReference<>(cerveja(0, 25, 3L));
+        CountDownLatch primeiroTravado = new CountDownLatch(1);
+        CountDownLatch liberarPrimeiro = new CountDownLatch(1);
+        when(cervejaRepository.travarPorId(ID_CERVEJA)).thenAnswer(invocacao -> {
+            primeiroTravado.countDown();
+            liberarPrimeiro.await(5, TimeUnit.SECONDS);
+            return Optional.of(copia(banco.get()));
+        });
+        doAnswer(invocacao -> {
+            Cerveja gravada = copia(banco.get());
+            gravada.setQuantidade(invocacao.getArgument(1));
+            gravada.setVersao(invocacao.getArgument(2));
+            banco.set(gravada);
+            return null;
+        }).when(cervejaRepository).gravarEstoque(anyLong(), anyInt(), anyLong());
+        estoqueEmGrupo = criarEstoqueEmGrupo();
+
+        Future<CervejaDTO> primeiro = chamadores.submit(() -> estoqueEmGrupo.movimentar(ID_CERVEJA, 10, 10));
+        assertThat(primeiroTravado.await(5, TimeUnit.SECONDS), is(true));
+        List<Future<CervejaDTO>> seguintes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            seguintes.add(chamadores.submit(() -> estoqueEmGrupo.movimentar(ID_CERVEJA, 10, 10)));
+        }
+        aguardarGrupoCompleto(3);
+        liberarPrimeiro.countDown();
+
+        assertThat(primeiro.get(5, TimeUnit.SECONDS).getQuantidade(), is(equalTo(10)));
+        List<Object> resultados = new ArrayList<>();
+        for (Future<CervejaDTO> seguinte : seguintes) {
+            try {
+                resultados.add(seguinte.get(5, TimeUnit.SECONDS).getQuantidade());
+            } catch (ExecutionException e) {
+                resultados.add(e.getCause().getClass());
+            }
+        }
+
+        assertThat(resultados, containsInAnyOrder(20, CervejaEstoqueExcedidoException.class, CervejaEstoqueExcedidoException.class));
+        assertThat(banco.get().getQuantidade(), is(equalTo(20)));
+        assertThat(banco.get().getVersao(), is(equalTo(5L)));
+        verify(cervejaRepository, times(2)).travarPorId(ID_CERVEJA);
+        verify(cervejaRepository, times(2)).gravarEstoque(anyLong(), anyInt(), anyLong());
+        assertThat(meterRegistry.get("cervejaria.estoque.grupo").summary().totalAmount(), is(equalTo(4.0)));
+    }
+
+    @Test
+    void quandoTodosMovimentosRecusadosEntaoNadaGravado() {
+        when(cervejaRepository.travarPorId(ID_CERVEJA)).thenReturn(Optional.of(cerveja(5, 10, 1L)));
+        estoqueEmGrupo = criarEstoqueEmGrupo();
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> estoqueEmGrupo.movimentar(ID_CERVEJA, -6, 6));
+        verify(cervejaRepository, never()).gravarEstoque(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void quandoCervejaInexistenteEntaoExcecaoLancada() {
+        when(cervejaRepository.travarPorId(ID_CERVEJA)).thenReturn(Optional.empty());
+        estoqueEmGrupo = criarEstoqueEmGrupo();
+
+        assertThrows(CervejaNaoEncontradaException.class, () -> estoqueEmGrupo.movimentar(ID_CERVEJA, 1, 1));
+    }
+
+    @Test
+    void quandoFalhaNoBancoEntaoChamadorRecebeAFalha() {
+        when(cervejaRepository.travarPorId(ID_CERVEJA)).thenThrow(new IllegalStateException("banco indisponível"));
+        estoqueEmGrupo = criarEstoqueEmGrupo();
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class, () -> estoqueEmGrupo.movimentar(ID_CERVEJA, 1, 1));
+        assertThat(erro.getMessage(), is(equalTo("banco indisponível")));
+    }
+
+    private void aguardarGrupoCompleto(int chamadoresEsperando) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < limite) {
+            long esperando = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getState() == Thread.State.WAITING)
+                    .filter(thread -> List.of(thread.getStackTrace()).stream()
+                            .anyMatch(quadro -> quadro.getMethodName().equals("movimentar")
+                                    && quadro.getClassName().equals(EstoqueEmGrupo.class.getName())))
+                    .count();
+            if (esperando >= chamadoresEsperando + 1) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        throw new IllegalStateException("Chamadores não chegaram à fila a tempo");
+    }
+
+    private EstoqueEmGrupo criarEstoqueEmGrupo() {
+        return new EstoqueEmGrupo(cervejaRepository, transactionManager, meterRegistry, ModoEstoque.GRUPO, 2, 256);
+    }
+
+    private static Cerveja cerveja(int quantidade, int maximo, long versao) {
+        Cerveja cerveja = CervejaMapper.INSTANCE.toModel(CervejaDTOBuilder.builder().build().toCervejaDTO());
+        cerveja.setId(ID_CERVEJA);
+        cerveja.setQuantidade(quantidade);
+        cerveja.setMaximo(maximo);
+        cerveja.setVersao(versao);
+        return cerveja;
+    }
+
+    private static Cerveja copia(Cerveja cerveja) {
+        return cerveja(cerveja.getQuantidade(), cerveja.getMaximo(), cerveja.getVersao());
+    }
+
+}
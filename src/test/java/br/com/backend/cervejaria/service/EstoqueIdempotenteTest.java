@@ -0,0 +1,219 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.ChaveIdempotencia;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaEmUsoException;
+import br.com.backend.cervejaria.exception.ChaveIdempotenciaReutilizadaException;
+import br.com.backend.cervejaria.repository.ChaveIdempotenciaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EstoqueIdempotenteTest {
+
+    private static final long ID_CERVEJA = 1L;
+
+    private static final String CHAVE = "pedido-1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private CervejaService cervejaService;
+
+    @Mock
+    private ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void quandoChaveRepetidaEntaoRespostaOriginalSemNovoMovimento() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().quantidade(20).build().toCervejaDTO();
+        when(cervejaService.incrementar(ID_CERVEJA, 10)).thenReturn(cervejaDTO);
+
+        ChaveIdempotencia[] gravada = new ChaveIdempotencia[1];
+        when(chaveIdempotenciaRepository.saveAndFlush(any(ChaveIdempotencia.class))).thenAnswer(invocacao -> {
+            gravada[0] = invocacao.getArgument(0);
+            return gravada[0];
+        });
+        when(chaveIdempotenciaRepository.findById(CHAVE)).thenAnswer(invocacao -> Optional.of(gravada[0]));
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofSeconds(5));
+        CervejaDTO primeira = estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10);
+        CervejaDTO repetida = estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10);
+
+        assertThat(repetida, is(equalTo(primeira)));
+        assertThat(gravada[0].getResposta(), is(notNullValue()));
+        verify(cervejaService, times(1)).incrementar(ID_CERVEJA, 10);
+        verify(chaveIdempotenciaRepository, times(1)).saveAndFlush(any(ChaveIdempotencia.class));
+    }
+
+    @Test
+    void quandoChaveReutilizadaComOutraRequisicaoEntaoExcecaoLancada() throws Exception {
+        when(cervejaService.incrementar(ID_CERVEJA, 10)).thenReturn(CervejaDTOBuilder.builder().build().toCervejaDTO());
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofSeconds(5));
+        estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10);
+
+        assertThrows(ChaveIdempotenciaReutilizadaException.class, () -> estoqueIdempotente.decrementar(CHAVE, ID_CERVEJA, 10));
+        verify(cervejaService, never()).decrementar(ID_CERVEJA, 10);
+    }
+
+    @Test
+    void quandoMovimentoRecusadoEntaoRepeticaoRecebeMesmoErro() throws Exception {
+        when(cervejaService.decrementar(ID_CERVEJA, 100)).thenThrow(new CervejaEstoqueExcedidoException(ID_CERVEJA, 100));
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofSeconds(5));
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> estoqueIdempotente.decrementar(CHAVE, ID_CERVEJA, 100));
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> estoqueIdempotente.decrementar(CHAVE, ID_CERVEJA, 100));
+        verify(cervejaService, times(1)).decrementar(ID_CERVEJA, 100);
+    }
+
+    @Test
+    void quandoFalhaInesperadaEntaoNovaTentativaExecuta() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        when(cervejaService.incrementar(ID_CERVEJA, 10))
+                .thenThrow(new IllegalStateException("banco indisponível"))
+                .thenReturn(cervejaDTO);
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofSeconds(5));
+
+        assertThrows(IllegalStateException.class, () -> estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10));
+        assertThat(estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10), is(equalTo(cervejaDTO)));
+        verify(cervejaService, times(2)).incrementar(ID_CERVEJA, 10);
+    }
+
+    @Test
+    void quandoRepeticoesConcorrentesEntaoUmUnicoMovimento() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(cervejaService.incrementar(ID_CERVEJA, 10)).thenAnswer(invocacao -> {
+            emExecucao.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return cervejaDTO;
+        });
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofSeconds(5));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<CervejaDTO> original = executor.submit(() -> estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10));
+            emExecucao.await(5, TimeUnit.SECONDS);
+            Future<CervejaDTO> repetida = executor.submit(() -> estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10));
+            liberar.countDown();
+
+            assertThat(original.get(5, TimeUnit.SECONDS), is(equalTo(cervejaDTO)));
+            assertThat(repetida.get(5, TimeUnit.SECONDS), is(equalTo(cervejaDTO)));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(cervejaService, times(1)).incrementar(ID_CERVEJA, 10);
+    }
+
+    @Test
+    void quandoChaveJaGravadaNoBancoEntaoRespostaRegistradaSemNovoMovimento() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().quantidade(20).versao(3L).build().toCervejaDTO();
+        when(chaveIdempotenciaRepository.saveAndFlush(any(ChaveIdempotencia.class)))
+                .thenThrow(new DataIntegrityViolationException("chave duplicada"));
+        when(chaveIdempotenciaRepository.findById(CHAVE)).thenReturn(Optional.of(new ChaveIdempotencia(
+                CHAVE, "incremento:" + ID_CERVEJA + ":10", Instant.now(), objectMapper.writeValueAsString(cervejaDTO), 1L)));
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofSeconds(5));
+
+        assertThat(estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10), is(equalTo(cervejaDTO)));
+        assertThrows(ChaveIdempotenciaReutilizadaException.class, () -> estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 11));
+        verify(cervejaService, never()).incrementar(ID_CERVEJA, 10);
+    }
+
+    @Test
+    void quandoPrimeiraExecucaoDemoraEntaoRepeticaoRecebeConflito() throws Exception {
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(cervejaService.incrementar(ID_CERVEJA, 10)).thenAnswer(invocacao -> {
+            emExecucao.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return CervejaDTOBuilder.builder().build().toCervejaDTO();
+        });
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, Duration.ofMillis(50));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CervejaDTO> original = executor.submit(() -> estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10));
+            emExecucao.await(5, TimeUnit.SECONDS);
+
+            assertThrows(ChaveIdempotenciaEmUsoException.class, () -> estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10));
+            liberar.countDown();
+            original.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(cervejaService, times(1)).incrementar(ID_CERVEJA, 10);
+    }
+
+    @Test
+    void quandoMovimentoRecusadoForaDoModoSincronoEntaoChaveRemovida() throws Exception {
+        when(cervejaService.decrementar(ID_CERVEJA, 100)).thenThrow(new CervejaEstoqueExcedidoException(ID_CERVEJA, 100));
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.WRITE_BEHIND, Duration.ofSeconds(5));
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> estoqueIdempotente.decrementar(CHAVE, ID_CERVEJA, 100));
+        verify(chaveIdempotenciaRepository, times(1)).saveAndFlush(any(ChaveIdempotencia.class));
+        verify(chaveIdempotenciaRepository, times(1)).deleteById(CHAVE);
+    }
+
+    @Test
+    void quandoPersistenciaDesligadaEntaoChaveSomenteEmMemoria() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        when(cervejaService.incrementar(ID_CERVEJA, 10)).thenReturn(cervejaDTO);
+
+        EstoqueIdempotente estoqueIdempotente = criarEstoqueIdempotente(ModoEstoque.SINCRONO, false, Duration.ofSeconds(5));
+        CervejaDTO primeira = estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10);
+        CervejaDTO repetida = estoqueIdempotente.incrementar(CHAVE, ID_CERVEJA, 10);
+        estoqueIdempotente.removerExpiradas();
+
+        assertThat(repetida, is(equalTo(primeira)));
+        verify(cervejaService, times(1)).incrementar(ID_CERVEJA, 10);
+        verifyNoInteractions(chaveIdempotenciaRepository, transactionManager);
+    }
+
+    private EstoqueIdempotente criarEstoqueIdempotente(ModoEstoque modo, Duration espera) {
+        return criarEstoqueIdempotente(modo, true, espera);
+    }
+
+    private EstoqueIdempotente criarEstoqueIdempotente(ModoEstoque modo, boolean persistente, Duration espera) {
+        return new EstoqueIdempotente(cervejaService, chaveIdempotenciaRepository, transactionManager, objectMapper,
+                new SimpleMeterRegistry(), modo, persistente, 1000, Duration.ofHours(1), espera);
+    }
+
+}
@@ -0,0 +1,175 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.entity.DescargaEstoque;
+import br.com.backend.cervejaria.enums.CervejaEventoTipo;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaNaoEncontradaException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.DescargaEstoqueRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EstoqueWriteBehindTest {
+
+    private static final String NOME_DIARIO = "estoque.log";
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private DescargaEstoqueRepository descargaEstoqueRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path diretorio;
+
+    private CervejaMapper cervejaMapper = CervejaMapper.INSTANCE;
+
+    @Test
+    void quandoMovimentosAceitosEntaoDescarregarSaldoLiquidoNoBanco() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        Cerveja cerveja = cervejaMapper.toModel(cervejaDTO);
+        when(cervejaRepository.findById(cervejaDTO.getId())).thenReturn(Optional.of(cerveja));
+
+        EstoqueWriteBehind estoqueWriteBehind = criarEstoqueWriteBehind();
+        estoqueWriteBehind.movimentar(cervejaDTO.getId(), 5, 5);
+        CervejaDTO cervejaMovimentadaDTO = estoqueWriteBehind.movimentar(cervejaDTO.getId(), -3, 3);
+        estoqueWriteBehind.descarregar();
+
+        assertThat(cervejaMovimentadaDTO.getQuantidade(), is(equalTo(cervejaDTO.getQuantidade() + 2)));
+        verify(cervejaRepository).aplicarDeltasEstoque(Collections.singletonMap(cervejaDTO.getId(), 2));
+        verify(descargaEstoqueRepository).save(new DescargaEstoque(NOME_DIARIO, 1L));
+        assertThat(quantidadeDiarios(), is(equalTo(1L)));
+    }
+
+    @Test
+    void quandoMovimentoUltrapassaMaximoEntaoLancarExcecaoSemRegistrar() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        when(cervejaRepository.findById(cervejaDTO.getId())).thenReturn(Optional.of(cervejaMapper.toModel(cervejaDTO)));
+
+        EstoqueWriteBehind estoqueWriteBehind = criarEstoqueWriteBehind();
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> estoqueWriteBehind.movimentar(cervejaDTO.getId(), 45, 45));
+        estoqueWriteBehind.descarregar();
+        verify(cervejaRepository, never()).aplicarDeltasEstoque(anyMap());
+    }
+
+    @Test
+    void quandoCervejaDescartadaEntaoLancarExcecao() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        when(cervejaRepository.findById(cervejaDTO.getId()))
+                .thenReturn(Optional.of(cervejaMapper.toModel(cervejaDTO)))
+                .thenReturn(Optional.empty());
+
+        EstoqueWriteBehind estoqueWriteBehind = criarEstoqueWriteBehind();
+        estoqueWriteBehind.movimentar(cervejaDTO.getId(), 1, 1);
+        estoqueWriteBehind.descartar(cervejaDTO.getId());
+
+        assertThrows(CervejaNaoEncontradaException.class, () -> estoqueWriteBehind.movimentar(cervejaDTO.getId(), 1, 1));
+    }
+
+    @Test
+    void quandoEventoDeRemocaoEntaoSaldoDescartado() throws Exception {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        when(cervejaRepository.findById(cervejaDTO.getId()))
+                .thenReturn(Optional.of(cervejaMapper.toModel(cervejaDTO)));
+
+        EstoqueWriteBehind estoqueWriteBehind = criarEstoqueWriteBehind();
+        estoqueWriteBehind.movimentar(cervejaDTO.getId(), 1, 1);
+        estoqueWriteBehind.atualizar(new CervejaEvento(CervejaEventoTipo.ESTOQUE_ALTERADO, cervejaDTO));
+        assertThat(estoqueWriteBehind.estadoAtual(cervejaDTO.getId()).isPresent(), is(true));
+
+        estoqueWriteBehind.atualizar(new CervejaEvento(CervejaEventoTipo.REMOVIDA, cervejaDTO));
+
+        assertThat(estoqueWriteBehind.estadoAtual(cervejaDTO.getId()).isPresent(), is(false));
+    }
+
+    @Test
+    void quandoDiarioPendenteNaInicializacaoEntaoReaplicarNoBanco() throws Exception {
+        Files.write(diretorio.resolve(NOME_DIARIO + ".3"), "1;4\n1;-1\n2;7\n".getBytes(StandardCharsets.UTF_8));
+
+        criarEstoqueWriteBehind();
+
+        Map<Long, Integer> deltasEsperados = new HashMap<>();
+        deltasEsperados.put(1L, 3);
+        deltasEsperados.put(2L, 7);
+        verify(cervejaRepository).aplicarDeltasEstoque(deltasEsperados);
+        verify(descargaEstoqueRepository).save(new DescargaEstoque(NOME_DIARIO, 3L));
+        assertThat(quantidadeDiarios(), is(equalTo(1L)));
+    }
+
+    @Test
+    void quandoDiarioJaAplicadoAoBancoEntaoNaoReaplicar() throws Exception {
+        when(descargaEstoqueRepository.findById(NOME_DIARIO)).thenReturn(Optional.of(new DescargaEstoque(NOME_DIARIO, 3L)));
+        Files.write(diretorio.resolve(NOME_DIARIO + ".2"), "1;4\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(diretorio.resolve(NOME_DIARIO + ".3"), "1;5\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(diretorio.resolve(NOME_DIARIO), "2;6\n".getBytes(StandardCharsets.UTF_8));
+
+        criarEstoqueWriteBehind();
+
+        verify(cervejaRepository).aplicarDeltasEstoque(Collections.singletonMap(2L, 6));
+        verify(descargaEstoqueRepository).save(new DescargaEstoque(NOME_DIARIO, 4L));
+        assertThat(quantidadeDiarios(), is(equalTo(1L)));
+    }
+
+    @Test
+    void quandoTodosDiariosJaAplicadosEntaoNadaReaplicado() throws Exception {
+        when(descargaEstoqueRepository.findById(NOME_DIARIO)).thenReturn(Optional.of(new DescargaEstoque(NOME_DIARIO, 3L)));
+        Files.write(diretorio.resolve(NOME_DIARIO + ".3"), "1;5\n".getBytes(StandardCharsets.UTF_8));
+
+        EstoqueWriteBehind estoqueWriteBehind = criarEstoqueWriteBehind();
+
+        verify(cervejaRepository, never()).aplicarDeltasEstoque(anyMap());
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder().build().toCervejaDTO();
+        when(cervejaRepository.findById(cervejaDTO.getId())).thenReturn(Optional.of(cervejaMapper.toModel(cervejaDTO)));
+        estoqueWriteBehind.movimentar(cervejaDTO.getId(), 1, 1);
+        estoqueWriteBehind.descarregar();
+        verify(descargaEstoqueRepository).save(new DescargaEstoque(NOME_DIARIO, 4L));
+    }
+
+    private EstoqueWriteBehind criarEstoqueWriteBehind() throws IOException {
+        EstoqueWriteBehind estoqueWriteBehind = new EstoqueWriteBehind(cervejaRepository, descargaEstoqueRepository, transactionManager,
+                ModoEstoque.WRITE_BEHIND, diretorio.resolve(NOME_DIARIO).toString(), false);
+        estoqueWriteBehind.iniciar();
+        return estoqueWriteBehind;
+    }
+
+    private long quantidadeDiarios() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.count();
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.entity.MovimentoEstoque;
+import br.com.backend.cervejaria.repository.MovimentoEstoqueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class HistoricoEstoqueServiceTest {
+
+    @Mock
+    private MovimentoEstoqueRepository movimentoEstoqueRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void quandoGravacaoFalhaUmaVezEntaoLoteGravadoNaNovaTentativa() {
+        HistoricoEstoqueService historicoEstoqueService = new HistoricoEstoqueService(movimentoEstoqueRepository, meterRegistry, 10, 10, 3, Duration.ZERO);
+        List<List<Integer>> gravados = gravarAposFalhas(1);
+
+        historicoEstoqueService.registrar(1L, 5);
+        historicoEstoqueService.registrar(1L, -2);
+        historicoEstoqueService.descarregar();
+        historicoEstoqueService.descarregar();
+
+        assertThat(gravados, contains(List.of(5, -2)));
+    }
+
+    @Test
+    void quandoTentativasEsgotadasEntaoLoteVoltaParaAFilaNaMesmaOrdem() {
+        HistoricoEstoqueService historicoEstoqueService = new HistoricoEstoqueService(movimentoEstoqueRepository, meterRegistry, 10, 2, 1, Duration.ZERO);
+        List<List<Integer>> gravados = gravarAposFalhas(1);
+
+        historicoEstoqueService.registrar(1L, 1);
+        historicoEstoqueService.registrar(1L, 2);
+        historicoEstoqueService.registrar(2L, 3);
+        historicoEstoqueService.descarregar();
+
+        assertThat(gravados, is(empty()));
+
+        historicoEstoqueService.encerrar();
+
+        assertThat(gravados, contains(List.of(1, 2), List.of(3)));
+    }
+
+    @Test
+    void quandoFilaCheiaEntaoMovimentoDescartadoSemGravarNoChamador() {
+        HistoricoEstoqueService historicoEstoqueService = new HistoricoEstoqueService(movimentoEstoqueRepository, meterRegistry, 2, 10, 3, Duration.ZERO);
+
+        historicoEstoqueService.registrar(1L, 1);
+        historicoEstoqueService.registrar(1L, 2);
+        historicoEstoqueService.registrar(1L, 3);
+
+        verify(movimentoEstoqueRepository, never()).saveAll(anyList());
+        assertThat(meterRegistry.get("cervejaria.historico.descartados").counter().count(), is(equalTo(1.0)));
+    }
+
+    private List<List<Integer>> gravarAposFalhas(int falhas) {
+        List<List<Integer>> gravados = new ArrayList<>();
+        int[] restantes = {falhas};
+        doAnswer(invocacao -> {
+            List<MovimentoEstoque> lote = invocacao.getArgument(0);
+            if (restantes[0]-- > 0) {
+                lote.forEach(movimento -> movimento.setId(1L));
+                throw new DataAccessResourceFailureException("banco indisponível");
+            }
+            assertThat(lote.stream().map(MovimentoEstoque::getId).collect(Collectors.toList()), everyItem(is(nullValue())));
+            gravados.add(lote.stream().map(MovimentoEstoque::getQuantidade).collect(Collectors.toList()));
+            return lote;
+        }).when(movimentoEstoqueRepository).saveAll(anyList());
+        return gravados;
+    }
+
+}
@@ -0,0 +1,114 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.CervejaDTO;
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.dto.ReservaRequisicaoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.CervejaJaCadastradaException;
+import br.com.backend.cervejaria.exception.ReservaEncerradaException;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class ReservaEstoqueIntegracaoTest {
+
+    @Autowired
+    private ReservaEstoqueService reservaEstoqueService;
+
+    @Autowired
+    private CervejaService cervejaService;
+
+    @Autowired
+    private CervejaRepository cervejaRepository;
+
+    @Test
+    void quandoUnidadesReservadasEntaoDecrementoNaoAsConsome() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Reserva Decremento", 50, 10);
+
+        reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(8, null));
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> cervejaService.decrementar(cerveja.getId(), 3));
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(3, null)));
+        assertThat(cervejaService.decrementar(cerveja.getId(), 2).getQuantidade(), is(equalTo(0)));
+        assertThat(cervejaGravada(cerveja).getReservada(), is(equalTo(8)));
+    }
+
+    @Test
+    void quandoReservaConfirmadaEntaoUnidadesSaemDoEstoque() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Reserva Confirmacao", 50, 10);
+        ReservaDTO reserva = reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(4, null));
+
+        assertThat(reservaEstoqueService.confirmar(reserva.getId()).getStatus(), is(equalTo(ReservaStatus.CONFIRMADA)));
+        assertThrows(ReservaEncerradaException.class, () -> reservaEstoqueService.cancelar(reserva.getId()));
+
+        Cerveja gravada = cervejaGravada(cerveja);
+        assertThat(gravada.getQuantidade(), is(equalTo(6)));
+        assertThat(gravada.getReservada(), is(equalTo(0)));
+    }
+
+    @Test
+    void quandoReservasCanceladaEExpiradaEntaoUnidadesDevolvidas() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Reserva Expiracao", 50, 10);
+        ReservaDTO cancelada = reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(3, null));
+        ReservaDTO expirada = reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(5, 1L));
+
+        reservaEstoqueService.cancelar(cancelada.getId());
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (reservaEstoqueService.consultar(expirada.getId()).getStatus() == ReservaStatus.ABERTA && System.nanoTime() < limite) {
+            Thread.sleep(50);
+            reservaEstoqueService.expirarVencidas();
+        }
+
+        assertThat(reservaEstoqueService.consultar(expirada.getId()).getStatus(), is(equalTo(ReservaStatus.EXPIRADA)));
+        Cerveja gravada = cervejaGravada(cerveja);
+        assertThat(gravada.getQuantidade(), is(equalTo(10)));
+        assertThat(gravada.getReservada(), is(equalTo(0)));
+    }
+
+    @Test
+    void quandoUnidadesReservadasEntaoIncrementoRespeitaMaximo() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Reserva Maximo", 20, 20);
+        reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(5, null));
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> cervejaService.incrementar(cerveja.getId(), 1));
+    }
+
+    @Test
+    void quandoCervejaExcluidaEntaoReservasAbertasCanceladas() throws Exception {
+        CervejaDTO cerveja = criarCerveja("Reserva Exclusao", 50, 10);
+        ReservaDTO reserva = reservaEstoqueService.reservar(cerveja.getId(), new ReservaRequisicaoDTO(4, null));
+
+        cervejaService.deletarPorId(cerveja.getId());
+
+        assertThat(reservaEstoqueService.consultar(reserva.getId()).getStatus(), is(equalTo(ReservaStatus.CANCELADA)));
+        assertThrows(ReservaEncerradaException.class, () -> reservaEstoqueService.confirmar(reserva.getId()));
+    }
+
+    private CervejaDTO criarCerveja(String nome, int maximo, int quantidade) throws CervejaJaCadastradaException {
+        CervejaDTO cervejaDTO = CervejaDTOBuilder.builder()
+                .id(null)
+                .nome(nome)
+                .maximo(maximo)
+                .quantidade(quantidade)
+                .build()
+                .toCervejaDTO();
+        return cervejaService.criarCerveja(cervejaDTO);
+    }
+
+    private Cerveja cervejaGravada(CervejaDTO cerveja) {
+        return cervejaRepository.findById(cerveja.getId()).orElseThrow(IllegalStateException::new);
+    }
+
+}
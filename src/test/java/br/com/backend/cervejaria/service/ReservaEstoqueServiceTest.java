@@ -0,0 +1,193 @@
+package br.com.backend.cervejaria.service;
+
+import br.com.backend.cervejaria.builder.CervejaDTOBuilder;
+import br.com.backend.cervejaria.dto.ReservaDTO;
+import br.com.backend.cervejaria.dto.ReservaRequisicaoDTO;
+import br.com.backend.cervejaria.entity.Cerveja;
+import br.com.backend.cervejaria.entity.ReservaEstoque;
+import br.com.backend.cervejaria.enums.ModoEstoque;
+import br.com.backend.cervejaria.enums.ReservaStatus;
+import br.com.backend.cervejaria.evento.CervejaEvento;
+import br.com.backend.cervejaria.exception.CervejaEstoqueExcedidoException;
+import br.com.backend.cervejaria.exception.ReservaEncerradaException;
+import br.com.backend.cervejaria.exception.ReservaIndisponivelException;
+import br.com.backend.cervejaria.mapper.CervejaMapper;
+import br.com.backend.cervejaria.repository.CervejaRepository;
+import br.com.backend.cervejaria.repository.ReservaEstoqueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservaEstoqueServiceTest {
+
+    private static final long ID_CERVEJA = 1L;
+    private static final long ID_RESERVA = 10L;
+
+    @Mock
+    private ReservaEstoqueRepository reservaEstoqueRepository;
+
+    @Mock
+    private CervejaRepository cervejaRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void quandoEstoqueDisponivelEntaoReservaAbertaComPrazoInformado() throws Exception {
+        when(cervejaRepository.reservarEstoque(ID_CERVEJA, 5)).thenReturn(1);
+        when(reservaEstoqueRepository.save(any(ReservaEstoque.class))).thenAnswer(invocacao -> {
+            ReservaEstoque reserva = invocacao.getArgument(0);
+            reserva.setId(ID_RESERVA);
+            return reserva;
+        });
+        when(cervejaRepository.findAllById(Set.of(ID_CERVEJA))).thenReturn(List.of(cerveja()));
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.SINCRONO);
+
+        ReservaDTO reserva = reservaEstoqueService.reservar(ID_CERVEJA, new ReservaRequisicaoDTO(5, 60L));
+
+        assertThat(reserva.getId(), is(equalTo(ID_RESERVA)));
+        assertThat(reserva.getStatus(), is(equalTo(ReservaStatus.ABERTA)));
+        assertThat(Duration.between(reserva.getCriadaEm(), reserva.getExpiraEm()), is(equalTo(Duration.ofSeconds(60))));
+        assertThat(meterRegistry.get("cervejaria.reservas.abertas").gauge().value(), is(equalTo(1.0)));
+        verify(eventPublisher).publishEvent(any(CervejaEvento.class));
+    }
+
+    @Test
+    void quandoEstoqueDisponivelInsuficienteEntaoExcecaoSemReserva() {
+        when(cervejaRepository.reservarEstoque(ID_CERVEJA, 50)).thenReturn(0);
+        when(cervejaRepository.findById(ID_CERVEJA)).thenReturn(Optional.of(cerveja()));
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.SINCRONO);
+
+        assertThrows(CervejaEstoqueExcedidoException.class, () -> reservaEstoqueService.reservar(ID_CERVEJA, new ReservaRequisicaoDTO(50, null)));
+        verify(reservaEstoqueRepository, never()).save(any(ReservaEstoque.class));
+    }
+
+    @Test
+    void quandoModoWriteBehindEntaoReservaRecusada() {
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.WRITE_BEHIND);
+
+        assertThrows(ReservaIndisponivelException.class, () -> reservaEstoqueService.reservar(ID_CERVEJA, new ReservaRequisicaoDTO(5, null)));
+        verify(cervejaRepository, never()).reservarEstoque(anyLong(), anyInt());
+    }
+
+    @Test
+    void quandoModoWriteBehindEntaoReservasNaoCarregadasNemEncerradas() {
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.WRITE_BEHIND);
+
+        reservaEstoqueService.carregar();
+        reservaEstoqueService.expirarVencidas();
+
+        assertThrows(ReservaIndisponivelException.class, () -> reservaEstoqueService.confirmar(ID_RESERVA));
+        assertThrows(ReservaIndisponivelException.class, () -> reservaEstoqueService.cancelar(ID_RESERVA));
+        verify(reservaEstoqueRepository, never()).findByStatus(any());
+        verify(reservaEstoqueRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void quandoPrazoVenceEntaoReservaExpiradaEUnidadesDevolvidas() {
+        ReservaEstoque reserva = reserva(Instant.now().minusSeconds(1));
+        when(reservaEstoqueRepository.findByStatus(ReservaStatus.ABERTA)).thenReturn(List.of(reserva));
+        when(reservaEstoqueRepository.travarPorIdsEStatus(List.of(ID_RESERVA), ReservaStatus.ABERTA)).thenReturn(List.of(reserva));
+        when(cervejaRepository.findAllById(Set.of(ID_CERVEJA))).thenReturn(List.of(cerveja()));
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.SINCRONO);
+        reservaEstoqueService.carregar();
+
+        reservaEstoqueService.expirarVencidas();
+
+        assertThat(reserva.getStatus(), is(equalTo(ReservaStatus.EXPIRADA)));
+        assertThat(meterRegistry.get("cervejaria.reservas.abertas").gauge().value(), is(equalTo(0.0)));
+        verify(cervejaRepository).liberarReservas(Map.of(ID_CERVEJA, 5));
+        verify(eventPublisher).publishEvent(any(CervejaEvento.class));
+    }
+
+    @Test
+    void quandoConfirmacaoRepetidaEntaoEstoqueBaixadoUmaVez() throws Exception {
+        ReservaEstoque reserva = reserva(Instant.now().plusSeconds(60));
+        when(reservaEstoqueRepository.travarPorIdsEStatus(List.of(ID_RESERVA), ReservaStatus.ABERTA))
+                .thenReturn(List.of(reserva))
+                .thenReturn(Collections.emptyList());
+        when(reservaEstoqueRepository.findById(ID_RESERVA)).thenReturn(Optional.of(reserva));
+        when(cervejaRepository.findAllById(Set.of(ID_CERVEJA))).thenReturn(List.of(cerveja()));
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.SINCRONO);
+
+        ReservaDTO confirmada = reservaEstoqueService.confirmar(ID_RESERVA);
+        ReservaDTO repetida = reservaEstoqueService.confirmar(ID_RESERVA);
+
+        assertThat(confirmada.getStatus(), is(equalTo(ReservaStatus.CONFIRMADA)));
+        assertThat(repetida, is(equalTo(confirmada)));
+        verify(cervejaRepository, times(1)).baixarReserva(ID_CERVEJA, 5);
+    }
+
+    @Test
+    void quandoPrazoVencidoAntesDaExpiracaoEntaoConfirmacaoRecusada() {
+        ReservaEstoque reserva = reserva(Instant.now().minusSeconds(1));
+        when(reservaEstoqueRepository.travarPorIdsEStatus(List.of(ID_RESERVA), ReservaStatus.ABERTA)).thenReturn(List.of(reserva));
+        when(reservaEstoqueRepository.findById(ID_RESERVA)).thenReturn(Optional.of(reserva));
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.SINCRONO);
+
+        ReservaEncerradaException erro = assertThrows(ReservaEncerradaException.class, () -> reservaEstoqueService.confirmar(ID_RESERVA));
+
+        assertThat(erro.getMessage(), is(equalTo("Reserva com o id 10 já está expirada.")));
+        verify(cervejaRepository, never()).baixarReserva(anyLong(), anyInt());
+    }
+
+    @Test
+    void quandoCanceladaEntaoUnidadesDevolvidasESemExpiracao() throws Exception {
+        ReservaEstoque reserva = reserva(Instant.now().plusSeconds(60));
+        when(reservaEstoqueRepository.findByStatus(ReservaStatus.ABERTA)).thenReturn(List.of(reserva));
+        when(reservaEstoqueRepository.travarPorIdsEStatus(List.of(ID_RESERVA), ReservaStatus.ABERTA)).thenReturn(List.of(reserva));
+        when(cervejaRepository.findAllById(Set.of(ID_CERVEJA))).thenReturn(List.of(cerveja()));
+        ReservaEstoqueService reservaEstoqueService = criarReservaEstoqueService(ModoEstoque.SINCRONO);
+        reservaEstoqueService.carregar();
+
+        ReservaDTO cancelada = reservaEstoqueService.cancelar(ID_RESERVA);
+
+        assertThat(cancelada.getStatus(), is(equalTo(ReservaStatus.CANCELADA)));
+        assertThat(meterRegistry.get("cervejaria.reservas.abertas").gauge().value(), is(equalTo(0.0)));
+        verify(cervejaRepository, times(1)).liberarReservas(Map.of(ID_CERVEJA, 5));
+    }
+
+    private ReservaEstoqueService criarReservaEstoqueService(ModoEstoque modo) {
+        return new ReservaEstoqueService(reservaEstoqueRepository, cervejaRepository, eventPublisher,
+                transactionManager, meterRegistry, modo, Duration.ofMinutes(15), 1, 64);
+    }
+
+    private static ReservaEstoque reserva(Instant expiraEm) {
+        return new ReservaEstoque(ID_RESERVA, ID_CERVEJA, 5, ReservaStatus.ABERTA, expiraEm.minusSeconds(60), expiraEm);
+    }
+
+    private static Cerveja cerveja() {
+        return CervejaMapper.INSTANCE.toModel(CervejaDTOBuilder.builder().build().toCervejaDTO());
+    }
+
+}